@@ -0,0 +1,44 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.service.AuthorizerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// SampleTime registra a distribuição completa: p50/p99 da chamada ao autorizador saem no JSON
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class AuthorizerLatencyBenchmark {
+
+    @Param({"5"})
+    private long stubLatencyMillis;
+
+    private AuthorizerStub stub;
+    private ConfigurableApplicationContext context;
+    private AuthorizerService authorizerService;
+
+    @Setup
+    public void setUp() {
+        stub = new AuthorizerStub(Duration.ofMillis(stubLatencyMillis));
+        context = BenchmarkContext.start("authorizer.url=" + stub.url());
+        authorizerService = context.getBean(AuthorizerService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public boolean authorize() {
+        return authorizerService.authorize();
+    }
+}
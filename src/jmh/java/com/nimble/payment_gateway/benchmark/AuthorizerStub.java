@@ -0,0 +1,32 @@
+package com.nimble.payment_gateway.benchmark;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+
+// Autorizador local com latência fixa, para medir o cliente sem depender da rede externa
+final class AuthorizerStub implements AutoCloseable {
+
+    private static final String AUTHORIZED = "{\"status\":\"success\",\"data\":{\"authorized\":true}}";
+
+    private final DisposableServer server;
+
+    AuthorizerStub(Duration latency) {
+        this.server = HttpServer.create()
+                .port(0)
+                .handle((request, response) -> Mono.delay(latency)
+                        .then(response.sendString(Mono.just(AUTHORIZED)).then()))
+                .bindNow();
+    }
+
+    String url() {
+        return "http://localhost:" + server.port() + "/authorizer";
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,93 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.model.dto.request.LoginRequest;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.AuthService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/users/balance por HTTP, em requisições por segundo, como um cliente fazendo polling:
+// balanceCacheTtl=0 consulta o razão a cada requisição; "etag" reenvia o ETag recebido e leva 304 sem corpo
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class BalanceEndpointBenchmark {
+
+    private static final String PASSWORD = "senha123";
+
+    @Param({"0", "2000"})
+    private long balanceCacheTtl;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest fullRequest;
+    private HttpRequest conditionalRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkContext.start("balance-cache.ttl=" + balanceCacheTtl);
+
+        User user = context.getBean(UserRepository.class).save(User.builder()
+                .name("Alice Souza")
+                .cpf("52998224725")
+                .email("alice@email.com")
+                .password(context.getBean(PasswordEncoder.class).encode(PASSWORD))
+                .role("ADMIN")
+                .build());
+        context.getBean(LedgerEntryRepository.class).save(LedgerEntry.builder()
+                .accountId(user.getId())
+                .sequence(1)
+                .amount(new BigDecimal("1500.00"))
+                .build());
+
+        String token = context.getBean(AuthService.class).login(LoginRequest.builder()
+                .identifier(user.getCpf())
+                .password(PASSWORD)
+                .build()).getToken();
+
+        client = HttpClient.newHttpClient();
+        fullRequest = HttpRequest.newBuilder(URI.create("http://localhost:"
+                        + context.getEnvironment().getProperty("local.server.port") + "/api/users/balance"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        String etag = client.send(fullRequest, HttpResponse.BodyHandlers.discarding())
+                .headers().firstValue("ETag").orElseThrow();
+        conditionalRequest = HttpRequest.newBuilder(fullRequest, (name, value) -> true)
+                .header("If-None-Match", etag)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String full() throws Exception {
+        return client.send(fullRequest, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public int etag() throws Exception {
+        HttpResponse<Void> response = client.send(conditionalRequest, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 304) {
+            throw new IllegalStateException("Esperado 304, recebido " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,56 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.PaymentGatewayApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Sobe a aplicação completa sobre um H2 em memória isolado por benchmark,
+// ou sobre o PostgreSQL indicado em BENCHMARK_JDBC_URL / BENCHMARK_JDBC_USER / BENCHMARK_JDBC_PASSWORD
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    // Propriedades passadas como argumentos de linha de comando têm precedência sobre o application.yaml;
+    // as informadas pelo benchmark substituem os padrões abaixo
+    static ConfigurableApplicationContext start(String... properties) {
+        Map<String, String> args = new LinkedHashMap<>();
+        List<String> defaults = new ArrayList<>(datasourceProperties());
+        defaults.addAll(List.of(
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "spring.main.banner-mode=off",
+                "server.port=0",
+                "logging.level.root=WARN"));
+        defaults.addAll(List.of(properties));
+        for (String property : defaults) {
+            args.put(property.substring(0, property.indexOf('=')), property);
+        }
+
+        return new SpringApplicationBuilder(PaymentGatewayApplication.class)
+                .run(args.values().stream().map(arg -> "--" + arg).toArray(String[]::new));
+    }
+
+    private static List<String> datasourceProperties() {
+        String jdbcUrl = System.getenv("BENCHMARK_JDBC_URL");
+        if (jdbcUrl == null) {
+            return List.of(
+                    "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=");
+        }
+        return List.of(
+                "spring.datasource.url=" + jdbcUrl,
+                "spring.datasource.driver-class-name=org.postgresql.Driver",
+                "spring.datasource.username=" + System.getenv().getOrDefault("BENCHMARK_JDBC_USER", "postgres"),
+                "spring.datasource.password=" + System.getenv().getOrDefault("BENCHMARK_JDBC_PASSWORD", ""));
+    }
+}
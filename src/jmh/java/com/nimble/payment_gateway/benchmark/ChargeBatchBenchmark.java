@@ -0,0 +1,84 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.model.dto.request.CreateChargeRequest;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.ChargeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Cobranças criadas por segundo: uma chamada por cobrança (endpoint atual) contra o lote
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ChargeBatchBenchmark {
+
+    private static final int CHARGES_PER_OPERATION = 1000;
+    private static final int RECIPIENTS = 200;
+
+    private ConfigurableApplicationContext context;
+    private ChargeService chargeService;
+    private UUID originatorId;
+    private List<CreateChargeRequest> requests;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        chargeService = context.getBean(ChargeService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        originatorId = userRepository.save(user(0)).getId();
+        List<User> recipients = new ArrayList<>();
+        for (int i = 1; i <= RECIPIENTS; i++) {
+            recipients.add(user(i));
+        }
+        userRepository.saveAll(recipients);
+
+        requests = new ArrayList<>(CHARGES_PER_OPERATION);
+        for (int i = 0; i < CHARGES_PER_OPERATION; i++) {
+            requests.add(CreateChargeRequest.builder()
+                    .recipientCpf(recipients.get(i % RECIPIENTS).getCpf())
+                    .amount(new BigDecimal("25.00"))
+                    .description("Mensalidade")
+                    .build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHARGES_PER_OPERATION)
+    public void singleCharges() {
+        for (CreateChargeRequest request : requests) {
+            chargeService.createCharge(originatorId, request);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHARGES_PER_OPERATION)
+    public Object batchCharges() {
+        return chargeService.createCharges(originatorId, requests);
+    }
+
+    private static User user(int i) {
+        return User.builder()
+                .name("Cliente " + i)
+                .cpf(String.format("%011d", i))
+                .email("cliente" + i + "@email.com")
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build();
+    }
+}
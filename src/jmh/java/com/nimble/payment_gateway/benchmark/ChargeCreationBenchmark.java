@@ -0,0 +1,90 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.model.dto.request.CreateChargeRequest;
+import com.nimble.payment_gateway.model.dto.response.ChargeResponse;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.ChargeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Criação de cobrança com e sem o cache de segundo nível para usuários. Ao fim imprime os statements
+// JDBC por cobrança; as varreduras agendadas ficam paradas para não entrar na conta
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChargeCreationBenchmark {
+
+    @Param({"true", "false"})
+    private String userCache;
+
+    private ConfigurableApplicationContext context;
+    private ChargeService chargeService;
+    private Statistics statistics;
+    private User originator;
+    private CreateChargeRequest request;
+    private long charges;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + userCache,
+                "capture.poll-interval=3600000",
+                "outbox.relay.interval=3600000",
+                "outbox.stream.interval=3600000");
+        chargeService = context.getBean(ChargeService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        originator = userRepository.save(User.builder()
+                .name("Alice Souza")
+                .cpf("52998224725")
+                .email("alice@email.com")
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+        User recipient = userRepository.save(User.builder()
+                .name("Bob Lima")
+                .cpf("11144477735")
+                .email("bob@email.com")
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+        request = CreateChargeRequest.builder()
+                .recipientCpf(recipient.getCpf())
+                .amount(new BigDecimal("10.00"))
+                .description("Cobrança de benchmark")
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+        charges = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        System.out.printf("%n  statements por cobrança: %.2f%n", (double) statistics.getPrepareStatementCount() / charges);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ChargeResponse createCharge() {
+        charges++;
+        return chargeService.createCharge(originator.getId(), request);
+    }
+}
@@ -0,0 +1,121 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.model.dto.request.PaymentRequest;
+import com.nimble.payment_gateway.model.dto.response.PaymentResponse;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.PaymentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pagamentos com saldo em 8 threads nos modos pessimista e otimista. Em "low" cada thread paga entre o seu
+ * próprio par de contas; em "high" todas pagam a mesma loja. O modo SampleTime traz os percentis de latência.
+ * -p fallbackConflictRate=2 desliga a volta ao lock pessimista das contas disputadas no modo otimista.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(8)
+@Fork(1)
+public class ConcurrencyModeBenchmark {
+
+    @Param({"PESSIMISTIC", "OPTIMISTIC"})
+    private String mode;
+
+    @Param({"low", "high"})
+    private String contention;
+
+    @Param({"0.2"})
+    private String fallbackConflictRate;
+
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private UserRepository userRepository;
+    private ChargeRepository chargeRepository;
+    private LedgerEntryRepository ledgerEntryRepository;
+    private User sharedMerchant;
+    private final AtomicInteger users = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "payment.concurrency.mode=" + mode,
+                "payment.concurrency.fallback.conflict-rate=" + fallbackConflictRate,
+                "spring.datasource.hikari.maximum-pool-size=8");
+        paymentService = context.getBean(PaymentService.class);
+        userRepository = context.getBean(UserRepository.class);
+        chargeRepository = context.getBean(ChargeRepository.class);
+        ledgerEntryRepository = context.getBean(LedgerEntryRepository.class);
+        sharedMerchant = createUser(BigDecimal.ZERO);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PaymentResponse payWithBalance(Payer payer) {
+        return paymentService.payCharge(payer.user.getId(), PaymentRequest.builder()
+                .chargeId(payer.charge.getId())
+                .paymentMethod(PaymentMethod.BALANCE)
+                .build());
+    }
+
+    private User createUser(BigDecimal openingBalance) {
+        int n = users.incrementAndGet();
+        User user = userRepository.save(User.builder()
+                .name("Cliente " + n)
+                .cpf(String.format("%011d", n))
+                .email("cliente" + n + "@email.com")
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+        if (openingBalance.signum() > 0) {
+            ledgerEntryRepository.save(LedgerEntry.builder()
+                    .accountId(user.getId())
+                    .sequence(1)
+                    .amount(openingBalance)
+                    .build());
+        }
+        return user;
+    }
+
+    @State(Scope.Thread)
+    public static class Payer {
+
+        private User user;
+        private User merchant;
+        private Charge charge;
+
+        @Setup(Level.Trial)
+        public void createAccounts(ConcurrencyModeBenchmark benchmark) {
+            user = benchmark.createUser(new BigDecimal("1000000000.00"));
+            merchant = "high".equals(benchmark.contention)
+                    ? benchmark.sharedMerchant
+                    : benchmark.createUser(BigDecimal.ZERO);
+        }
+
+        @Setup(Level.Invocation)
+        public void createCharge(ConcurrencyModeBenchmark benchmark) {
+            charge = benchmark.chargeRepository.save(Charge.builder()
+                    .originator(merchant)
+                    .recipient(user)
+                    .amount(new BigDecimal("10.00"))
+                    .description("Cobrança de benchmark")
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.util.CpfValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Rode com -Djmh.args="-prof gc" para conferir gc.alloc.rate.norm = 0 B/op em isValid
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpfValidatorBenchmark {
+
+    @Param({"52998224725", "52998224726", "11111111111", "529.982.247-25"})
+    private String cpf;
+
+    private byte[] cpfBytes;
+
+    @Setup
+    public void setUp() {
+        cpfBytes = cpf.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return CpfValidator.isValid(cpf);
+    }
+
+    @Benchmark
+    public boolean isValidBytes() {
+        return CpfValidator.isValid(cpfBytes);
+    }
+
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public static class Bulk {
+
+        private List<String> cpfs;
+
+        @Setup
+        public void setUp() {
+            cpfs = new ArrayList<>(1_000_000);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 1_000_000; i++) {
+                cpfs.add(String.format("%011d", random.nextLong(100_000_000_000L)));
+            }
+        }
+
+        @Benchmark
+        public boolean[] validateAll() {
+            return CpfValidator.validateAll(cpfs);
+        }
+    }
+}
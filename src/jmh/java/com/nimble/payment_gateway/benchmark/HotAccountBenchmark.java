@@ -0,0 +1,80 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.LedgerService;
+import com.nimble.payment_gateway.service.LedgerService.LedgerAccount;
+import com.nimble.payment_gateway.util.UuidV7;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Créditos por segundo numa única conta recebedora, com 16 threads concorrentes, variando o número de shards.
+ * holdMillis simula o tempo que o lock fica preso até o commit (round trips ao banco, demais escritas
+ * do pagamento); com 0 o H2 em memória é limitado pela CPU e não pelo lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class HotAccountBenchmark {
+
+    @Param({"1", "4", "16"})
+    private int shards;
+
+    @Param({"0", "2"})
+    private long holdMillis;
+
+    private ConfigurableApplicationContext context;
+    private LedgerService ledgerService;
+    private TransactionTemplate transactionTemplate;
+    private UUID merchantId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("spring.datasource.hikari.maximum-pool-size=16");
+        ledgerService = context.getBean(LedgerService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        merchantId = context.getBean(UserRepository.class).save(User.builder()
+                .name("Loja Grande")
+                .cpf("39053344705")
+                .email("loja@email.com")
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build()).getId();
+        ledgerService.enableSharding(merchantId, shards);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void creditMerchant() {
+        transactionTemplate.executeWithoutResult(status -> {
+            LedgerAccount merchant = ledgerService.lock(null, merchantId, UuidV7.randomUuid()).get(merchantId);
+            ledgerService.credit(merchant, new BigDecimal("10.00"), null);
+            if (holdMillis > 0) {
+                sleep(holdMillis);
+            }
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
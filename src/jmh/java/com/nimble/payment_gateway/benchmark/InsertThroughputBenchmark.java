@@ -0,0 +1,96 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.util.UuidV7;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de inserts numa tabela com o formato de transactions: UUID aleatório (v4) contra UUIDv7,
+ * com um statement por linha (antes) ou em lotes JDBC (depois). Usa H2 em memória por padrão;
+ * para PostgreSQL, defina BENCHMARK_JDBC_URL, BENCHMARK_JDBC_USER e BENCHMARK_JDBC_PASSWORD.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class InsertThroughputBenchmark {
+
+    private static final int ROWS_PER_OPERATION = 500;
+
+    @Param({"v4", "v7"})
+    private String idType;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private final BigDecimal amount = new BigDecimal("10.00");
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = System.getenv().getOrDefault("BENCHMARK_JDBC_URL",
+                "jdbc:h2:mem:insert-bench;DB_CLOSE_DELAY=-1");
+        connection = DriverManager.getConnection(url,
+                System.getenv().getOrDefault("BENCHMARK_JDBC_USER", "sa"),
+                System.getenv().getOrDefault("BENCHMARK_JDBC_PASSWORD", ""));
+        connection.setAutoCommit(false);
+
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_transactions");
+            ddl.execute("CREATE TABLE bench_transactions (id UUID PRIMARY KEY, user_id UUID NOT NULL, "
+                    + "amount NUMERIC(19,2) NOT NULL, type VARCHAR(20) NOT NULL, created_at TIMESTAMP NOT NULL)");
+            ddl.execute("CREATE INDEX idx_bench_transaction_created ON bench_transactions (created_at)");
+        }
+        connection.commit();
+
+        insert = connection.prepareStatement(
+                "INSERT INTO bench_transactions (id, user_id, amount, type, created_at) VALUES (?, ?, ?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        insert.close();
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE bench_transactions");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_OPERATION)
+    public void insertTransactions() throws Exception {
+        UUID userId = UUID.randomUUID();
+        for (int i = 1; i <= ROWS_PER_OPERATION; i++) {
+            insert.setObject(1, "v7".equals(idType) ? UuidV7.randomUuid() : UUID.randomUUID());
+            insert.setObject(2, userId);
+            insert.setBigDecimal(3, amount);
+            insert.setString(4, "PAYMENT");
+            insert.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+
+            if (batchSize == 1) {
+                insert.executeUpdate();
+            } else {
+                insert.addBatch();
+                if (i % batchSize == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        if (batchSize > 1) {
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+}
@@ -0,0 +1,76 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.security.JwtAuthenticationFilter;
+import com.nimble.payment_gateway.security.JwtTokenProvider;
+import com.nimble.payment_gateway.security.UserPrincipal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter authenticationFilter;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        tokenProvider = context.getBean(JwtTokenProvider.class);
+        authenticationFilter = context.getBean(JwtAuthenticationFilter.class);
+
+        User user = context.getBean(UserRepository.class).save(User.builder()
+                .name("Benchmark User")
+                .cpf("52998224725")
+                .email("bench@email.com")
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+        UserPrincipal principal = UserPrincipal.create(user);
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user.getCpf(), null));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    // Custo do filtro por requisição autenticada: parse do token + principal em cache
+    @Benchmark
+    public Object authenticationFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        authenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+}
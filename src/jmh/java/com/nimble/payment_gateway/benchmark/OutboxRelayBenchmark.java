@@ -0,0 +1,72 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.service.OutboxRelay;
+import com.nimble.payment_gateway.util.UuidV7;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão do relay do outbox em eventos/s: numeração e publicação de um acúmulo de eventos pendentes,
+ * como após um restart. Os agendamentos ficam desligados para que só o benchmark consuma a tabela.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class OutboxRelayBenchmark {
+
+    private static final int EVENTS_PER_OPERATION = 2_000;
+
+    @Param({"100", "500"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private OutboxRelay outboxRelay;
+    private JdbcTemplate jdbcTemplate;
+    private final UUID userId = UUID.randomUUID();
+    private final UUID counterpartyId = UUID.randomUUID();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "outbox.relay.batch-size=" + batchSize,
+                "outbox.relay.interval=3600000",
+                "outbox.stream.interval=3600000");
+        outboxRelay = context.getBean(OutboxRelay.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void enqueueEvents() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(EVENTS_PER_OPERATION);
+        for (int i = 0; i < EVENTS_PER_OPERATION; i++) {
+            UUID id = UuidV7.randomUuid();
+            rows.add(new Object[]{id, "TRANSACTION_CREATED", id, userId, counterpartyId,
+                    "{\"transactionId\":\"" + id + "\",\"amount\":10.00}", now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events (id, type, aggregate_id, user_id, counterparty_id, payload, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_OPERATION)
+    public void relayPendingEvents() {
+        outboxRelay.relay();
+    }
+}
@@ -0,0 +1,38 @@
+package com.nimble.payment_gateway.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private PasswordEncoder passwordEncoder;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        // Usa o encoder configurado na aplicação para medir o custo real do login
+        context = BenchmarkContext.start();
+        passwordEncoder = context.getBean(PasswordEncoder.class);
+        encoded = passwordEncoder.encode("senha123");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("senha123", encoded);
+    }
+}
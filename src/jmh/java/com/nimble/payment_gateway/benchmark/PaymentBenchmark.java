@@ -0,0 +1,88 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.model.dto.request.PaymentRequest;
+import com.nimble.payment_gateway.model.dto.response.PaymentResponse;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.PaymentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Pagamento com saldo de ponta a ponta: lock das contas, leitura do saldo no razão, atualização da cobrança
+// e gravação da transação e dos lançamentos no H2
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private ChargeRepository chargeRepository;
+    private User payer;
+    private User recipient;
+    private Charge charge;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        paymentService = context.getBean(PaymentService.class);
+        chargeRepository = context.getBean(ChargeRepository.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        payer = userRepository.save(User.builder()
+                .name("Alice Souza")
+                .cpf("52998224725")
+                .email("alice@email.com")
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+        recipient = userRepository.save(User.builder()
+                .name("Bob Lima")
+                .cpf("11144477735")
+                .email("bob@email.com")
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+
+        // Saldo de abertura do pagador lançado direto no razão
+        context.getBean(LedgerEntryRepository.class).save(LedgerEntry.builder()
+                .accountId(payer.getId())
+                .sequence(1)
+                .amount(new BigDecimal("1000000000.00"))
+                .build());
+    }
+
+    @Setup(Level.Invocation)
+    public void createCharge() {
+        charge = chargeRepository.save(Charge.builder()
+                .originator(recipient)
+                .recipient(payer)
+                .amount(new BigDecimal("10.00"))
+                .description("Cobrança de benchmark")
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PaymentResponse payChargeWithBalance() {
+        return paymentService.payCharge(payer.getId(), PaymentRequest.builder()
+                .chargeId(charge.getId())
+                .paymentMethod(PaymentMethod.BALANCE)
+                .build());
+    }
+}
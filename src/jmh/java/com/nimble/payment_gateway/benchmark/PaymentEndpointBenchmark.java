@@ -0,0 +1,151 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rajadas de N depósitos simultâneos em POST /api/payments/deposit, pela rede e com JWT, com o Tomcat em
+ * threads de plataforma (200, o padrão) ou em virtual threads. O autorizador é um stub local com 20 ms de
+ * latência; bulkhead, pool do cliente e circuit breaker comportam a rajada inteira (com a CPU saturada toda
+ * chamada passa de 2 s e abriria o circuito): a diferença medida é a das threads.
+ * Ao fim de cada iteração imprime p50/p99 por requisição. Cliente e servidor abrem um socket cada por
+ * requisição em andamento; 10000 precisa de ulimit -n acima de 20000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class PaymentEndpointBenchmark {
+
+    private static final int ACCOUNTS = 100;
+    private static final String DEPOSIT = "{\"amount\":10.00}";
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"1000", "5000", "10000"})
+    private int concurrency;
+
+    private AuthorizerStub stub;
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private URI depositUri;
+    private final List<String> tokens = new ArrayList<>(ACCOUNTS);
+    private final List<Long> latencies = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stub = new AuthorizerStub(Duration.ofMillis(20));
+        context = BenchmarkContext.start(
+                "spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                "server.tomcat.max-connections=" + (concurrency + 1000),
+                "server.tomcat.accept-count=" + concurrency,
+                "spring.datasource.hikari.connection-timeout=120000",
+                "authorizer.url=" + stub.url(),
+                "authorizer.timeout=60000",
+                "authorizer.bulkhead.max-concurrent-calls=" + concurrency,
+                "authorizer.pool.max-connections=" + concurrency,
+                "authorizer.pool.pending-acquire-max-count=" + concurrency,
+                "authorizer.circuit-breaker.slow-call-duration-threshold=60000",
+                "authorizer.hedge.enabled=false",
+                "capture.poll-interval=3600000",
+                "outbox.relay.interval=3600000",
+                "outbox.stream.interval=3600000");
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        JwtTokenProvider tokenProvider = context.getBean(JwtTokenProvider.class);
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            User user = userRepository.save(User.builder()
+                    .name("Cliente " + i)
+                    .cpf(String.format("%011d", i))
+                    .email("cliente" + i + "@email.com")
+                    .password("hashedPassword")
+                    .role("USER")
+                    .build());
+            tokens.add(tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user.getCpf(), null)));
+        }
+
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        depositUri = URI.create("http://localhost:" + port + "/api/payments/deposit");
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetLatencies() {
+        latencies.clear();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportLatencies() {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length > 0) {
+            System.out.printf("%n  requisição: p50 %d ms, p99 %d ms, máx %d ms (%d requisições)%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1], sorted.length);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientExecutor.shutdownNow();
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<Long>> results = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            results.add(deposit(tokens.get(i % ACCOUNTS)));
+        }
+        long[] burstLatencies = results.stream().mapToLong(CompletableFuture::join).toArray();
+        Arrays.stream(burstLatencies).forEach(latencies::add);
+        return burstLatencies.length;
+    }
+
+    private CompletableFuture<Long> deposit(String token) {
+        HttpRequest request = HttpRequest.newBuilder(depositUri)
+                .timeout(Duration.ofMinutes(2))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(DEPOSIT))
+                .build();
+        long startedAt = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Depósito respondeu " + response.statusCode() + ": " + response.body());
+                    }
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                });
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,119 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.model.dto.request.LoginRequest;
+import com.nimble.payment_gateway.model.dto.request.PaymentRequest;
+import com.nimble.payment_gateway.model.dto.response.AuthResponse;
+import com.nimble.payment_gateway.model.dto.response.PaymentResponse;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.AuthService;
+import com.nimble.payment_gateway.service.PaymentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Login e pagamento com saldo com os logs de aplicação em INFO: "default" escreve cada linha de forma
+// síncrona no console; "prod" usa o appender assíncrono com JSON e amostragem dos logs de sucesso.
+// -p showSql=true reproduz o spring.jpa.show-sql ligado por padrão antes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private static final String PASSWORD = "senha123";
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    @Param({"false"})
+    private String showSql;
+
+    private ConfigurableApplicationContext context;
+    private AuthService authService;
+    private PaymentService paymentService;
+    private ChargeRepository chargeRepository;
+    private User payer;
+    private User recipient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.profiles.active=" + profile,
+                "spring.jpa.show-sql=" + showSql,
+                "logging.level.root=INFO");
+        authService = context.getBean(AuthService.class);
+        paymentService = context.getBean(PaymentService.class);
+        chargeRepository = context.getBean(ChargeRepository.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        String encoded = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        payer = userRepository.save(User.builder()
+                .name("Alice Souza")
+                .cpf("52998224725")
+                .email("alice@email.com")
+                .password(encoded)
+                .role("ADMIN")
+                .build());
+        recipient = userRepository.save(User.builder()
+                .name("Bob Lima")
+                .cpf("11144477735")
+                .email("bob@email.com")
+                .password(encoded)
+                .role("ADMIN")
+                .build());
+
+        context.getBean(LedgerEntryRepository.class).save(LedgerEntry.builder()
+                .accountId(payer.getId())
+                .sequence(1)
+                .amount(new BigDecimal("1000000000.00"))
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AuthResponse login() {
+        return authService.login(LoginRequest.builder()
+                .identifier(payer.getCpf())
+                .password(PASSWORD)
+                .build());
+    }
+
+    @Benchmark
+    public PaymentResponse payChargeWithBalance(PendingCharge pending) {
+        return paymentService.payCharge(payer.getId(), PaymentRequest.builder()
+                .chargeId(pending.charge.getId())
+                .paymentMethod(PaymentMethod.BALANCE)
+                .build());
+    }
+
+    @State(Scope.Thread)
+    public static class PendingCharge {
+
+        private Charge charge;
+
+        @Setup(Level.Invocation)
+        public void create(RequestLoggingBenchmark benchmark) {
+            charge = benchmark.chargeRepository.save(Charge.builder()
+                    .originator(benchmark.recipient)
+                    .recipient(benchmark.payer)
+                    .amount(new BigDecimal("10.00"))
+                    .description("Cobrança de benchmark")
+                    .build());
+        }
+    }
+}
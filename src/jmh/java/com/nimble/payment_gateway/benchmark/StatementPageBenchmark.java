@@ -0,0 +1,103 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.model.dto.response.CursorPageResponse;
+import com.nimble.payment_gateway.model.dto.response.TransactionResponse;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.TransactionService;
+import com.nimble.payment_gateway.util.CursorCodec;
+import com.nimble.payment_gateway.util.UuidV7;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de uma página do extrato em diferentes profundidades do histórico e tamanhos de tabela.
+ * Com o índice (user_id, created_at DESC, id DESC) o custo deve ser o mesmo na primeira e na última página.
+ * Para a tabela de 50M linhas use PostgreSQL (BENCHMARK_JDBC_URL) e -Djmh.args="-p rows=50000000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementPageBenchmark {
+
+    private static final int USERS = 100;
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    @Param({"first", "middle", "last"})
+    private String depth;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private UUID userId;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        transactionService = context.getBean(TransactionService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<UUID> userIds = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(userRepository.save(User.builder()
+                    .name("Cliente " + i)
+                    .cpf(String.format("%011d", i))
+                    .email("cliente" + i + "@email.com")
+                    .password("hashedPassword")
+                    .role("ADMIN")
+                    .build()).getId());
+        }
+        userId = userIds.get(0);
+
+        // Linhas intercaladas entre os usuários, um segundo de diferença entre cada uma
+        LocalDateTime start = LocalDateTime.now().minusSeconds(rows);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{UuidV7.randomUuid(), userIds.get(i % USERS), new BigDecimal("10.00"),
+                    "DEPOSIT", "Depósito de saldo", Timestamp.valueOf(start.plusSeconds(i))});
+            if (batch.size() == INSERT_BATCH || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions (id, user_id, amount, type, description, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+
+        int userRows = rows / USERS;
+        int skip = switch (depth) {
+            case "middle" -> userRows / 2;
+            case "last" -> userRows - 21;
+            default -> 0;
+        };
+        if (skip > 0) {
+            // Posição da linha "skip" do usuário, do mais recente para o mais antigo
+            LocalDateTime cursorAt = start.plusSeconds((long) (userRows - skip) * USERS);
+            cursor = CursorCodec.encode(cursorAt, new UUID(-1L, -1L));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPageResponse<TransactionResponse> fetchPage() {
+        return transactionService.getStatement(userId, null, null, null, cursor, 20);
+    }
+}
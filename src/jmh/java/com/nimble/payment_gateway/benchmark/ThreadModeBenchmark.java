@@ -0,0 +1,75 @@
+package com.nimble.payment_gateway.benchmark;
+
+import com.nimble.payment_gateway.service.AuthorizerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara threads de plataforma (pool do tamanho padrão do Tomcat) com virtual threads
+ * numa rajada de chamadas bloqueantes ao autorizador, como ocorre em depósitos e pagamentos com cartão.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"1000"})
+    private int requests;
+
+    private AuthorizerStub stub;
+    private ConfigurableApplicationContext context;
+    private AuthorizerService authorizerService;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        stub = new AuthorizerStub(Duration.ofMillis(20));
+        context = BenchmarkContext.start(
+                "authorizer.url=" + stub.url(),
+                "authorizer.bulkhead.max-concurrent-calls=" + requests,
+                "authorizer.pool.max-connections=" + requests,
+                "authorizer.hedge.enabled=false");
+        authorizerService = context.getBean(AuthorizerService.class);
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Boolean>> results = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            results.add(executor.submit(authorizerService::authorize));
+        }
+        int authorized = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                authorized++;
+            }
+        }
+        return authorized;
+    }
+}
@@ -0,0 +1,58 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.model.dto.response.ChargeResponse;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.model.projection.ChargeProjection;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// No pacote do serviço para acessar o ChargeMapper, que não é público
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChargeMappingBenchmark {
+
+    private Charge charge;
+    private ChargeProjection projection;
+
+    @Setup
+    public void setUp() {
+        User originator = User.builder().id(UUID.randomUUID()).name("Alice Souza").cpf("52998224725").build();
+        User recipient = User.builder().id(UUID.randomUUID()).name("Bob Lima").cpf("11144477735").build();
+        LocalDateTime now = LocalDateTime.now();
+
+        charge = Charge.builder()
+                .id(UUID.randomUUID())
+                .originator(originator)
+                .recipient(recipient)
+                .amount(new BigDecimal("150.00"))
+                .description("Cobrança de benchmark")
+                .status(ChargeStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        projection = new ChargeProjection(charge.getId(), originator.getId(), originator.getName(), originator.getCpf(),
+                recipient.getId(), recipient.getName(), recipient.getCpf(), charge.getAmount(), charge.getDescription(),
+                charge.getStatus(), now, now);
+    }
+
+    @Benchmark
+    public ChargeResponse mapEntity() {
+        return ChargeMapper.toResponse(charge);
+    }
+
+    @Benchmark
+    public ChargeResponse mapProjection() {
+        return ChargeMapper.toResponse(projection);
+    }
+}
@@ -0,0 +1,138 @@
+package com.nimble.payment_gateway.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class AuthorizerClientConfig {
+
+    @Value("${authorizer.url}")
+    private String authorizerUrl;
+
+    @Value("${authorizer.timeout:5000}")
+    private long timeout;
+
+    @Value("${authorizer.connect-timeout:2000}")
+    private int connectTimeout;
+
+    @Value("${authorizer.pool.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${authorizer.pool.pending-acquire-max-count:1000}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${authorizer.pool.pending-acquire-timeout:1000}")
+    private long pendingAcquireTimeout;
+
+    @Value("${authorizer.pool.max-idle-time:30000}")
+    private long maxIdleTime;
+
+    @Value("${authorizer.pool.max-life-time:300000}")
+    private long maxLifeTime;
+
+    @Value("${authorizer.pool.evict-interval:60000}")
+    private long evictInterval;
+
+    @Value("${authorizer.circuit-breaker.sliding-window-size:50}")
+    private int slidingWindowSize;
+
+    @Value("${authorizer.circuit-breaker.minimum-number-of-calls:20}")
+    private int minimumNumberOfCalls;
+
+    @Value("${authorizer.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${authorizer.circuit-breaker.slow-call-duration-threshold:2000}")
+    private long slowCallDurationThreshold;
+
+    @Value("${authorizer.circuit-breaker.slow-call-rate-threshold:80}")
+    private float slowCallRateThreshold;
+
+    @Value("${authorizer.circuit-breaker.wait-duration-in-open-state:10000}")
+    private long waitDurationInOpenState;
+
+    @Value("${authorizer.circuit-breaker.permitted-calls-in-half-open-state:5}")
+    private int permittedCallsInHalfOpenState;
+
+    @Value("${authorizer.bulkhead.max-concurrent-calls:100}")
+    private int maxConcurrentCalls;
+
+    // Pool único de conexões para o autorizador, reaproveitado entre requisições
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider authorizerConnectionProvider() {
+        return ConnectionProvider.builder("authorizer")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+                .maxIdleTime(Duration.ofMillis(maxIdleTime))
+                .maxLifeTime(Duration.ofMillis(maxLifeTime))
+                .evictInBackground(Duration.ofMillis(evictInterval))
+                .build();
+    }
+
+    @Bean
+    public WebClient authorizerWebClient(WebClient.Builder webClientBuilder,
+                                         ConnectionProvider authorizerConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(authorizerConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(Duration.ofMillis(timeout));
+
+        return webClientBuilder
+                .baseUrl(authorizerUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Bean
+    public CircuitBreaker authorizerCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationThreshold))
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .waitDurationInOpenState(Duration.ofMillis(waitDurationInOpenState))
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // Rejeições do bulkhead são sobrecarga local, não falha do autorizador
+                .ignoreExceptions(BulkheadFullException.class)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker("authorizer");
+    }
+
+    @Bean
+    public Bulkhead authorizerBulkhead(MeterRegistry meterRegistry) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead("authorizer");
+    }
+}
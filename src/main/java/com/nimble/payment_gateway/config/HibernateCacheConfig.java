@@ -0,0 +1,63 @@
+package com.nimble.payment_gateway.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate, criadas aqui com limite de tamanho e TTL
+ * (o Hibernate falha na subida se uma região usada não existir). Só a entidade do usuário, pelo id,
+ * é cacheada: o saldo vem do razão e nunca passa por este cache. Não há cache de consultas, que
+ * guardaria por instância resultados de busca (inclusive "não encontrado") que outra instância já mudou.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String USER_REGION = "users";
+
+    @Value("${user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${user-cache.ttl:300000}")
+    private long ttl;
+
+    // URI própria por contexto: dois contextos na mesma JVM (testes) não podem compartilhar entidades
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(MeterRegistry meterRegistry) {
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager(
+                URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        monitor(meterRegistry, cacheManager.createCache(USER_REGION, bounded(maxSize)));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> bounded(long size) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(size))
+                .setExpireAfterWrite(OptionalLong.of(Duration.ofMillis(ttl).toNanos()))
+                .setStatisticsEnabled(true);
+    }
+
+    // Acertos, falhas e remoções por região em cache.gets / cache.evictions
+    private static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache) {
+        JCacheMetrics.monitor(meterRegistry, cache, "layer", "hibernate");
+    }
+}
@@ -0,0 +1,74 @@
+package com.nimble.payment_gateway.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+/**
+ * Mede o atraso de cada réplica por uma linha de heartbeat: o primário grava o instante atual e cada réplica
+ * é lida direto no seu pool; o atraso é a diferença para o relógio desta instância. Funciona com qualquer
+ * replicação que copie a tabela. Réplica sem a linha ou inacessível é tratada como atrasada.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)";
+    private static final String UPDATE_BEAT = "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1";
+    private static final String INSERT_BEAT = "INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)";
+    private static final String SELECT_BEAT = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    private final ReplicaRoutingDataSource routing;
+    private final JdbcTemplate primary;
+    private final List<JdbcTemplate> replicas;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routing, MeterRegistry meterRegistry) {
+        this.routing = routing;
+        this.primary = new JdbcTemplate(routing.getPrimary());
+        this.replicas = routing.getReplicas().stream().map(JdbcTemplate::new).toList();
+        this.primary.execute(CREATE_TABLE);
+
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = i;
+            Gauge.builder("replica.lag", routing, r -> r.getLag(replica) == Long.MAX_VALUE ? Double.NaN : r.getLag(replica))
+                    .description("Atraso medido da réplica de leitura, em ms")
+                    .tag("replica", routing.getReplicas().get(i).getPoolName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${replica.lag-check-interval:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update(UPDATE_BEAT, now) == 0) {
+                primary.update(INSERT_BEAT, now);
+            }
+        } catch (DuplicateKeyException e) {
+            // Outra instância criou a linha ao mesmo tempo; o próximo ciclo atualiza
+        } catch (DataAccessException e) {
+            log.warn("Falha ao gravar o heartbeat de replicação no primário: {}", e.getMessage());
+        }
+
+        for (int i = 0; i < replicas.size(); i++) {
+            try {
+                List<Long> beat = replicas.get(i).queryForList(SELECT_BEAT, Long.class);
+                if (beat.isEmpty()) {
+                    routing.markUnavailable(i);
+                } else {
+                    routing.updateLag(i, Math.max(System.currentTimeMillis() - beat.get(0), 0));
+                }
+            } catch (DataAccessException e) {
+                log.warn("Réplica {} indisponível, leituras seguem no primário: {}",
+                        routing.getReplicas().get(i).getPoolName(), e.getMessage());
+                routing.markUnavailable(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.nimble.payment_gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimble.payment_gateway.security.UserPrincipal;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Escolhe o pool de cada transação: transações readOnly abertas por métodos de serviço vão para uma réplica
+ * com atraso dentro do limite (em rodízio); todo o resto vai para o primário. Quem acabou de escrever lê do
+ * primário durante a janela de aderência, para enxergar o próprio pagamento. Precisa ficar atrás de um
+ * LazyConnectionDataSourceProxy: a escolha depende do readOnly, conhecido só depois do início da transação.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+    private static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    // Consultas avulsas de repositório (validações fora de transação no caminho de pagamento) ficam no primário
+    private static final String REPOSITORY_TRANSACTION_PREFIX = "org.springframework.data.";
+
+    // Transações readOnly com este nome leem do primário: cargas de cache guardariam o valor atrasado pelo TTL
+    public static final String PRIMARY_READ = "primary-read";
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final long maxLag;
+    private final AtomicLongArray lags;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Cache<UUID, Boolean> recentWriters;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    long maxLag, long stickyWindow) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.lags = new AtomicLongArray(replicas.size());
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(stickyWindow))
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+            // Até a primeira medição a réplica é tratada como atrasada
+            lags.set(i, UNKNOWN_LAG);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public List<HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    public long getLag(int replica) {
+        return lags.get(replica);
+    }
+
+    public void updateLag(int replica, long lagMillis) {
+        lags.set(replica, lagMillis);
+    }
+
+    public void markUnavailable(int replica) {
+        lags.set(replica, UNKNOWN_LAG);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null) {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+            return PRIMARY;
+        }
+
+        String transaction = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (transaction == null || transaction.startsWith(REPOSITORY_TRANSACTION_PREFIX)
+                || PRIMARY_READ.equals(transaction)) {
+            return PRIMARY;
+        }
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            return PRIMARY;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int candidate = (start + i) % replicas.size();
+            if (lags.get(candidate) <= maxLag) {
+                return candidate;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    private static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
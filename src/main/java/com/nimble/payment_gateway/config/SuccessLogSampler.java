@@ -0,0 +1,30 @@
+package com.nimble.payment_gateway.config;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.nimble.payment_gateway.util.LogMarkers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro do Logback que deixa passar 1 a cada {@code rate} eventos marcados com {@link LogMarkers#SUCCESS}.
+ * Os demais eventos, inclusive avisos e erros, seguem sem amostragem.
+ */
+public class SuccessLogSampler extends Filter<ILoggingEvent> {
+
+    private final AtomicLong counter = new AtomicLong();
+    private int rate = 1;
+
+    public void setRate(int rate) {
+        this.rate = Math.max(rate, 1);
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (event.getMarkerList() == null || !event.getMarkerList().contains(LogMarkers.SUCCESS)) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -1,10 +1,16 @@
 package com.nimble.payment_gateway.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.model.dto.request.BatchCreateChargeRequest;
 import com.nimble.payment_gateway.model.dto.request.CreateChargeRequest;
+import com.nimble.payment_gateway.model.dto.response.BatchChargeResponse;
 import com.nimble.payment_gateway.model.dto.response.ChargeResponse;
+import com.nimble.payment_gateway.model.dto.response.ChargeSummaryResponse;
+import com.nimble.payment_gateway.model.dto.response.CursorPageResponse;
 import com.nimble.payment_gateway.security.UserPrincipal;
 import com.nimble.payment_gateway.service.ChargeService;
+import com.nimble.payment_gateway.service.ChargeSummaryService;
 import com.nimble.payment_gateway.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,11 +19,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.UUID;
 
@@ -30,6 +39,8 @@ public class ChargeController {
 
     private final ChargeService chargeService;
     private final PaymentService paymentService;
+    private final ChargeSummaryService chargeSummaryService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Criar cobrança", description = "Cria uma nova cobrança para outro usuário")
@@ -40,24 +51,63 @@ public class ChargeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Criar cobranças em lote",
+            description = "Cria até 5000 cobranças; itens inválidos são rejeitados individualmente")
+    public ResponseEntity<BatchChargeResponse> createCharges(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @Valid @RequestBody BatchCreateChargeRequest request) {
+        BatchChargeResponse response = chargeService.createCharges(userPrincipal.getId(), request.getCharges());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/sent")
-    @Operation(summary = "Cobranças enviadas", description = "Lista cobranças criadas pelo usuário")
-    public ResponseEntity<List<ChargeResponse>> getSentCharges(
+    @Operation(summary = "Cobranças enviadas", description = "Lista cobranças criadas pelo usuário, paginadas por cursor")
+    public ResponseEntity<CursorPageResponse<ChargeResponse>> getSentCharges(
             @AuthenticationPrincipal UserPrincipal userPrincipal,
-            @Parameter(description = "Filtrar por status") @RequestParam(required = false) ChargeStatus status) {
-        List<ChargeResponse> charges = chargeService.getSentCharges(userPrincipal.getId(), status);
+            @Parameter(description = "Filtrar por status") @RequestParam(required = false) ChargeStatus status,
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máximo 100)") @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<ChargeResponse> charges =
+                chargeService.getSentCharges(userPrincipal.getId(), status, cursor, limit);
         return ResponseEntity.ok(charges);
     }
 
     @GetMapping("/received")
-    @Operation(summary = "Cobranças recebidas", description = "Lista cobranças recebidas pelo usuário")
-    public ResponseEntity<List<ChargeResponse>> getReceivedCharges(
+    @Operation(summary = "Cobranças recebidas", description = "Lista cobranças recebidas pelo usuário, paginadas por cursor")
+    public ResponseEntity<CursorPageResponse<ChargeResponse>> getReceivedCharges(
             @AuthenticationPrincipal UserPrincipal userPrincipal,
-            @Parameter(description = "Filtrar por status") @RequestParam(required = false) ChargeStatus status) {
-        List<ChargeResponse> charges = chargeService.getReceivedCharges(userPrincipal.getId(), status);
+            @Parameter(description = "Filtrar por status") @RequestParam(required = false) ChargeStatus status,
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máximo 100)") @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<ChargeResponse> charges =
+                chargeService.getReceivedCharges(userPrincipal.getId(), status, cursor, limit);
         return ResponseEntity.ok(charges);
     }
 
+    @GetMapping("/summary")
+    @Operation(summary = "Resumo de cobranças",
+            description = "Quantidade e valor total das cobranças enviadas e recebidas, por status")
+    public ResponseEntity<ChargeSummaryResponse> getSummary(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return ResponseEntity.ok(chargeSummaryService.getSummary(userPrincipal.getId()));
+    }
+
+    @GetMapping(value = "/sent/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar cobranças enviadas", description = "Exporta todas as cobranças enviadas em NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportSentCharges(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @Parameter(description = "Filtrar por status") @RequestParam(required = false) ChargeStatus status) {
+        return exportCharges(userPrincipal.getId(), true, status);
+    }
+
+    @GetMapping(value = "/received/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar cobranças recebidas", description = "Exporta todas as cobranças recebidas em NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportReceivedCharges(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @Parameter(description = "Filtrar por status") @RequestParam(required = false) ChargeStatus status) {
+        return exportCharges(userPrincipal.getId(), false, status);
+    }
+
     @DeleteMapping("/{chargeId}")
     @Operation(summary = "Cancelar cobrança", description = "Cancela uma cobrança (pendente ou paga)")
     public ResponseEntity<Map<String, String>> cancelCharge(
@@ -75,4 +125,19 @@ public class ChargeController {
 
         return ResponseEntity.ok(Map.of("message", "Cobrança cancelada com sucesso"));
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<StreamingResponseBody> exportCharges(UUID userId, boolean sent, ChargeStatus status) {
+        StreamingResponseBody body = outputStream -> chargeService.exportCharges(userId, sent, status, charge -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(charge));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,40 @@
+package com.nimble.payment_gateway.controller;
+
+import com.nimble.payment_gateway.security.UserPrincipal;
+import com.nimble.payment_gateway.service.EventStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "Bearer Authentication")
+@Tag(name = "Eventos", description = "Stream de mudanças de estado de cobranças e transações")
+public class EventController {
+
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final EventStreamService eventStreamService;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream de eventos",
+            description = "Eventos de cobranças pagas/canceladas e transações do usuário via SSE; "
+                    + "informe o último offset recebido (Last-Event-ID ou after) para retomar sem perder eventos")
+    public SseEmitter streamEvents(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId,
+            @Parameter(description = "Offset a partir do qual retomar") @RequestParam(required = false) Long after) {
+        return eventStreamService.subscribe(userPrincipal.getId(), lastEventId != null ? lastEventId : after);
+    }
+}
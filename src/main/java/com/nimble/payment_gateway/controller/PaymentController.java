@@ -2,21 +2,33 @@ package com.nimble.payment_gateway.controller;
 
 import com.nimble.payment_gateway.model.dto.request.DepositRequest;
 import com.nimble.payment_gateway.model.dto.request.PaymentRequest;
+import com.nimble.payment_gateway.model.dto.response.CaptureResponse;
 import com.nimble.payment_gateway.model.dto.response.PaymentResponse;
 import com.nimble.payment_gateway.security.UserPrincipal;
+import com.nimble.payment_gateway.service.CaptureService;
+import com.nimble.payment_gateway.service.IdempotencyService;
 import com.nimble.payment_gateway.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/payments")
 @RequiredArgsConstructor
@@ -24,23 +36,47 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Pagamentos", description = "Endpoints de pagamentos e depósitos")
 public class PaymentController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final CaptureService captureService;
 
     @PostMapping("/pay-charge")
-    @Operation(summary = "Pagar cobrança", description = "Realiza o pagamento de uma cobrança")
+    @Operation(summary = "Pagar cobrança",
+            description = "Realiza o pagamento de uma cobrança; com captura assíncrona, pagamentos no cartão retornam 202 e um captureId")
     public ResponseEntity<PaymentResponse> payCharge(
             @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody PaymentRequest request) {
-        PaymentResponse response = paymentService.payCharge(userPrincipal.getId(), request);
+        PaymentResponse response = idempotencyService.execute(userPrincipal.getId(), idempotencyKey, "pay-charge", request,
+                () -> paymentService.payCharge(userPrincipal.getId(), request));
+        if (response.getCaptureId() != null) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/payments/captures/" + response.getCaptureId()))
+                    .body(response);
+        }
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/captures/{captureId}")
+    @Operation(summary = "Status da captura",
+            description = "Consulta uma captura assíncrona no cartão; com wait, aguarda a finalização (long-poll)")
+    public CompletableFuture<ResponseEntity<CaptureResponse>> getCapture(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable UUID captureId,
+            @Parameter(description = "Tempo máximo de espera pela finalização, em ms") @RequestParam(defaultValue = "0") long wait) {
+        return captureService.awaitStatus(userPrincipal.getId(), captureId, wait).thenApply(ResponseEntity::ok);
+    }
+
     @PostMapping("/deposit")
     @Operation(summary = "Depositar saldo", description = "Adiciona saldo à conta do usuário")
     public ResponseEntity<PaymentResponse> deposit(
             @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody DepositRequest request) {
-        PaymentResponse response = paymentService.deposit(userPrincipal.getId(), request);
+        PaymentResponse response = idempotencyService.execute(userPrincipal.getId(), idempotencyKey, "deposit", request,
+                () -> paymentService.deposit(userPrincipal.getId(), request));
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
@@ -1,20 +1,36 @@
 package com.nimble.payment_gateway.controller;
 
+import com.nimble.payment_gateway.enums.ImportFormat;
+import com.nimble.payment_gateway.enums.TransactionType;
+import com.nimble.payment_gateway.model.dto.response.CursorPageResponse;
+import com.nimble.payment_gateway.model.dto.response.TransactionResponse;
+import com.nimble.payment_gateway.model.dto.response.UserImportResponse;
 import com.nimble.payment_gateway.model.dto.response.UserResponse;
 import com.nimble.payment_gateway.security.UserPrincipal;
+import com.nimble.payment_gateway.service.LedgerService.BalanceView;
+import com.nimble.payment_gateway.service.TransactionService;
+import com.nimble.payment_gateway.service.UserImportService;
 import com.nimble.payment_gateway.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/users")
@@ -23,7 +39,11 @@ import java.util.Map;
 @Tag(name = "Usuários", description = "Endpoints de gerenciamento de usuários")
 public class UserController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final TransactionService transactionService;
 
     @GetMapping("/me")
     @Operation(summary = "Perfil do usuário", description = "Retorna informações do usuário autenticado")
@@ -33,9 +53,55 @@ public class UserController {
     }
 
     @GetMapping("/balance")
-    @Operation(summary = "Consultar saldo", description = "Retorna o saldo disponível do usuário")
-    public ResponseEntity<Map<String, BigDecimal>> getBalance(@AuthenticationPrincipal UserPrincipal userPrincipal) {
-        BigDecimal balance = userService.getBalance(userPrincipal.getId());
-        return ResponseEntity.ok(Map.of("balance", balance));
+    @Operation(summary = "Consultar saldo",
+            description = "Retorna o saldo disponível do usuário; com If-None-Match igual ao ETag atual responde 304 sem corpo")
+    public ResponseEntity<Map<String, BigDecimal>> getBalance(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                              WebRequest request) {
+        BalanceView view = userService.getBalanceView(userPrincipal.getId());
+        String etag = "\"" + userPrincipal.getId() + "-" + view.getPosition() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(Map.of("balance", view.getBalance()));
+    }
+
+    @GetMapping("/me/transactions")
+    @Operation(summary = "Extrato", description = "Lista as transações do usuário autenticado, paginadas por cursor")
+    public ResponseEntity<CursorPageResponse<TransactionResponse>> getTransactions(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @Parameter(description = "Filtrar por tipo") @RequestParam(required = false) TransactionType type,
+            @Parameter(description = "Data inicial (inclusiva)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Data final (inclusiva)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máximo 100)") @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<TransactionResponse> statement =
+                transactionService.getStatement(userPrincipal.getId(), type, from, to, cursor, limit);
+        return ResponseEntity.ok(statement);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @Operation(summary = "Importar usuários",
+            description = "Importa usuários em massa a partir de NDJSON ou CSV; informe o jobId para retomar do último checkpoint")
+    public ResponseEntity<UserImportResponse> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @Parameter(description = "ID de uma importação anterior a ser retomada") @RequestParam(required = false) UUID jobId,
+            InputStream body) {
+        ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ImportFormat.NDJSON
+                : ImportFormat.CSV;
+        return ResponseEntity.ok(userImportService.importUsers(body, format, jobId));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/import/{jobId}")
+    @Operation(summary = "Progresso da importação", description = "Retorna o checkpoint e os contadores de uma importação")
+    public ResponseEntity<UserImportResponse> getImportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(userImportService.getImportJob(jobId));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.nimble.payment_gateway.enums;
+
+public enum AuthorizationDecision {
+    APPROVED("Aprovada"),
+    DENIED("Negada"),
+    UNAVAILABLE("Autorizador indisponível");
+
+    private final String description;
+
+    AuthorizationDecision(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,23 @@
+package com.nimble.payment_gateway.enums;
+
+public enum CaptureStatus {
+    QUEUED("Na fila"),
+    PROCESSING("Em processamento"),
+    APPROVED("Aprovada"),
+    DENIED("Negada"),
+    FAILED("Falhou");
+
+    private final String description;
+
+    CaptureStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isFinal() {
+        return this == APPROVED || this == DENIED || this == FAILED;
+    }
+}
@@ -0,0 +1,16 @@
+package com.nimble.payment_gateway.enums;
+
+public enum ChargeDirection {
+    SENT("Cobranças criadas pelo usuário"),
+    RECEIVED("Cobranças recebidas pelo usuário");
+
+    private final String description;
+
+    ChargeDirection(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -2,6 +2,7 @@ package com.nimble.payment_gateway.enums;
 
 public enum ChargeStatus {
     PENDING("Pendente"),
+    AUTHORIZING("Aguardando autorização"),
     PAID("Paga"),
     CANCELLED("Cancelada");
 
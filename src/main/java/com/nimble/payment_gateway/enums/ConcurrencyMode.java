@@ -0,0 +1,16 @@
+package com.nimble.payment_gateway.enums;
+
+public enum ConcurrencyMode {
+    PESSIMISTIC("Contas bloqueadas com SELECT ... FOR UPDATE antes do lançamento"),
+    OPTIMISTIC("Contas apenas lidas; conflitos detectados no insert e repetidos");
+
+    private final String description;
+
+    ConcurrencyMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,16 @@
+package com.nimble.payment_gateway.enums;
+
+public enum IdempotencyStatus {
+    PROCESSING("Em processamento"),
+    COMPLETED("Concluída");
+
+    private final String description;
+
+    IdempotencyStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
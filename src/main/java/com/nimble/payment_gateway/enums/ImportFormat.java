@@ -0,0 +1,16 @@
+package com.nimble.payment_gateway.enums;
+
+public enum ImportFormat {
+    NDJSON("JSON delimitado por linha"),
+    CSV("Valores separados por vírgula");
+
+    private final String description;
+
+    ImportFormat(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,17 @@
+package com.nimble.payment_gateway.enums;
+
+public enum ImportStatus {
+    RUNNING("Em execução"),
+    COMPLETED("Concluída"),
+    FAILED("Falhou");
+
+    private final String description;
+
+    ImportStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
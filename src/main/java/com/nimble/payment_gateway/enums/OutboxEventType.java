@@ -0,0 +1,17 @@
+package com.nimble.payment_gateway.enums;
+
+public enum OutboxEventType {
+    CHARGE_PAID("Cobrança paga"),
+    CHARGE_CANCELLED("Cobrança cancelada"),
+    TRANSACTION_CREATED("Transação registrada");
+
+    private final String description;
+
+    OutboxEventType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,7 @@
+package com.nimble.payment_gateway.exception;
+
+public class IdempotencyException extends BusinessException {
+    public IdempotencyException(String message) {
+        super(message);
+    }
+}
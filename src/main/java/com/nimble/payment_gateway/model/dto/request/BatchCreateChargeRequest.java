@@ -0,0 +1,25 @@
+package com.nimble.payment_gateway.model.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Lote de cobranças a serem criadas")
+public class BatchCreateChargeRequest {
+
+    // Os itens são validados individualmente no serviço, para que um item inválido não rejeite o lote inteiro
+    @NotEmpty(message = "O lote deve conter ao menos uma cobrança")
+    @Size(max = 5000, message = "O lote deve conter no máximo 5000 cobranças")
+    @Schema(description = "Cobranças do lote")
+    private List<CreateChargeRequest> charges;
+}
@@ -0,0 +1,41 @@
+package com.nimble.payment_gateway.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado da criação de cobranças em lote")
+public class BatchChargeResponse {
+
+    @Schema(description = "Quantidade de cobranças recebidas")
+    private int total;
+
+    @Schema(description = "Quantidade de cobranças criadas")
+    private int created;
+
+    @Schema(description = "Quantidade de cobranças rejeitadas")
+    private int failed;
+
+    @Schema(description = "Resultado de cada item, na ordem do lote")
+    private List<ItemResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private boolean success;
+        private UUID chargeId;
+        private String error;
+    }
+}
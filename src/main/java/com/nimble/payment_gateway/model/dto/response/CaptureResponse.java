@@ -0,0 +1,37 @@
+package com.nimble.payment_gateway.model.dto.response;
+
+import com.nimble.payment_gateway.enums.CaptureStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Situação de uma captura assíncrona no cartão")
+public class CaptureResponse {
+
+    @Schema(description = "ID de rastreamento da captura")
+    private UUID captureId;
+
+    @Schema(description = "ID da cobrança")
+    private UUID chargeId;
+
+    @Schema(description = "Status da captura")
+    private CaptureStatus status;
+
+    @Schema(description = "ID da transação gerada, quando aprovada")
+    private UUID transactionId;
+
+    @Schema(description = "Tentativas de processamento")
+    private int attempts;
+
+    @Schema(description = "Data da última atualização")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.nimble.payment_gateway.model.dto.response;
+
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Quantidade e valor total das cobranças do usuário por status")
+public class ChargeSummaryResponse {
+
+    @Schema(description = "Cobranças criadas pelo usuário")
+    private Map<ChargeStatus, StatusTotal> sent;
+
+    @Schema(description = "Cobranças recebidas pelo usuário")
+    private Map<ChargeStatus, StatusTotal> received;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusTotal {
+        private long count;
+        private BigDecimal total;
+    }
+}
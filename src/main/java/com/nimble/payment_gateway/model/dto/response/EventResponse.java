@@ -0,0 +1,39 @@
+package com.nimble.payment_gateway.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.nimble.payment_gateway.enums.OutboxEventType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Evento de mudança de estado de cobrança ou transação")
+public class EventResponse {
+
+    @Schema(description = "ID do evento, para deduplicação")
+    private UUID id;
+
+    @Schema(description = "Offset do evento no stream; envie como Last-Event-ID para retomar")
+    private Long position;
+
+    @Schema(description = "Tipo do evento")
+    private OutboxEventType type;
+
+    @Schema(description = "ID da cobrança ou transação")
+    private UUID aggregateId;
+
+    @Schema(description = "Dados do evento")
+    @JsonRawValue
+    private String data;
+
+    @Schema(description = "Data do evento")
+    private LocalDateTime occurredAt;
+}
@@ -24,6 +24,9 @@ public class PaymentResponse {
     @Schema(description = "ID da cobrança")
     private UUID chargeId;
 
+    @Schema(description = "ID de rastreamento da captura, quando o pagamento foi enfileirado")
+    private UUID captureId;
+
     @Schema(description = "Valor pago")
     private BigDecimal amount;
 
@@ -0,0 +1,42 @@
+package com.nimble.payment_gateway.model.dto.response;
+
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.enums.TransactionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Lançamento do extrato")
+public class TransactionResponse {
+
+    @Schema(description = "ID da transação")
+    private UUID id;
+
+    @Schema(description = "ID da cobrança relacionada, se houver")
+    private UUID chargeId;
+
+    @Schema(description = "Valor da transação")
+    private BigDecimal amount;
+
+    @Schema(description = "Tipo da transação")
+    private TransactionType type;
+
+    @Schema(description = "Método de pagamento")
+    private PaymentMethod paymentMethod;
+
+    @Schema(description = "Descrição")
+    private String description;
+
+    @Schema(description = "Data da transação")
+    private LocalDateTime createdAt;
+}
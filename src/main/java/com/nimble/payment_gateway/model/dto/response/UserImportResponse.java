@@ -0,0 +1,42 @@
+package com.nimble.payment_gateway.model.dto.response;
+
+import com.nimble.payment_gateway.enums.ImportStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progresso de uma importação de usuários")
+public class UserImportResponse {
+
+    @Schema(description = "ID da importação; use para retomar a partir do último checkpoint")
+    private UUID jobId;
+
+    @Schema(description = "Status da importação")
+    private ImportStatus status;
+
+    @Schema(description = "Última linha do arquivo já processada")
+    private long lastLine;
+
+    @Schema(description = "Usuários importados")
+    private long imported;
+
+    @Schema(description = "Linhas ignoradas por CPF ou email já cadastrado")
+    private long skipped;
+
+    @Schema(description = "Linhas rejeitadas por dados inválidos")
+    private long failed;
+
+    @Schema(description = "Linhas por segundo nesta execução")
+    private double rowsPerSecond;
+
+    @Schema(description = "Último erro encontrado")
+    private String lastError;
+}
@@ -0,0 +1,38 @@
+package com.nimble.payment_gateway.model.entity;
+
+import com.nimble.payment_gateway.util.GeneratedUuidV7;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Linha de lock de um sub-saldo de conta quente: créditos bloqueiam só o seu shard,
+// débitos bloqueiam todos. Contas sem linhas aqui continuam bloqueando a própria linha de users
+@Entity
+@Table(name = "account_shards",
+        uniqueConstraints = @UniqueConstraint(name = "uk_account_shard", columnNames = {"account_id", "shard"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountShard {
+
+    @Id
+    @GeneratedUuidV7
+    private UUID id;
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
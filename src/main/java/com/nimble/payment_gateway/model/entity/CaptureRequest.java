@@ -0,0 +1,80 @@
+package com.nimble.payment_gateway.model.entity;
+
+import com.nimble.payment_gateway.enums.CaptureStatus;
+import com.nimble.payment_gateway.util.GeneratedUuidV7;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Item da fila durável de capturas no cartão. Um item em PROCESSING cujo prazo (availableAt)
+// venceu pertencia a um worker que caiu e volta a ser reivindicável
+@Entity
+@Table(name = "capture_requests", indexes = {
+        @Index(name = "idx_capture_status_available", columnList = "status, available_at"),
+        @Index(name = "idx_capture_charge", columnList = "charge_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CaptureRequest {
+
+    @Id
+    @GeneratedUuidV7
+    private UUID id;
+
+    @Column(name = "charge_id", nullable = false)
+    private UUID chargeId;
+
+    @Column(name = "payer_id", nullable = false)
+    private UUID payerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private CaptureStatus status = CaptureStatus.QUEUED;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Decisão do autorizador, gravada antes de finalizar: uma captura reivindicada de novo não volta ao autorizador
+    @Column(name = "authorized")
+    private Boolean authorized;
+
+    @Column(name = "transaction_id")
+    private UUID transactionId;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    public void markAsApproved(UUID transactionId) {
+        this.status = CaptureStatus.APPROVED;
+        this.transactionId = transactionId;
+    }
+
+    public void markAsDenied() {
+        this.status = CaptureStatus.DENIED;
+    }
+
+    public void markAsFailed() {
+        this.status = CaptureStatus.FAILED;
+    }
+}
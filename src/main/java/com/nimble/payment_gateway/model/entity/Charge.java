@@ -1,6 +1,7 @@
 package com.nimble.payment_gateway.model.entity;
 
 import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.util.GeneratedUuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,8 +16,10 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "charges", indexes = {
-        @Index(name = "idx_charge_originator", columnList = "originator_id"),
-        @Index(name = "idx_charge_recipient", columnList = "recipient_id"),
+        @Index(name = "idx_charge_originator_created", columnList = "originator_id, created_at"),
+        @Index(name = "idx_charge_recipient_created", columnList = "recipient_id, created_at"),
+        @Index(name = "idx_charge_originator_status_created", columnList = "originator_id, status, created_at"),
+        @Index(name = "idx_charge_recipient_status_created", columnList = "recipient_id, status, created_at"),
         @Index(name = "idx_charge_status", columnList = "status")
 })
 @Data
@@ -26,7 +29,7 @@ import java.util.UUID;
 public class Charge {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedUuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -63,6 +66,10 @@ public class Charge {
         return this.status == ChargeStatus.PENDING;
     }
 
+    public boolean isAuthorizing() {
+        return this.status == ChargeStatus.AUTHORIZING;
+    }
+
     public boolean isPaid() {
         return this.status == ChargeStatus.PAID;
     }
@@ -71,6 +78,14 @@ public class Charge {
         return this.status == ChargeStatus.CANCELLED;
     }
 
+    public void markAsPending() {
+        this.status = ChargeStatus.PENDING;
+    }
+
+    public void markAsAuthorizing() {
+        this.status = ChargeStatus.AUTHORIZING;
+    }
+
     public void markAsPaid() {
         this.status = ChargeStatus.PAID;
     }
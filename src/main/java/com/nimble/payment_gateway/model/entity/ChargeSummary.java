@@ -0,0 +1,46 @@
+package com.nimble.payment_gateway.model.entity;
+
+import com.nimble.payment_gateway.enums.ChargeDirection;
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.util.GeneratedUuidV7;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Quantidade e soma das cobranças de um usuário por direção e status, mantidas por incremento
+// na mesma transação que cria a cobrança ou muda o seu status
+@Entity
+@Table(name = "charge_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_charge_summary", columnNames = {"user_id", "direction", "status"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChargeSummary {
+
+    @Id
+    @GeneratedUuidV7
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ChargeDirection direction;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChargeStatus status;
+
+    @Column(name = "charge_count", nullable = false)
+    private long chargeCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+}
@@ -0,0 +1,58 @@
+package com.nimble.payment_gateway.model.entity;
+
+import com.nimble.payment_gateway.util.GeneratedUuidV7;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Lançamento com sinal no razão de uma conta. Apenas inserido, nunca alterado:
+// a sequência única por conta e shard impede dois lançamentos concorrentes na mesma posição
+@Entity
+@Immutable
+@Table(name = "ledger_entries",
+        uniqueConstraints = @UniqueConstraint(name = LedgerEntry.SEQUENCE_CONSTRAINT, columnNames = {"account_id", "shard", "sequence"}),
+        indexes = {
+                @Index(name = "idx_ledger_transaction", columnList = "transaction_id"),
+                @Index(name = "idx_ledger_created", columnList = "created_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+
+    public static final String SEQUENCE_CONSTRAINT = "uk_ledger_account_sequence";
+
+    @Id
+    @GeneratedUuidV7
+    private UUID id;
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    // Sub-saldo da conta; contas comuns usam apenas o shard 0
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(nullable = false)
+    private long sequence;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    // Nulo apenas para saldos de abertura, que não correspondem a uma transação
+    @Column(name = "transaction_id")
+    private UUID transactionId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,65 @@
+package com.nimble.payment_gateway.model.entity;
+
+import com.nimble.payment_gateway.enums.OutboxEventType;
+import com.nimble.payment_gateway.util.GeneratedUuidV7;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Evento gravado na mesma transação da mudança de estado. A posição é atribuída pelo relay na ordem
+// em que os eventos ficam visíveis (commit) e é o offset usado para retomar o stream
+@Entity
+@Table(name = "outbox_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_position", columnNames = "position"),
+        indexes = {
+                @Index(name = "idx_outbox_published_position", columnList = "published_at, position"),
+                @Index(name = "idx_outbox_user_position", columnList = "user_id, position"),
+                @Index(name = "idx_outbox_counterparty_position", columnList = "counterparty_id, position"),
+                @Index(name = "idx_outbox_created", columnList = "created_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedUuidV7
+    private UUID id;
+
+    private Long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private OutboxEventType type;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+
+    // Usuários que recebem o evento no stream: o dono e, quando houver, a outra parte da cobrança
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "counterparty_id")
+    private UUID counterpartyId;
+
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public boolean isVisibleTo(UUID accountId) {
+        return userId.equals(accountId) || accountId.equals(counterpartyId);
+    }
+}
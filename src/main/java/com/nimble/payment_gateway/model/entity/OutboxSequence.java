@@ -0,0 +1,25 @@
+package com.nimble.payment_gateway.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Última posição atribuída pelo relay, numa única linha: o lock nela serializa a numeração entre instâncias
+@Entity
+@Table(name = "outbox_sequence")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxSequence {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long lastPosition;
+}
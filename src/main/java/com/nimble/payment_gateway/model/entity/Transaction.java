@@ -2,6 +2,7 @@ package com.nimble.payment_gateway.model.entity;
 
 import com.nimble.payment_gateway.enums.PaymentMethod;
 import com.nimble.payment_gateway.enums.TransactionType;
+import com.nimble.payment_gateway.util.GeneratedUuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,7 +16,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "transactions", indexes = {
-        @Index(name = "idx_transaction_user", columnList = "user_id"),
+        @Index(name = "idx_transaction_user_created", columnList = "user_id, created_at DESC, id DESC"),
         @Index(name = "idx_transaction_charge", columnList = "charge_id"),
         @Index(name = "idx_transaction_created", columnList = "created_at")
 })
@@ -26,7 +27,7 @@ import java.util.UUID;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedUuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
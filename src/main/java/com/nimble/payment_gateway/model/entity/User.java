@@ -1,21 +1,27 @@
 package com.nimble.payment_gateway.model.entity;
 
+import com.nimble.payment_gateway.config.HibernateCacheConfig;
+import com.nimble.payment_gateway.security.UserPrincipalCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.management.relation.Role;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USER_REGION)
+@EntityListeners(UserPrincipalCacheListener.class)
 @Table(name = "users", indexes = {
         @Index(name = "idx_user_cpf", columnList = "cpf"),
         @Index(name = "idx_user_email", columnList = "email")
@@ -45,10 +51,6 @@ public class User {
     @Column(nullable = false)
     private String role;
 
-    @Column(nullable = false, precision = 19, scale = 2)
-    @Builder.Default
-    private BigDecimal balance = BigDecimal.ZERO;
-
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -59,16 +61,4 @@ public class User {
 
     @Version
     private Long version;
-
-    public void addBalance(BigDecimal amount) {
-        this.balance = this.balance.add(amount);
-    }
-
-    public void subtractBalance(BigDecimal amount) {
-        this.balance = this.balance.subtract(amount);
-    }
-
-    public boolean hasEnoughBalance(BigDecimal amount) {
-        return this.balance.compareTo(amount) >= 0;
-    }
 }
\ No newline at end of file
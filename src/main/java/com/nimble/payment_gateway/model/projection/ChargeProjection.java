@@ -0,0 +1,28 @@
+package com.nimble.payment_gateway.model.projection;
+
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Linha de listagem de cobranças já com os resumos de originador e destinatário (sem lazy loading)
+@Data
+@AllArgsConstructor
+public class ChargeProjection {
+
+    private UUID id;
+    private UUID originatorId;
+    private String originatorName;
+    private String originatorCpf;
+    private UUID recipientId;
+    private String recipientName;
+    private String recipientCpf;
+    private BigDecimal amount;
+    private String description;
+    private ChargeStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
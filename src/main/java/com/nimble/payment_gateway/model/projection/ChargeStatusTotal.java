@@ -0,0 +1,19 @@
+package com.nimble.payment_gateway.model.projection;
+
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Cobranças de um usuário num status, agregadas direto da tabela charges
+@Data
+@AllArgsConstructor
+public class ChargeStatusTotal {
+
+    private UUID userId;
+    private ChargeStatus status;
+    private Long count;
+    private BigDecimal total;
+}
@@ -0,0 +1,18 @@
+package com.nimble.payment_gateway.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Lançamento lido pela reconciliação: serve tanto para entradas do razão (amount) quanto para snapshots (saldo)
+@Data
+@AllArgsConstructor
+public class LedgerEntryProjection {
+
+    private UUID accountId;
+    private int shard;
+    private long sequence;
+    private BigDecimal amount;
+}
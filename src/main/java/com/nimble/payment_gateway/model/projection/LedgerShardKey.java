@@ -0,0 +1,14 @@
+package com.nimble.payment_gateway.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class LedgerShardKey {
+
+    private UUID accountId;
+    private int shard;
+}
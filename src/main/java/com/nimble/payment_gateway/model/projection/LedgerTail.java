@@ -0,0 +1,15 @@
+package com.nimble.payment_gateway.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// Lançamentos de um shard posteriores ao último snapshot, agregados (nulos quando não há nenhum)
+@Data
+@AllArgsConstructor
+public class LedgerTail {
+
+    private Long lastSequence;
+    private BigDecimal total;
+}
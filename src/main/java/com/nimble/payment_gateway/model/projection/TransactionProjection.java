@@ -0,0 +1,24 @@
+package com.nimble.payment_gateway.model.projection;
+
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Linha do extrato lida direto das colunas de transactions, sem carregar usuário nem cobrança
+@Data
+@AllArgsConstructor
+public class TransactionProjection {
+
+    private UUID id;
+    private UUID chargeId;
+    private BigDecimal amount;
+    private TransactionType type;
+    private PaymentMethod paymentMethod;
+    private String description;
+    private LocalDateTime createdAt;
+}
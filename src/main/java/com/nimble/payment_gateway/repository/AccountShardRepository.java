@@ -0,0 +1,29 @@
+package com.nimble.payment_gateway.repository;
+
+import com.nimble.payment_gateway.model.entity.AccountShard;
+import com.nimble.payment_gateway.model.projection.AccountShardCount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AccountShardRepository extends JpaRepository<AccountShard, UUID> {
+
+    int countByAccountId(UUID accountId);
+
+    // Contas sem shards não aparecem no resultado
+    @Query("SELECT new com.nimble.payment_gateway.model.projection.AccountShardCount(s.accountId, COUNT(s)) " +
+            "FROM AccountShard s WHERE s.accountId IN :accountIds GROUP BY s.accountId")
+    List<AccountShardCount> countByAccountIds(Collection<UUID> accountIds);
+
+    // Sempre em ordem de shard, para que débitos concorrentes na mesma conta não gerem deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountShard s WHERE s.accountId = :accountId AND s.shard IN :shards ORDER BY s.shard")
+    List<AccountShard> lockShards(UUID accountId, Collection<Integer> shards);
+}
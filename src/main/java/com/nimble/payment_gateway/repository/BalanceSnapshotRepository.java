@@ -0,0 +1,27 @@
+package com.nimble.payment_gateway.repository;
+
+import com.nimble.payment_gateway.model.entity.BalanceSnapshot;
+import com.nimble.payment_gateway.model.projection.LedgerEntryProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, UUID> {
+
+    Optional<BalanceSnapshot> findFirstByAccountIdAndShardOrderBySequenceDesc(UUID accountId, int shard);
+
+    // Apenas o snapshot mais recente de cada shard é mantido; o razão guarda o histórico
+    @Modifying
+    @Query("DELETE FROM BalanceSnapshot s WHERE s.accountId = :accountId AND s.shard = :shard AND s.sequence < :sequence")
+    int deleteOlderThan(UUID accountId, int shard, long sequence);
+
+    @Query("SELECT new com.nimble.payment_gateway.model.projection.LedgerEntryProjection(s.accountId, s.shard, s.sequence, s.balance) " +
+            "FROM BalanceSnapshot s WHERE s.accountId BETWEEN :fromAccount AND :toAccount ORDER BY s.accountId, s.shard, s.sequence")
+    List<LedgerEntryProjection> findByAccountRange(UUID fromAccount, UUID toAccount);
+}
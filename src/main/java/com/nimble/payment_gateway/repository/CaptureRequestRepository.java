@@ -0,0 +1,40 @@
+package com.nimble.payment_gateway.repository;
+
+import com.nimble.payment_gateway.model.entity.CaptureRequest;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CaptureRequestRepository extends JpaRepository<CaptureRequest, UUID> {
+
+    // SKIP LOCKED: workers de outras instâncias pegam itens diferentes em vez de esperar pelo mesmo lote
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM CaptureRequest c " +
+            "WHERE c.status IN (com.nimble.payment_gateway.enums.CaptureStatus.QUEUED, " +
+            "com.nimble.payment_gateway.enums.CaptureStatus.PROCESSING) " +
+            "AND c.availableAt <= :now ORDER BY c.availableAt")
+    List<CaptureRequest> findClaimable(LocalDateTime now, Pageable pageable);
+
+    // Só a primeira decisão vale: um worker cujo prazo venceu não sobrescreve a de quem reivindicou depois
+    @Modifying
+    @Query("UPDATE CaptureRequest c SET c.authorized = :authorized WHERE c.id = :id AND c.authorized IS NULL")
+    int recordDecision(UUID id, boolean authorized);
+
+    @Modifying
+    @Query("UPDATE CaptureRequest c SET c.availableAt = :availableAt " +
+            "WHERE c.id = :id AND c.authorized IS NULL " +
+            "AND c.status = com.nimble.payment_gateway.enums.CaptureStatus.PROCESSING")
+    int postpone(UUID id, LocalDateTime availableAt);
+}
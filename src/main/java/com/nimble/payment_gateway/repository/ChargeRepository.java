@@ -2,25 +2,50 @@ package com.nimble.payment_gateway.repository;
 
 import com.nimble.payment_gateway.enums.ChargeStatus;
 import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.projection.ChargeProjection;
+import com.nimble.payment_gateway.model.projection.ChargeStatusTotal;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ChargeRepository extends JpaRepository<Charge, UUID> {
 
-    @Query("SELECT c FROM Charge c WHERE c.originator.id = :userId AND c.status = :status")
-    List<Charge> findByOriginatorIdAndStatus(UUID userId, ChargeStatus status);
+    String PROJECTION = "SELECT new com.nimble.payment_gateway.model.projection.ChargeProjection(" +
+            "c.id, o.id, o.name, o.cpf, r.id, r.name, r.cpf, " +
+            "c.amount, c.description, c.status, c.createdAt, c.updatedAt) " +
+            "FROM Charge c JOIN c.originator o JOIN c.recipient r ";
 
-    @Query("SELECT c FROM Charge c WHERE c.recipient.id = :userId AND c.status = :status")
-    List<Charge> findByRecipientIdAndStatus(UUID userId, ChargeStatus status);
+    String AFTER_CURSOR = "AND (c.createdAt < :cursorCreatedAt " +
+            "OR (c.createdAt = :cursorCreatedAt AND c.id < :cursorId)) " +
+            "ORDER BY c.createdAt DESC, c.id DESC";
 
-    @Query("SELECT c FROM Charge c WHERE c.originator.id = :userId")
-    List<Charge> findByOriginatorId(UUID userId);
+    @Query(PROJECTION + "WHERE c.originator.id = :userId " + AFTER_CURSOR)
+    List<ChargeProjection> findSentPage(UUID userId, LocalDateTime cursorCreatedAt, UUID cursorId, Limit limit);
 
-    @Query("SELECT c FROM Charge c WHERE c.recipient.id = :userId")
-    List<Charge> findByRecipientId(UUID userId);
+    @Query(PROJECTION + "WHERE c.originator.id = :userId AND c.status = :status " + AFTER_CURSOR)
+    List<ChargeProjection> findSentPageByStatus(UUID userId, ChargeStatus status,
+                                                LocalDateTime cursorCreatedAt, UUID cursorId, Limit limit);
+
+    @Query(PROJECTION + "WHERE c.recipient.id = :userId " + AFTER_CURSOR)
+    List<ChargeProjection> findReceivedPage(UUID userId, LocalDateTime cursorCreatedAt, UUID cursorId, Limit limit);
+
+    @Query(PROJECTION + "WHERE c.recipient.id = :userId AND c.status = :status " + AFTER_CURSOR)
+    List<ChargeProjection> findReceivedPageByStatus(UUID userId, ChargeStatus status,
+                                                    LocalDateTime cursorCreatedAt, UUID cursorId, Limit limit);
+
+    // Usadas apenas pela verificação de charge_summaries; cada uma percorre o índice (usuário, status)
+    @Query("SELECT new com.nimble.payment_gateway.model.projection.ChargeStatusTotal(c.originator.id, c.status, COUNT(c), SUM(c.amount)) " +
+            "FROM Charge c WHERE c.originator.id IN :userIds GROUP BY c.originator.id, c.status")
+    List<ChargeStatusTotal> sumSentByStatus(Collection<UUID> userIds);
+
+    @Query("SELECT new com.nimble.payment_gateway.model.projection.ChargeStatusTotal(c.recipient.id, c.status, COUNT(c), SUM(c.amount)) " +
+            "FROM Charge c WHERE c.recipient.id IN :userIds GROUP BY c.recipient.id, c.status")
+    List<ChargeStatusTotal> sumReceivedByStatus(Collection<UUID> userIds);
 }
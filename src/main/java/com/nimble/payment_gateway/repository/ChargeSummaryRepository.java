@@ -0,0 +1,34 @@
+package com.nimble.payment_gateway.repository;
+
+import com.nimble.payment_gateway.enums.ChargeDirection;
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.model.entity.ChargeSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ChargeSummaryRepository extends JpaRepository<ChargeSummary, UUID> {
+
+    // Faixa do índice uk_charge_summary: no máximo uma linha por direção e status
+    List<ChargeSummary> findByUserId(UUID userId);
+
+    // Incremento atômico no banco: transações concorrentes na mesma linha esperam o lock, sem perder atualizações
+    @Modifying
+    @Query("UPDATE ChargeSummary s SET s.chargeCount = s.chargeCount + :count, s.total = s.total + :amount " +
+            "WHERE s.userId = :userId AND s.direction = :direction AND s.status = :status")
+    int increment(UUID userId, ChargeDirection direction, ChargeStatus status, long count, BigDecimal amount);
+
+    // Mesma ordem (direção, usuário, status) em que os incrementos bloqueiam as linhas, para evitar deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ChargeSummary s WHERE s.userId IN :userIds ORDER BY s.direction, s.userId, s.status")
+    List<ChargeSummary> lockByUserIds(Collection<UUID> userIds);
+}
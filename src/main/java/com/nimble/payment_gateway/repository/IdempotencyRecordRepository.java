@@ -0,0 +1,42 @@
+package com.nimble.payment_gateway.repository;
+
+import com.nimble.payment_gateway.model.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, UUID> {
+
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.nimble.payment_gateway.enums.IdempotencyStatus.COMPLETED, " +
+            "r.responseBody = :responseBody WHERE r.id = :id " +
+            "AND r.status = com.nimble.payment_gateway.enums.IdempotencyStatus.PROCESSING")
+    int markCompleted(UUID id, String responseBody);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id " +
+            "AND r.status = com.nimble.payment_gateway.enums.IdempotencyStatus.PROCESSING")
+    int release(UUID id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.createdAt < :createdBefore " +
+            "AND r.status = com.nimble.payment_gateway.enums.IdempotencyStatus.PROCESSING")
+    int releaseStale(UUID id, LocalDateTime createdBefore);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
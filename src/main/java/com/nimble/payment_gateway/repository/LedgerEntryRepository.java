@@ -0,0 +1,40 @@
+package com.nimble.payment_gateway.repository;
+
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.projection.LedgerEntryProjection;
+import com.nimble.payment_gateway.model.projection.LedgerShardKey;
+import com.nimble.payment_gateway.model.projection.LedgerTail;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, UUID> {
+
+    // Faixa do índice uk_ledger_account_sequence a partir do snapshot do shard
+    @Query("SELECT new com.nimble.payment_gateway.model.projection.LedgerTail(MAX(e.sequence), SUM(e.amount)) " +
+            "FROM LedgerEntry e WHERE e.accountId = :accountId AND e.shard = :shard AND e.sequence > :afterSequence")
+    LedgerTail findTail(UUID accountId, int shard, long afterSequence);
+
+    // Shards movimentados desde "since" cujo último snapshot ficou pelo menos minEntries lançamentos para trás
+    @Query("SELECT new com.nimble.payment_gateway.model.projection.LedgerShardKey(e.accountId, e.shard) " +
+            "FROM LedgerEntry e WHERE e.createdAt >= :since GROUP BY e.accountId, e.shard " +
+            "HAVING MAX(e.sequence) - COALESCE((SELECT MAX(s.sequence) FROM BalanceSnapshot s " +
+            "WHERE s.accountId = e.accountId AND s.shard = e.shard), 0) >= :minEntries")
+    List<LedgerShardKey> findShardsDueForSnapshot(LocalDateTime since, long minEntries);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.nimble.payment_gateway.model.projection.LedgerEntryProjection(e.accountId, e.shard, e.sequence, e.amount) " +
+            "FROM LedgerEntry e WHERE e.accountId BETWEEN :fromAccount AND :toAccount ORDER BY e.accountId, e.shard, e.sequence")
+    Stream<LedgerEntryProjection> streamByAccountRange(UUID fromAccount, UUID toAccount);
+}
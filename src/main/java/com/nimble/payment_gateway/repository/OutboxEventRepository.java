@@ -0,0 +1,49 @@
+package com.nimble.payment_gateway.repository;
+
+import com.nimble.payment_gateway.model.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    // Lida com o lock de outbox_sequence já obtido: nenhum outro relay está numerando ao mesmo tempo
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position IS NULL ORDER BY e.id")
+    List<OutboxEvent> findUnsequenced(Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position IS NOT NULL AND e.publishedAt IS NULL ORDER BY e.position")
+    List<OutboxEvent> lockUnpublished(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt " +
+            "WHERE e.position BETWEEN :from AND :to AND e.publishedAt IS NULL")
+    int markPublished(long from, long to, LocalDateTime publishedAt);
+
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM OutboxEvent e")
+    long findMaxPosition();
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position > :after ORDER BY e.position")
+    List<OutboxEvent> findAfter(long after, Pageable pageable);
+
+    @Query("SELECT e FROM OutboxEvent e WHERE (e.userId = :userId OR e.counterpartyId = :userId) " +
+            "AND e.position > :after AND e.position <= :upTo ORDER BY e.position")
+    List<OutboxEvent> findVisibleTo(UUID userId, long after, long upTo, Pageable pageable);
+
+    // O último evento é mantido: a maior posição gravada é o ponto de partida do stream e da sequência
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before " +
+            "AND e.position < (SELECT MAX(l.position) FROM OutboxEvent l)")
+    int deletePublishedBefore(LocalDateTime before);
+}
@@ -1,16 +1,30 @@
 package com.nimble.payment_gateway.repository;
 
+import com.nimble.payment_gateway.enums.TransactionType;
 import com.nimble.payment_gateway.model.entity.Transaction;
+import com.nimble.payment_gateway.model.projection.TransactionProjection;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
+    // t.charge.id lê a FK da própria linha, sem join com charges
+    String PROJECTION = "SELECT new com.nimble.payment_gateway.model.projection.TransactionProjection(" +
+            "t.id, t.charge.id, t.amount, t.type, t.paymentMethod, t.description, t.createdAt) " +
+            "FROM Transaction t ";
+
+    // Percorre idx_transaction_user_created a partir do cursor até o limite inferior do período
+    String AFTER_CURSOR = "AND t.createdAt >= :from " +
+            "AND (t.createdAt < :cursorCreatedAt OR (t.createdAt = :cursorCreatedAt AND t.id < :cursorId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC";
+
     List<Transaction> findByUserId(UUID userId);
 
     List<Transaction> findByChargeId(UUID chargeId);
@@ -18,6 +32,11 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
     @Query("SELECT t FROM Transaction t WHERE t.charge.id = :chargeId ORDER BY t.createdAt DESC")
     List<Transaction> findByChargeIdOrderByCreatedAtDesc(UUID chargeId);
 
-    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId ORDER BY t.createdAt DESC")
-    List<Transaction> findByUserIdOrderByCreatedAtDesc(UUID userId);
-}
\ No newline at end of file
+    @Query(PROJECTION + "WHERE t.user.id = :userId " + AFTER_CURSOR)
+    List<TransactionProjection> findStatementPage(UUID userId, LocalDateTime from,
+                                                  LocalDateTime cursorCreatedAt, UUID cursorId, Limit limit);
+
+    @Query(PROJECTION + "WHERE t.user.id = :userId AND t.type = :type " + AFTER_CURSOR)
+    List<TransactionProjection> findStatementPageByType(UUID userId, TransactionType type, LocalDateTime from,
+                                                        LocalDateTime cursorCreatedAt, UUID cursorId, Limit limit);
+}
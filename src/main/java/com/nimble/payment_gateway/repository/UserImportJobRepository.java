@@ -0,0 +1,24 @@
+package com.nimble.payment_gateway.repository;
+
+import com.nimble.payment_gateway.enums.ImportFormat;
+import com.nimble.payment_gateway.model.entity.UserImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface UserImportJobRepository extends JpaRepository<UserImportJob, UUID> {
+
+    // Só uma requisição assume o job: um que falhou ou um em execução cujo lease expirou (instância que caiu)
+    @Modifying
+    @Query("UPDATE UserImportJob j SET j.status = com.nimble.payment_gateway.enums.ImportStatus.RUNNING, "
+            + "j.leaseUntil = :leaseUntil WHERE j.id = :id AND j.format = :format "
+            + "AND (j.status = com.nimble.payment_gateway.enums.ImportStatus.FAILED "
+            + "OR (j.status = com.nimble.payment_gateway.enums.ImportStatus.RUNNING "
+            + "AND (j.leaseUntil IS NULL OR j.leaseUntil < :now)))")
+    int claim(UUID id, ImportFormat format, LocalDateTime now, LocalDateTime leaseUntil);
+}
@@ -2,21 +2,35 @@ package com.nimble.payment_gateway.repository;
 
 import com.nimble.payment_gateway.model.entity.User;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
 
+    // Sem cache de consulta: o cache é local a cada instância e guardaria "não encontrado" para um CPF
+    // ou e-mail cadastrado por outra instância
     Optional<User> findByCpf(String cpf);
 
     Optional<User> findByEmail(String email);
 
+    List<User> findAllByCpfIn(Collection<String> cpfs);
+
+    @Query("SELECT u.cpf FROM User u WHERE u.cpf IN :cpfs")
+    Set<String> findExistingCpfs(Collection<String> cpfs);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
     boolean existsByCpf(String cpf);
 
     boolean existsByEmail(String email);
@@ -24,4 +38,14 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT u FROM User u WHERE u.id = :id")
     Optional<User> findByIdWithLock(UUID id);
-}
\ No newline at end of file
+
+    // Bloqueia todas as contas em uma única consulta, sempre na ordem do id,
+    // para que transferências concorrentes entre as mesmas contas não gerem deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findAllByIdWithLock(Collection<UUID> ids);
+
+    // Percorre os usuários em ordem de id, uma página por vez
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UUID> findIdsAfter(UUID afterId, Limit limit);
+}
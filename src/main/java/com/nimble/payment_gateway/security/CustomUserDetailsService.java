@@ -2,30 +2,40 @@ package com.nimble.payment_gateway.security;
 
 import com.nimble.payment_gateway.model.entity.User;
 import com.nimble.payment_gateway.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.UUID;
+import java.util.Set;
 
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final Set<String> adminCpfs;
 
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    UserPrincipalCache userPrincipalCache,
+                                    @Value("${security.admin-cpfs:}") Set<String> adminCpfs) {
+        this.userRepository = userRepository;
+        this.userPrincipalCache = userPrincipalCache;
+        this.adminCpfs = adminCpfs;
+    }
+
+    // Sem @Transactional: um acerto no cache não deve abrir transação nem pegar conexão do pool
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String cpf) throws UsernameNotFoundException {
         try {
-            User user = userRepository.findByCpf(cpf)
-                    .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + cpf));
-            return UserPrincipal.create(user);
+            return userPrincipalCache.get(cpf, key -> {
+                User user = userRepository.findByCpf(key)
+                        .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + key));
+                return UserPrincipal.create(user, adminCpfs.contains(key));
+            });
         } catch (IllegalArgumentException e) {
             throw new UsernameNotFoundException("ID de usuário inválido: " + cpf);
         }
     }
-}
\ No newline at end of file
+}
@@ -8,7 +8,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -20,20 +20,30 @@ public class UserPrincipal implements UserDetails {
     private String cpf;
     private String email;
     private String password;
+    private boolean admin;
 
     public static UserPrincipal create(User user) {
+        return create(user, false);
+    }
+
+    public static UserPrincipal create(User user, boolean admin) {
         return new UserPrincipal(
                 user.getId(),
                 user.getName(),
                 user.getCpf(),
                 user.getEmail(),
-                user.getPassword()
+                user.getPassword(),
+                admin
         );
     }
 
+    // users.role não concede autoridades: contas antigas foram gravadas como ADMIN sem nunca terem sido
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+        if (admin) {
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
     }
 
     @Override
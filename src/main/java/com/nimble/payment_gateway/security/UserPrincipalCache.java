@@ -0,0 +1,95 @@
+package com.nimble.payment_gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.nimble.payment_gateway.model.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+// Cache limitado por tamanho e TTL dos principals autenticados, indexado por CPF
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<String, UserPrincipal> cache;
+
+    // CPF sob o qual cada usuário está no cache, para invalidar a chave antiga quando o CPF muda
+    private final ConcurrentMap<UUID, String> cpfByUserId = new ConcurrentHashMap<>();
+
+    public UserPrincipalCache(@Value("${jwt.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.principal-cache.ttl:300000}") long ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .executor(Runnable::run)
+                .removalListener((String cpf, UserPrincipal principal, RemovalCause cause) -> {
+                    if (principal != null) {
+                        cpfByUserId.remove(principal.getId(), cpf);
+                    }
+                })
+                .build();
+    }
+
+    public UserPrincipal get(String cpf, Function<String, UserPrincipal> loader) {
+        return cache.get(cpf, key -> {
+            UserPrincipal principal = loader.apply(key);
+            cpfByUserId.put(principal.getId(), key);
+            return principal;
+        });
+    }
+
+    // Chamados no flush: só invalidam depois do commit, senão uma autenticação concorrente recarrega
+    // o principal antigo e o mantém pelo TTL inteiro
+    public void evict(User user) {
+        UUID userId = user.getId();
+        String cpf = user.getCpf();
+        afterCommit(() -> {
+            evictPreviousCpf(userId, cpf);
+            cache.invalidate(cpf);
+        });
+    }
+
+    // Só invalida se algum dado do principal mudou; atualizações de saldo mantêm a entrada
+    public void evictIfChanged(User user) {
+        UUID userId = user.getId();
+        UserPrincipal updated = UserPrincipal.create(user);
+        afterCommit(() -> {
+            evictPreviousCpf(userId, updated.getCpf());
+            UserPrincipal cached = cache.getIfPresent(updated.getCpf());
+            if (cached != null) {
+                updated.setAdmin(cached.isAdmin());
+                if (!cached.equals(updated)) {
+                    cache.invalidate(updated.getCpf());
+                }
+            }
+        });
+    }
+
+    private void evictPreviousCpf(UUID userId, String currentCpf) {
+        String previousCpf = cpfByUserId.get(userId);
+        if (previousCpf != null && !previousCpf.equals(currentCpf)) {
+            cache.invalidate(previousCpf);
+        }
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
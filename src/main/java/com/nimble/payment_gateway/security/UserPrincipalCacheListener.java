@@ -0,0 +1,24 @@
+package com.nimble.payment_gateway.security;
+
+import com.nimble.payment_gateway.model.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCacheListener {
+
+    private final UserPrincipalCache userPrincipalCache;
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        userPrincipalCache.evictIfChanged(user);
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        userPrincipalCache.evict(user);
+    }
+}
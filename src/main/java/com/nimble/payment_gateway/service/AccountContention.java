@@ -0,0 +1,103 @@
+package com.nimble.payment_gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimble.payment_gateway.enums.ConcurrencyMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decide, por conta, se o razão bloqueia as linhas antes do lançamento ou apenas as lê (modo otimista).
+ * No modo otimista a taxa de conflitos de cada conta é medida em janelas; a conta que passa do limite
+ * volta ao lock pessimista por um período, já que repetir tentativas numa conta disputada custa mais que esperar o lock.
+ */
+@Component
+@Slf4j
+public class AccountContention {
+
+    private final ConcurrencyMode mode;
+    private final int minSamples;
+    private final double fallbackRate;
+    private final Cache<UUID, ConflictWindow> windows;
+    private final Cache<UUID, Boolean> pessimisticAccounts;
+    private final Counter fallbacks;
+
+    // Contas lidas sem lock na tentativa em andamento nesta thread
+    private final ThreadLocal<List<UUID>> optimisticReads = ThreadLocal.withInitial(ArrayList::new);
+
+    public AccountContention(@Value("${payment.concurrency.mode:PESSIMISTIC}") ConcurrencyMode mode,
+                             @Value("${payment.concurrency.fallback.min-samples:20}") int minSamples,
+                             @Value("${payment.concurrency.fallback.conflict-rate:0.2}") double fallbackRate,
+                             @Value("${payment.concurrency.fallback.window:10000}") long window,
+                             @Value("${payment.concurrency.fallback.duration:60000}") long duration,
+                             MeterRegistry meterRegistry) {
+        this.mode = mode;
+        this.minSamples = minSamples;
+        this.fallbackRate = fallbackRate;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMillis(window))
+                .build();
+        this.pessimisticAccounts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(duration))
+                .build();
+        this.fallbacks = Counter.builder("payment.concurrency.fallbacks")
+                .description("Contas que voltaram ao lock pessimista por excesso de conflitos")
+                .register(meterRegistry);
+        Gauge.builder("payment.concurrency.pessimistic.accounts", pessimisticAccounts, Cache::estimatedSize)
+                .description("Contas em lock pessimista dentro do modo otimista")
+                .register(meterRegistry);
+    }
+
+    public boolean isOptimistic() {
+        return mode == ConcurrencyMode.OPTIMISTIC;
+    }
+
+    public boolean readOptimistically(UUID accountId) {
+        if (!isOptimistic() || pessimisticAccounts.getIfPresent(accountId) != null) {
+            return false;
+        }
+        optimisticReads.get().add(accountId);
+        return true;
+    }
+
+    // O conflito não aponta a conta disputada, então conta para todas as lidas na tentativa;
+    // o mínimo de amostras evita que uma contraparte ocasional seja rebaixada
+    public void finishAttempt(boolean conflicted) {
+        List<UUID> accounts = optimisticReads.get();
+        try {
+            for (UUID accountId : accounts) {
+                if (windows.get(accountId, id -> new ConflictWindow()).record(conflicted, minSamples, fallbackRate)) {
+                    windows.invalidate(accountId);
+                    pessimisticAccounts.put(accountId, Boolean.TRUE);
+                    fallbacks.increment();
+                    log.warn("Conta {} com muitos conflitos; lançamentos voltam ao lock pessimista", accountId);
+                }
+            }
+        } finally {
+            optimisticReads.remove();
+        }
+    }
+
+    private static final class ConflictWindow {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger conflicts = new AtomicInteger();
+
+        boolean record(boolean conflicted, int minSamples, double fallbackRate) {
+            int total = attempts.incrementAndGet();
+            int failed = conflicted ? conflicts.incrementAndGet() : conflicts.get();
+            return total >= minSamples && failed >= total * fallbackRate;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.nimble.payment_gateway.model.dto.response.AuthResponse;
 import com.nimble.payment_gateway.model.dto.response.UserResponse;
 import com.nimble.payment_gateway.model.entity.User;
 import com.nimble.payment_gateway.security.JwtTokenProvider;
+import com.nimble.payment_gateway.util.LogMarkers;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -28,11 +29,7 @@ public class AuthService {
 
     @Transactional(readOnly = true)
     public AuthResponse login(LoginRequest request) {
-        log.info("Tentativa de login para: {}", request.getIdentifier());
-
-        debugUser(request.getIdentifier(), request.getPassword());
-        AuthResponse authResponse = loginManual(request);
-        return authResponse;
+        return loginManual(request);
     }
 
     public  AuthResponse autoLogin(LoginRequest request) {
@@ -53,11 +50,11 @@ public class AuthService {
                 .name(user.getName())
                 .cpf(user.getCpf())
                 .email(user.getEmail())
-                .balance(user.getBalance())
+                .balance(userService.getBalance(user.getId()))
                 .createdAt(user.getCreatedAt())
                 .build();
 
-        log.info("Login realizado com sucesso para: {}", user.getCpf());
+        log.info(LogMarkers.SUCCESS, "Login realizado com sucesso para: {}", user.getId());
 
         return AuthResponse.builder()
                 .token(token)
@@ -68,7 +65,7 @@ public class AuthService {
 
     // OPCIÓN 2: Si prefieres verificar manualmente primero (sin AuthenticationManager)
     public AuthResponse loginManual(LoginRequest request) {
-        log.info("Tentativa de login manual para: {}", request.getIdentifier());
+        log.debug("Tentativa de login manual para: {}", request.getIdentifier());
 
         // 1. Verificar si el usuario existe
         User user = userService.findByIdentifier(request.getIdentifier());
@@ -93,11 +90,11 @@ public class AuthService {
                 .name(user.getName())
                 .cpf(user.getCpf())
                 .email(user.getEmail())
-                .balance(user.getBalance())
+                .balance(userService.getBalance(user.getId()))
                 .createdAt(user.getCreatedAt())
                 .build();
 
-        log.info("Login manual realizado com sucesso para: {}", user.getCpf());
+        log.info(LogMarkers.SUCCESS, "Login manual realizado com sucesso para: {}", user.getId());
 
         return AuthResponse.builder()
                 .token(token)
@@ -105,20 +102,4 @@ public class AuthService {
                 .user(userResponse)
                 .build();
     }
-
-    @Transactional(readOnly = true)
-    public void debugUser(String identifier, String rawPassword) {
-        try {
-            User user = userService.findByIdentifier(identifier);
-            log.info("=== DEBUG USER ===");
-            log.info("Usuario encontrado: {}", user.getCpf());
-            log.info("Email: {}", user.getEmail());
-            log.info("Password en DB: {}", user.getPassword());
-            log.info("Password raw: {}", rawPassword);
-            log.info("Matches: {}", passwordEncoder.matches(rawPassword, user.getPassword()));
-            log.info("=== END DEBUG ===");
-        } catch (Exception e) {
-            log.error("Error en debug: {}", e.getMessage());
-        }
-    }
 }
\ No newline at end of file
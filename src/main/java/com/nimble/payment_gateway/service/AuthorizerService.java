@@ -1,6 +1,17 @@
 package com.nimble.payment_gateway.service;
 
-import lombok.RequiredArgsConstructor;
+import com.nimble.payment_gateway.enums.AuthorizationDecision;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -9,49 +20,145 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AuthorizerService {
 
-    private final WebClient.Builder webClientBuilder;
+    private static final double HEDGE_PERCENTILE = 0.95;
 
-    @Value("${authorizer.url}")
-    private String authorizerUrl;
+    private final WebClient authorizerWebClient;
+    private final CircuitBreaker authorizerCircuitBreaker;
+    private final Bulkhead authorizerBulkhead;
+    private final Timer latencyTimer;
+    private final Counter hedgedRequests;
+    private final AtomicInteger inFlight = new AtomicInteger();
 
     @Value("${authorizer.timeout:5000}")
     private long timeout;
 
+    @Value("${authorizer.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${authorizer.hedge.initial-delay:1000}")
+    private long hedgeInitialDelay;
+
+    @Value("${authorizer.hedge.min-delay:50}")
+    private long hedgeMinDelay;
+
+    @Value("${authorizer.hedge.min-samples:100}")
+    private long hedgeMinSamples;
+
+    public AuthorizerService(WebClient authorizerWebClient,
+                             CircuitBreaker authorizerCircuitBreaker,
+                             Bulkhead authorizerBulkhead,
+                             MeterRegistry meterRegistry) {
+        this.authorizerWebClient = authorizerWebClient;
+        this.authorizerCircuitBreaker = authorizerCircuitBreaker;
+        this.authorizerBulkhead = authorizerBulkhead;
+        this.latencyTimer = Timer.builder("authorizer.latency")
+                .description("Latência das chamadas HTTP ao autorizador externo")
+                .publishPercentiles(0.5, HEDGE_PERCENTILE, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.hedgedRequests = Counter.builder("authorizer.hedged.requests")
+                .description("Requisições de hedge enviadas ao autorizador")
+                .register(meterRegistry);
+        Gauge.builder("authorizer.in.flight", inFlight, AtomicInteger::get)
+                .description("Chamadas HTTP ao autorizador em andamento")
+                .register(meterRegistry);
+    }
+
     public boolean authorize() {
         try {
-            WebClient webClient = webClientBuilder.baseUrl(authorizerUrl).build();
+            return Boolean.TRUE.equals(authorizeAsync().block());
+        } catch (Exception e) {
+            log.error("Erro inesperado ao consultar autorizador", e);
+            return false;
+        }
+    }
+
+    public Mono<Boolean> authorizeAsync() {
+        return decideAsync().map(decision -> decision == AuthorizationDecision.APPROVED);
+    }
 
-            String response = webClient.get()
+    // Distingue a negação do autorizador (resposta sem sucesso ou 4xx) da falta de resposta: circuito
+    // aberto, bulkhead cheio, timeout e 5xx são UNAVAILABLE e podem ser tentados de novo mais tarde
+    public Mono<AuthorizationDecision> decideAsync() {
+        return (hedgeEnabled ? hedgedCall() : timedCall())
+                .timeout(Duration.ofMillis(timeout))
+                .transformDeferred(BulkheadOperator.of(authorizerBulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(authorizerCircuitBreaker))
+                .map(response -> {
+                    boolean authorized = response.contains("\"status\":\"success\"") ||
+                            response.contains("success");
+
+                    log.debug("Resposta do autorizador: {} - Autorizado: {}", response, authorized);
+                    return authorized ? AuthorizationDecision.APPROVED : AuthorizationDecision.DENIED;
+                })
+                .onErrorResume(CallNotPermittedException.class, ex -> {
+                    log.warn("Circuit breaker do autorizador aberto, recusando sem consultar");
+                    return Mono.just(AuthorizationDecision.UNAVAILABLE);
+                })
+                .onErrorResume(BulkheadFullException.class, ex -> {
+                    log.warn("Limite de chamadas simultâneas ao autorizador atingido, recusando");
+                    return Mono.just(AuthorizationDecision.UNAVAILABLE);
+                })
+                .onErrorResume(WebClientResponseException.class, ex -> {
+                    log.error("Erro ao consultar autorizador: Status {}, Body: {}",
+                            ex.getStatusCode(), ex.getResponseBodyAsString());
+                    return Mono.just(ex.getStatusCode().is4xxClientError()
+                            ? AuthorizationDecision.DENIED
+                            : AuthorizationDecision.UNAVAILABLE);
+                })
+                .onErrorResume(Exception.class, ex -> {
+                    log.error("Erro ao consultar autorizador", ex);
+                    return Mono.just(AuthorizationDecision.UNAVAILABLE);
+                })
+                .defaultIfEmpty(AuthorizationDecision.DENIED);
+    }
+
+    public CircuitBreaker.State getCircuitBreakerState() {
+        return authorizerCircuitBreaker.getState();
+    }
+
+    // Dispara uma segunda requisição se a primeira passar do p95 observado; vence a primeira resposta
+    private Mono<String> hedgedCall() {
+        Mono<String> hedge = Mono.defer(() -> {
+            hedgedRequests.increment();
+            return timedCall();
+        }).delaySubscription(hedgeDelay());
+
+        return Mono.firstWithValue(timedCall(), hedge);
+    }
+
+    private Mono<String> timedCall() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return authorizerWebClient.get()
                     .retrieve()
                     .bodyToMono(String.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .onErrorResume(WebClientResponseException.class, ex -> {
-                        log.error("Erro ao consultar autorizador: Status {}, Body: {}",
-                                ex.getStatusCode(), ex.getResponseBodyAsString());
-                        return Mono.just("DENIED");
-                    })
-                    .onErrorResume(Exception.class, ex -> {
-                        log.error("Erro ao consultar autorizador", ex);
-                        return Mono.just("DENIED");
-                    })
-                    .block();
-
-            boolean authorized = response != null &&
-                    (response.contains("\"status\":\"success\"") ||
-                            response.contains("success"));
-
-            log.info("Resposta do autorizador: {} - Autorizado: {}", response, authorized);
-            return authorized;
+                    .doOnSubscribe(subscription -> inFlight.incrementAndGet())
+                    // Inclui as canceladas (perdedora do hedge, cortadas pelo timeout): sem elas o p95 só vê
+                    // as rápidas, cai e o hedge dispara cada vez mais
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        latencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    });
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("Erro inesperado ao consultar autorizador", e);
-            return false;
+    private Duration hedgeDelay() {
+        if (latencyTimer.count() >= hedgeMinSamples) {
+            for (ValueAtPercentile percentile : latencyTimer.takeSnapshot().percentileValues()) {
+                if (percentile.percentile() == HEDGE_PERCENTILE) {
+                    long p95 = (long) percentile.value(TimeUnit.MILLISECONDS);
+                    return Duration.ofMillis(Math.min(Math.max(p95, hedgeMinDelay), timeout));
+                }
+            }
         }
+        return Duration.ofMillis(hedgeInitialDelay);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.nimble.payment_gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimble.payment_gateway.service.LedgerService.BalanceView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Saldo por conta com TTL curto, para clientes que consultam o saldo em polling. Cada lançamento no razão
+ * remove a entrada da conta depois do commit; o TTL limita o atraso visto por outras instâncias.
+ */
+@Component
+public class BalanceCache {
+
+    private final Cache<UUID, BalanceView> cache;
+
+    public BalanceCache(@Value("${balance-cache.max-size:100000}") long maxSize,
+                        @Value("${balance-cache.ttl:2000}") long ttl,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "balances");
+    }
+
+    public BalanceView get(UUID accountId, Function<UUID, BalanceView> loader) {
+        return cache.get(accountId, loader);
+    }
+
+    // Antes do commit uma leitura concorrente recolocaria o saldo antigo; a remoção espera uma carga em andamento
+    public void evictAfterCommit(UUID accountId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(accountId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(accountId);
+            }
+        });
+    }
+}
@@ -0,0 +1,231 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.enums.AuthorizationDecision;
+import com.nimble.payment_gateway.enums.CaptureStatus;
+import com.nimble.payment_gateway.exception.ResourceNotFoundException;
+import com.nimble.payment_gateway.model.dto.response.CaptureResponse;
+import com.nimble.payment_gateway.model.entity.CaptureRequest;
+import com.nimble.payment_gateway.repository.CaptureRequestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Consome a fila durável de capturas no cartão: reivindica lotes com SKIP LOCKED, consulta o
+ * autorizador de forma concorrente para o lote inteiro e finaliza cada captura numa transação curta.
+ * A decisão do autorizador é gravada antes da finalização, para que uma captura reivindicada de novo não
+ * cobre o cartão duas vezes; depois de capture.max-attempts reivindicações a captura termina como FAILED.
+ * Com o autorizador indisponível (circuito aberto, timeout, 5xx) nada é gravado e a captura volta à fila
+ * com backoff exponencial, em vez de ser negada.
+ * Consultas de status podem aguardar (long-poll) a finalização sem ocupar a thread da requisição;
+ * o aviso imediato vale para capturas finalizadas nesta instância, as demais respondem ao fim da espera.
+ */
+@Service
+@Slf4j
+public class CaptureService {
+
+    private final CaptureRequestRepository captureRequestRepository;
+    private final PaymentService paymentService;
+    private final AuthorizerService authorizerService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final long retryBackoff;
+    private final long maxRetryBackoff;
+    private final long maxWait;
+    private final ConcurrentMap<UUID, Set<CompletableFuture<CaptureResponse>>> waiters = new ConcurrentHashMap<>();
+
+    public CaptureService(CaptureRequestRepository captureRequestRepository,
+                          PaymentService paymentService,
+                          AuthorizerService authorizerService,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${capture.batch-size:50}") int batchSize,
+                          @Value("${capture.concurrency:20}") int concurrency,
+                          @Value("${capture.max-attempts:5}") int maxAttempts,
+                          @Value("${capture.lease:30000}") long lease,
+                          @Value("${capture.retry-backoff:5000}") long retryBackoff,
+                          @Value("${capture.max-retry-backoff:60000}") long maxRetryBackoff,
+                          @Value("${capture.long-poll.max-wait:25000}") long maxWait) {
+        this.captureRequestRepository = captureRequestRepository;
+        this.paymentService = paymentService;
+        this.authorizerService = authorizerService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofMillis(lease);
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.maxWait = maxWait;
+    }
+
+    @Scheduled(fixedDelayString = "${capture.poll-interval:200}")
+    public void processQueue() {
+        List<CaptureRequest> claimed;
+        do {
+            claimed = claimBatch();
+            if (!claimed.isEmpty()) {
+                process(claimed);
+            }
+        } while (claimed.size() == batchSize);
+    }
+
+    public CaptureResponse getStatus(UUID payerId, UUID captureId) {
+        CaptureRequest capture = captureRequestRepository.findById(captureId)
+                .filter(c -> c.getPayerId().equals(payerId))
+                .orElseThrow(() -> new ResourceNotFoundException("Captura não encontrada"));
+        return mapToResponse(capture);
+    }
+
+    public CompletableFuture<CaptureResponse> awaitStatus(UUID payerId, UUID captureId, long waitMillis) {
+        long wait = Math.min(Math.max(waitMillis, 0), maxWait);
+        if (wait == 0) {
+            return CompletableFuture.completedFuture(getStatus(payerId, captureId));
+        }
+
+        // Registra antes de consultar para não perder uma finalização entre a consulta e o registro
+        CompletableFuture<CaptureResponse> waiter = new CompletableFuture<>();
+        waiters.compute(captureId, (id, pending) -> {
+            Set<CompletableFuture<CaptureResponse>> registered = pending != null ? pending : ConcurrentHashMap.newKeySet();
+            registered.add(waiter);
+            return registered;
+        });
+
+        CaptureResponse current;
+        try {
+            current = getStatus(payerId, captureId);
+        } catch (RuntimeException e) {
+            removeWaiter(captureId, waiter);
+            throw e;
+        }
+        if (current.getStatus().isFinal()) {
+            removeWaiter(captureId, waiter);
+            return CompletableFuture.completedFuture(current);
+        }
+
+        return waiter.completeOnTimeout(current, wait, TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> removeWaiter(captureId, waiter));
+    }
+
+    private List<CaptureRequest> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<CaptureRequest> batch = captureRequestRepository.findClaimable(now, PageRequest.of(0, batchSize));
+            for (CaptureRequest capture : batch) {
+                capture.setStatus(CaptureStatus.PROCESSING);
+                capture.setAvailableAt(now.plus(lease));
+                capture.setAttempts(capture.getAttempts() + 1);
+            }
+            captureRequestRepository.saveAll(batch);
+            return batch;
+        });
+    }
+
+    private void process(List<CaptureRequest> claimed) {
+        List<CaptureRequest> exhausted = claimed.stream().filter(c -> c.getAttempts() > maxAttempts).toList();
+        List<CaptureRequest> undecided = claimed.stream()
+                .filter(c -> c.getAttempts() <= maxAttempts && c.getAuthorized() == null)
+                .toList();
+
+        exhausted.forEach(capture -> finish(capture.getId(), () -> paymentService.failCapture(capture.getId())));
+
+        // Nenhuma conexão fica aberta enquanto o lote aguarda o autorizador
+        List<AuthorizationDecision> decisions = undecided.isEmpty() ? List.of() : Flux.fromIterable(undecided)
+                .flatMapSequential(capture -> authorizerService.decideAsync(), concurrency)
+                .collectList()
+                .block();
+        for (int i = 0; i < undecided.size(); i++) {
+            AuthorizationDecision decision = decisions.get(i);
+            if (decision == AuthorizationDecision.UNAVAILABLE) {
+                postpone(undecided.get(i));
+            } else {
+                recordDecision(undecided.get(i), decision == AuthorizationDecision.APPROVED);
+            }
+        }
+
+        // Inclui as que já tinham decisão de uma tentativa anterior: só a finalização é repetida
+        for (CaptureRequest capture : claimed) {
+            if (capture.getAttempts() <= maxAttempts && capture.getAuthorized() != null) {
+                finish(capture.getId(), () -> paymentService.completeCapture(capture.getId(), capture.getAuthorized()));
+            }
+        }
+    }
+
+    private void recordDecision(CaptureRequest capture, boolean authorized) {
+        try {
+            Integer recorded = transactionTemplate.execute(status ->
+                    captureRequestRepository.recordDecision(capture.getId(), authorized));
+            if (recorded != null && recorded > 0) {
+                capture.setAuthorized(authorized);
+            }
+        } catch (RuntimeException e) {
+            // Sem a decisão gravada a próxima reivindicação consulta o autorizador de novo
+            log.error("Falha ao gravar a decisão do autorizador para a captura {}", capture.getId(), e);
+        }
+    }
+
+    // Sem decisão não há o que finalizar: a captura fica em PROCESSING e é reivindicada de novo após o backoff
+    private void postpone(CaptureRequest capture) {
+        long backoff = Math.min(retryBackoff << Math.min(capture.getAttempts() - 1, 20), maxRetryBackoff);
+        LocalDateTime availableAt = LocalDateTime.now().plus(Duration.ofMillis(backoff));
+        try {
+            transactionTemplate.execute(status -> captureRequestRepository.postpone(capture.getId(), availableAt));
+            capture.setAvailableAt(availableAt);
+            log.warn("Autorizador indisponível para a captura {}; nova tentativa em {} ms", capture.getId(), backoff);
+        } catch (RuntimeException e) {
+            // Mantém o prazo da reivindicação: volta à fila quando ele vencer
+            log.error("Falha ao adiar a captura {}", capture.getId(), e);
+        }
+    }
+
+    private void finish(UUID captureId, Supplier<CaptureRequest> finalization) {
+        try {
+            notifyWaiters(mapToResponse(finalization.get()));
+        } catch (RuntimeException e) {
+            // Continua em PROCESSING e volta a ser reivindicada quando o prazo vencer
+            log.error("Falha ao finalizar a captura {}", captureId, e);
+        }
+    }
+
+    private void notifyWaiters(CaptureResponse response) {
+        Set<CompletableFuture<CaptureResponse>> pending = waiters.remove(response.getCaptureId());
+        if (pending != null) {
+            pending.forEach(waiter -> waiter.complete(response));
+        }
+    }
+
+    private void removeWaiter(UUID captureId, CompletableFuture<CaptureResponse> waiter) {
+        waiters.computeIfPresent(captureId, (id, pending) -> {
+            pending.remove(waiter);
+            return pending.isEmpty() ? null : pending;
+        });
+    }
+
+    private CaptureResponse mapToResponse(CaptureRequest capture) {
+        return CaptureResponse.builder()
+                .captureId(capture.getId())
+                .chargeId(capture.getChargeId())
+                .status(capture.getStatus())
+                .transactionId(capture.getTransactionId())
+                .attempts(capture.getAttempts())
+                .updatedAt(capture.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.model.dto.response.ChargeResponse;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.projection.ChargeProjection;
+
+// Monta a resposta de cobrança a partir da entidade ou da projeção das listagens
+final class ChargeMapper {
+
+    private ChargeMapper() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static ChargeResponse toResponse(Charge charge) {
+        return ChargeResponse.builder()
+                .id(charge.getId())
+                .originator(ChargeResponse.UserSummary.builder()
+                        .id(charge.getOriginator().getId())
+                        .name(charge.getOriginator().getName())
+                        .cpf(charge.getOriginator().getCpf())
+                        .build())
+                .recipient(ChargeResponse.UserSummary.builder()
+                        .id(charge.getRecipient().getId())
+                        .name(charge.getRecipient().getName())
+                        .cpf(charge.getRecipient().getCpf())
+                        .build())
+                .amount(charge.getAmount())
+                .description(charge.getDescription())
+                .status(charge.getStatus())
+                .createdAt(charge.getCreatedAt())
+                .updatedAt(charge.getUpdatedAt())
+                .build();
+    }
+
+    static ChargeResponse toResponse(ChargeProjection row) {
+        return ChargeResponse.builder()
+                .id(row.getId())
+                .originator(ChargeResponse.UserSummary.builder()
+                        .id(row.getOriginatorId())
+                        .name(row.getOriginatorName())
+                        .cpf(row.getOriginatorCpf())
+                        .build())
+                .recipient(ChargeResponse.UserSummary.builder()
+                        .id(row.getRecipientId())
+                        .name(row.getRecipientName())
+                        .cpf(row.getRecipientCpf())
+                        .build())
+                .amount(row.getAmount())
+                .description(row.getDescription())
+                .status(row.getStatus())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
+}
@@ -4,17 +4,30 @@ import com.nimble.payment_gateway.enums.ChargeStatus;
 import com.nimble.payment_gateway.exception.BusinessException;
 import com.nimble.payment_gateway.exception.ResourceNotFoundException;
 import com.nimble.payment_gateway.model.dto.request.CreateChargeRequest;
+import com.nimble.payment_gateway.model.dto.response.BatchChargeResponse;
 import com.nimble.payment_gateway.model.dto.response.ChargeResponse;
+import com.nimble.payment_gateway.model.dto.response.CursorPageResponse;
 import com.nimble.payment_gateway.model.entity.Charge;
 import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.model.projection.ChargeProjection;
 import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.util.CursorCodec;
+import com.nimble.payment_gateway.util.LogMarkers;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,12 +35,17 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ChargeService {
 
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     private final ChargeRepository chargeRepository;
     private final UserService userService;
+    private final OutboxService outboxService;
+    private final ChargeSummaryService chargeSummaryService;
+    private final Validator validator;
 
     @Transactional
     public ChargeResponse createCharge(UUID originatorId, CreateChargeRequest request) {
-        log.info("Criando cobrança para CPF: {}", request.getRecipientCpf());
+        log.debug("Criando cobrança para CPF: {}", request.getRecipientCpf());
 
         User originator = userService.findById(originatorId);
         User recipient = userService.findByCpf(request.getRecipientCpf());
@@ -45,9 +63,70 @@ public class ChargeService {
                 .build();
 
         charge = chargeRepository.save(charge);
-        log.info("Cobrança criada com sucesso: {}", charge.getId());
+        chargeSummaryService.chargesCreated(List.of(charge));
+        log.info(LogMarkers.SUCCESS, "Cobrança criada com sucesso: {}", charge.getId());
 
-        return mapToResponse(charge);
+        return ChargeMapper.toResponse(charge);
+    }
+
+    /**
+     * Cria um lote de cobranças com falha parcial: itens inválidos são reportados no resultado
+     * e os demais são gravados. Os destinatários são resolvidos numa única consulta e os inserts
+     * saem em lotes JDBC no commit.
+     */
+    @Transactional
+    public BatchChargeResponse createCharges(UUID originatorId, List<CreateChargeRequest> requests) {
+        log.info("Criando lote de {} cobranças", requests.size());
+
+        User originator = userService.findById(originatorId);
+        Map<String, User> recipients = userService.findAllByCpf(requests.stream()
+                .map(CreateChargeRequest::getRecipientCpf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        BatchChargeResponse.ItemResult[] results = new BatchChargeResponse.ItemResult[requests.size()];
+        List<Charge> charges = new ArrayList<>(requests.size());
+        List<Integer> chargeIndexes = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            CreateChargeRequest request = requests.get(i);
+            String error = validateBatchItem(request, originator, recipients);
+            if (error != null) {
+                results[i] = BatchChargeResponse.ItemResult.builder().index(i).success(false).error(error).build();
+                continue;
+            }
+
+            charges.add(Charge.builder()
+                    .originator(originator)
+                    .recipient(recipients.get(request.getRecipientCpf()))
+                    .amount(request.getAmount())
+                    .description(request.getDescription())
+                    .status(ChargeStatus.PENDING)
+                    .build());
+            chargeIndexes.add(i);
+        }
+
+        chargeRepository.saveAll(charges);
+        chargeSummaryService.chargesCreated(charges);
+
+        for (int i = 0; i < charges.size(); i++) {
+            int index = chargeIndexes.get(i);
+            results[index] = BatchChargeResponse.ItemResult.builder()
+                    .index(index)
+                    .success(true)
+                    .chargeId(charges.get(i).getId())
+                    .build();
+        }
+
+        log.info("Lote de cobranças processado: {} criadas, {} rejeitadas",
+                charges.size(), requests.size() - charges.size());
+
+        return BatchChargeResponse.builder()
+                .total(requests.size())
+                .created(charges.size())
+                .failed(requests.size() - charges.size())
+                .results(List.of(results))
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -57,25 +136,33 @@ public class ChargeService {
     }
 
     @Transactional(readOnly = true)
-    public List<ChargeResponse> getSentCharges(UUID userId, ChargeStatus status) {
-        List<Charge> charges = status != null
-                ? chargeRepository.findByOriginatorIdAndStatus(userId, status)
-                : chargeRepository.findByOriginatorId(userId);
-
-        return charges.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public CursorPageResponse<ChargeResponse> getSentCharges(UUID userId, ChargeStatus status,
+                                                             String cursor, Integer limit) {
+        int pageSize = CursorCodec.pageSize(limit);
+        List<ChargeProjection> rows = findPage(userId, true, status, CursorCodec.decode(cursor), pageSize + 1);
+        return toPage(rows, pageSize);
     }
 
     @Transactional(readOnly = true)
-    public List<ChargeResponse> getReceivedCharges(UUID userId, ChargeStatus status) {
-        List<Charge> charges = status != null
-                ? chargeRepository.findByRecipientIdAndStatus(userId, status)
-                : chargeRepository.findByRecipientId(userId);
-
-        return charges.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public CursorPageResponse<ChargeResponse> getReceivedCharges(UUID userId, ChargeStatus status,
+                                                                 String cursor, Integer limit) {
+        int pageSize = CursorCodec.pageSize(limit);
+        List<ChargeProjection> rows = findPage(userId, false, status, CursorCodec.decode(cursor), pageSize + 1);
+        return toPage(rows, pageSize);
+    }
+
+    // Exportação completa percorrendo o keyset em lotes: memória constante e sem transação longa
+    public void exportCharges(UUID userId, boolean sent, ChargeStatus status, Consumer<ChargeResponse> consumer) {
+        CursorCodec.Cursor cursor = CursorCodec.first();
+        List<ChargeProjection> batch;
+        do {
+            batch = findPage(userId, sent, status, cursor, EXPORT_BATCH_SIZE);
+            batch.forEach(row -> consumer.accept(ChargeMapper.toResponse(row)));
+            if (!batch.isEmpty()) {
+                ChargeProjection last = batch.get(batch.size() - 1);
+                cursor = new CursorCodec.Cursor(last.getCreatedAt(), last.getId());
+            }
+        } while (batch.size() == EXPORT_BATCH_SIZE);
     }
 
     @Transactional
@@ -93,29 +180,71 @@ public class ChargeService {
             throw new BusinessException("Cobrança já está cancelada");
         }
 
+        // Com a captura no cartão na fila o autorizador ainda pode aprovar: cancelar agora perderia o valor cobrado
+        if (charge.isAuthorizing()) {
+            throw new BusinessException("Pagamento no cartão em processamento; aguarde a conclusão para cancelar");
+        }
+
+        // Paga entre a consulta do controller e esta transação: o cancelamento precisa passar pelo estorno
+        if (!charge.isPending()) {
+            throw new BusinessException("Apenas cobranças pendentes podem ser canceladas sem estorno");
+        }
+
+        ChargeStatus previous = charge.getStatus();
         charge.markAsCancelled();
         chargeRepository.save(charge);
+        chargeSummaryService.statusChanged(charge, previous);
+        outboxService.chargeCancelled(charge);
         log.info("Cobrança cancelada: {}", chargeId);
     }
 
-    private ChargeResponse mapToResponse(Charge charge) {
-        return ChargeResponse.builder()
-                .id(charge.getId())
-                .originator(ChargeResponse.UserSummary.builder()
-                        .id(charge.getOriginator().getId())
-                        .name(charge.getOriginator().getName())
-                        .cpf(charge.getOriginator().getCpf())
-                        .build())
-                .recipient(ChargeResponse.UserSummary.builder()
-                        .id(charge.getRecipient().getId())
-                        .name(charge.getRecipient().getName())
-                        .cpf(charge.getRecipient().getCpf())
-                        .build())
-                .amount(charge.getAmount())
-                .description(charge.getDescription())
-                .status(charge.getStatus())
-                .createdAt(charge.getCreatedAt())
-                .updatedAt(charge.getUpdatedAt())
+    private String validateBatchItem(CreateChargeRequest request, User originator, Map<String, User> recipients) {
+        if (request == null) {
+            return "Cobrança não informada";
+        }
+
+        Set<ConstraintViolation<CreateChargeRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+
+        User recipient = recipients.get(request.getRecipientCpf());
+        if (recipient == null) {
+            return "Usuário não encontrado";
+        }
+        if (originator.getId().equals(recipient.getId())) {
+            return "Não é possível criar cobrança para si mesmo";
+        }
+        return null;
+    }
+
+    private List<ChargeProjection> findPage(UUID userId, boolean sent, ChargeStatus status,
+                                            CursorCodec.Cursor cursor, int size) {
+        Limit limit = Limit.of(size);
+        if (sent) {
+            return status != null
+                    ? chargeRepository.findSentPageByStatus(userId, status, cursor.getCreatedAt(), cursor.getId(), limit)
+                    : chargeRepository.findSentPage(userId, cursor.getCreatedAt(), cursor.getId(), limit);
+        }
+        return status != null
+                ? chargeRepository.findReceivedPageByStatus(userId, status, cursor.getCreatedAt(), cursor.getId(), limit)
+                : chargeRepository.findReceivedPage(userId, cursor.getCreatedAt(), cursor.getId(), limit);
+    }
+
+    private CursorPageResponse<ChargeResponse> toPage(List<ChargeProjection> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<ChargeProjection> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ChargeProjection last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+
+        return CursorPageResponse.<ChargeResponse>builder()
+                .items(page.stream().map(ChargeMapper::toResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
                 .build();
     }
-}
\ No newline at end of file
+}
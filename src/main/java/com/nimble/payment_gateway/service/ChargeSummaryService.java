@@ -0,0 +1,285 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.enums.ChargeDirection;
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.model.dto.response.ChargeSummaryResponse;
+import com.nimble.payment_gateway.model.dto.response.ChargeSummaryResponse.StatusTotal;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.ChargeSummary;
+import com.nimble.payment_gateway.model.projection.ChargeStatusTotal;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.ChargeSummaryRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Contadores de cobranças por usuário, direção e status para os painéis: a leitura é uma consulta pelo
+ * índice do usuário, qualquer que seja o número de cobranças. Os incrementos acontecem na transação que
+ * cria a cobrança ou muda o seu status, acumulados e aplicados logo antes do commit para que as linhas de
+ * uma loja muito cobrada fiquem bloqueadas o mínimo possível; a verificação periódica recalcula a partir
+ * de charges e corrige desvios.
+ */
+@Service
+@Slf4j
+public class ChargeSummaryService {
+
+    private static final UUID FIRST_USER = new UUID(0L, 0L);
+
+    private static final Comparator<UUID> DATABASE_UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    // A mesma ordem do ORDER BY de lockByUserIds: os enums são gravados como texto
+    private static final Comparator<SummaryKey> LOCK_ORDER = Comparator
+            .comparing((SummaryKey key) -> key.getDirection().name())
+            .thenComparing(SummaryKey::getUserId, DATABASE_UUID_ORDER)
+            .thenComparing(key -> key.getStatus().name());
+
+    private final ChargeSummaryRepository chargeSummaryRepository;
+    private final ChargeRepository chargeRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter repairs;
+
+    public ChargeSummaryService(ChargeSummaryRepository chargeSummaryRepository,
+                                ChargeRepository chargeRepository,
+                                UserRepository userRepository,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${charge-summary.verification.batch-size:500}") int batchSize) {
+        this.chargeSummaryRepository = chargeSummaryRepository;
+        this.chargeRepository = chargeRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.repairs = Counter.builder("charge.summary.repairs")
+                .description("Linhas de charge_summaries corrigidas pela verificação")
+                .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    public ChargeSummaryResponse getSummary(UUID userId) {
+        Map<ChargeStatus, StatusTotal> sent = emptyTotals();
+        Map<ChargeStatus, StatusTotal> received = emptyTotals();
+        for (ChargeSummary row : chargeSummaryRepository.findByUserId(userId)) {
+            (row.getDirection() == ChargeDirection.SENT ? sent : received)
+                    .put(row.getStatus(), new StatusTotal(row.getChargeCount(), row.getTotal()));
+        }
+        return ChargeSummaryResponse.builder().sent(sent).received(received).build();
+    }
+
+    // Chamados dentro da transação que grava as cobranças
+    public void chargesCreated(Collection<Charge> charges) {
+        Map<SummaryKey, Delta> deltas = pendingDeltas();
+        for (Charge charge : charges) {
+            add(deltas, charge, charge.getStatus(), 1);
+        }
+        applyIfNoTransaction(deltas);
+    }
+
+    public void statusChanged(Charge charge, ChargeStatus previous) {
+        if (previous == charge.getStatus()) {
+            return;
+        }
+        Map<SummaryKey, Delta> deltas = pendingDeltas();
+        add(deltas, charge, previous, -1);
+        add(deltas, charge, charge.getStatus(), 1);
+        applyIfNoTransaction(deltas);
+    }
+
+    // Tabela vazia na subida: preenche a partir das cobranças já existentes
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (chargeSummaryRepository.count() == 0) {
+            verify();
+        }
+    }
+
+    @Scheduled(cron = "${charge-summary.verification.cron:0 30 3 * * *}")
+    public void scheduledVerification() {
+        verify();
+    }
+
+    public long verify() {
+        long startedAt = System.nanoTime();
+        long users = 0;
+        long repaired = 0;
+        UUID after = FIRST_USER;
+        List<UUID> userIds;
+        do {
+            userIds = userRepository.findIdsAfter(after, Limit.of(batchSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            List<UUID> page = userIds;
+            try {
+                repaired += transactionTemplate.execute(status -> verifyPage(page));
+            } catch (DataAccessException e) {
+                log.warn("Falha ao verificar o resumo de cobranças de {} usuários; a próxima execução tenta de novo: {}",
+                        page.size(), e.getMessage());
+            }
+            users += userIds.size();
+            after = userIds.get(userIds.size() - 1);
+        } while (userIds.size() == batchSize);
+
+        log.info("Verificação do resumo de cobranças: {} usuários, {} linhas corrigidas em {} ms",
+                users, repaired, (System.nanoTime() - startedAt) / 1_000_000);
+        return repaired;
+    }
+
+    // As linhas do resumo ficam bloqueadas enquanto charges é agregada: uma mudança concorrente ou já
+    // aparece nas duas (commitou antes) ou em nenhuma (espera o lock), e a diferença que sobra é desvio
+    private long verifyPage(List<UUID> userIds) {
+        Map<SummaryKey, Delta> deltas = new HashMap<>();
+        for (ChargeSummary row : chargeSummaryRepository.lockByUserIds(userIds)) {
+            deltas.merge(new SummaryKey(row.getUserId(), row.getDirection(), row.getStatus()),
+                    new Delta(-row.getChargeCount(), row.getTotal().negate()), Delta::plus);
+        }
+        for (ChargeStatusTotal expected : chargeRepository.sumSentByStatus(userIds)) {
+            deltas.merge(new SummaryKey(expected.getUserId(), ChargeDirection.SENT, expected.getStatus()),
+                    new Delta(expected.getCount(), expected.getTotal()), Delta::plus);
+        }
+        for (ChargeStatusTotal expected : chargeRepository.sumReceivedByStatus(userIds)) {
+            deltas.merge(new SummaryKey(expected.getUserId(), ChargeDirection.RECEIVED, expected.getStatus()),
+                    new Delta(expected.getCount(), expected.getTotal()), Delta::plus);
+        }
+
+        long drifted = apply(deltas);
+        if (drifted > 0) {
+            repairs.increment(drifted);
+            log.warn("Resumo de cobranças divergente em {} linhas; corrigido a partir de charges", drifted);
+        }
+        return drifted;
+    }
+
+    private static void add(Map<SummaryKey, Delta> deltas, Charge charge, ChargeStatus status, int sign) {
+        Delta delta = new Delta(sign, sign > 0 ? charge.getAmount() : charge.getAmount().negate());
+        deltas.merge(new SummaryKey(charge.getOriginator().getId(), ChargeDirection.SENT, status), delta, Delta::plus);
+        deltas.merge(new SummaryKey(charge.getRecipient().getId(), ChargeDirection.RECEIVED, status), delta, Delta::plus);
+    }
+
+    private Map<SummaryKey, Delta> pendingDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashMap<>();
+        }
+        PendingDeltas pending = (PendingDeltas) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingDeltas();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending.deltas;
+    }
+
+    private void applyIfNoTransaction(Map<SummaryKey, Delta> deltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(deltas);
+        }
+    }
+
+    private long apply(Map<SummaryKey, Delta> deltas) {
+        List<Map.Entry<SummaryKey, Delta>> changes = deltas.entrySet().stream()
+                .filter(entry -> !entry.getValue().isZero())
+                .sorted(Map.Entry.comparingByKey(LOCK_ORDER))
+                .toList();
+        for (Map.Entry<SummaryKey, Delta> change : changes) {
+            SummaryKey key = change.getKey();
+            Delta delta = change.getValue();
+            if (increment(key, delta) == 0) {
+                // Primeira cobrança do usuário nesta direção: o lock na linha do usuário serializa a criação,
+                // e quem esperou encontra as linhas criadas pela outra transação
+                userRepository.findByIdWithLock(key.getUserId());
+                if (increment(key, delta) == 0) {
+                    createRows(key, delta);
+                }
+            }
+        }
+        return changes.size();
+    }
+
+    private int increment(SummaryKey key, Delta delta) {
+        return chargeSummaryRepository.increment(key.getUserId(), key.getDirection(), key.getStatus(),
+                delta.getCount(), delta.getTotal());
+    }
+
+    // Cria as linhas de todos os status de uma vez, para que as mudanças de status seguintes sejam só incrementos
+    private void createRows(SummaryKey key, Delta delta) {
+        for (ChargeStatus status : ChargeStatus.values()) {
+            boolean target = status == key.getStatus();
+            chargeSummaryRepository.save(ChargeSummary.builder()
+                    .userId(key.getUserId())
+                    .direction(key.getDirection())
+                    .status(status)
+                    .chargeCount(target ? delta.getCount() : 0)
+                    .total(target ? delta.getTotal() : BigDecimal.ZERO)
+                    .build());
+        }
+    }
+
+    private static Map<ChargeStatus, StatusTotal> emptyTotals() {
+        Map<ChargeStatus, StatusTotal> totals = new EnumMap<>(ChargeStatus.class);
+        for (ChargeStatus status : ChargeStatus.values()) {
+            totals.put(status, new StatusTotal(0, BigDecimal.ZERO));
+        }
+        return totals;
+    }
+
+    private class PendingDeltas implements TransactionSynchronization {
+
+        private final Map<SummaryKey, Delta> deltas = new HashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            apply(deltas);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChargeSummaryService.this);
+        }
+    }
+
+    @lombok.Value
+    private static class SummaryKey {
+        UUID userId;
+        ChargeDirection direction;
+        ChargeStatus status;
+    }
+
+    @lombok.Value
+    private static class Delta {
+        long count;
+        BigDecimal total;
+
+        Delta plus(Delta other) {
+            return new Delta(count + other.count, total.add(other.total));
+        }
+
+        boolean isZero() {
+            return count == 0 && total.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.model.dto.response.EventResponse;
+import com.nimble.payment_gateway.model.entity.OutboxEvent;
+import com.nimble.payment_gateway.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stream SSE dos eventos do outbox já numerados. Cada instância acompanha a tabela a partir da sua posição
+ * e repassa os eventos aos assinantes conectados nela; quem informa o último offset recebido primeiro
+ * recebe o que perdeu, lido do banco. Todo envio acontece na thread do agendamento, em ordem de posição.
+ */
+@Service
+@Slf4j
+public class EventStreamService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final int batchSize;
+    private final long timeout;
+    private final Queue<Subscriber> joining = new ConcurrentLinkedQueue<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private long cursor = -1;
+
+    public EventStreamService(OutboxEventRepository outboxEventRepository,
+                              @Value("${outbox.stream.batch-size:500}") int batchSize,
+                              @Value("${outbox.stream.timeout:1800000}") long timeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+    }
+
+    public SseEmitter subscribe(UUID userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(userId, emitter, lastEventId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        joining.add(subscriber);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.stream.interval:200}")
+    public void dispatch() {
+        if (cursor < 0) {
+            cursor = outboxEventRepository.findMaxPosition();
+        }
+
+        Subscriber subscriber;
+        while ((subscriber = joining.poll()) != null) {
+            if (catchUp(subscriber)) {
+                subscribers.add(subscriber);
+            }
+        }
+
+        if (subscribers.isEmpty()) {
+            cursor = outboxEventRepository.findMaxPosition();
+            return;
+        }
+
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findAfter(cursor, PageRequest.of(0, batchSize));
+            for (OutboxEvent event : batch) {
+                for (Subscriber live : subscribers) {
+                    if (event.isVisibleTo(live.userId) && !live.send(event)) {
+                        subscribers.remove(live);
+                    }
+                }
+                cursor = event.getPosition();
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    // Entrega ao novo assinante o que ficou entre o offset informado e a posição atual do stream
+    private boolean catchUp(Subscriber subscriber) {
+        if (subscriber.lastSent == null) {
+            subscriber.lastSent = cursor;
+            return true;
+        }
+
+        List<OutboxEvent> missed;
+        do {
+            missed = outboxEventRepository.findVisibleTo(subscriber.userId, subscriber.lastSent, cursor,
+                    PageRequest.of(0, batchSize));
+            for (OutboxEvent event : missed) {
+                if (!subscriber.send(event)) {
+                    return false;
+                }
+            }
+        } while (missed.size() == batchSize);
+
+        subscriber.lastSent = cursor;
+        return true;
+    }
+
+    private static EventResponse mapToResponse(OutboxEvent event) {
+        return EventResponse.builder()
+                .id(event.getId())
+                .position(event.getPosition())
+                .type(event.getType())
+                .aggregateId(event.getAggregateId())
+                .data(event.getPayload())
+                .occurredAt(event.getCreatedAt())
+                .build();
+    }
+
+    private static final class Subscriber {
+
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private Long lastSent;
+
+        private Subscriber(UUID userId, SseEmitter emitter, Long lastSent) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+
+        private boolean send(OutboxEvent event) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getPosition()))
+                        .name(event.getType().name())
+                        .data(mapToResponse(event), MediaType.APPLICATION_JSON));
+                lastSent = event.getPosition();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Assinante {} desconectado do stream de eventos", userId);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
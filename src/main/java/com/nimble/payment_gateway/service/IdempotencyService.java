@@ -0,0 +1,273 @@
+package com.nimble.payment_gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimble.payment_gateway.enums.IdempotencyStatus;
+import com.nimble.payment_gateway.exception.BusinessException;
+import com.nimble.payment_gateway.exception.IdempotencyException;
+import com.nimble.payment_gateway.model.dto.response.PaymentResponse;
+import com.nimble.payment_gateway.model.entity.IdempotencyRecord;
+import com.nimble.payment_gateway.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Garante que uma operação de pagamento identificada por Idempotency-Key seja executada uma única vez.
+ * Respostas concluídas ficam num cache em memória com TTL sobre a tabela idempotency_keys;
+ * requisições duplicadas concorrentes na mesma instância aguardam a execução em andamento.
+ * A resposta é gravada no mesmo commit da operação (recordResponse), então uma reserva PROCESSING
+ * mais antiga que o timeout de processamento é de uma execução que não commitou e pode ser liberada.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration processingTimeout;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<Claim> currentClaim = new ThreadLocal<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl:86400000}") long ttl,
+                              @Value("${idempotency.cache.max-size:100000}") long cacheMaxSize,
+                              @Value("${idempotency.cache.ttl:600000}") long cacheTtl,
+                              @Value("${idempotency.processing-timeout:60000}") long processingTimeout) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofMillis(ttl);
+        this.processingTimeout = Duration.ofMillis(processingTimeout);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(Math.min(cacheTtl, ttl)))
+                .build();
+    }
+
+    public PaymentResponse execute(UUID userId, String idempotencyKey, String operation, Object request,
+                                   Supplier<PaymentResponse> action) {
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key deve ter no máximo " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String scope = userId + ":" + idempotencyKey;
+        String fingerprint = fingerprint(operation, request);
+
+        StoredResponse stored = completed.getIfPresent(scope);
+        if (stored != null) {
+            checkFingerprint(stored.getFingerprint(), fingerprint);
+            return stored.getResponse();
+        }
+
+        InFlight execution = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(scope, execution);
+        if (running != null) {
+            checkFingerprint(running.getFingerprint(), fingerprint);
+            return await(running.getResult());
+        }
+
+        try {
+            PaymentResponse response = executeOnce(userId, idempotencyKey, scope, fingerprint, action);
+            execution.getResult().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            execution.getResult().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scope, execution);
+        }
+    }
+
+    // Chamado dentro da transação da operação: a chave é concluída no mesmo commit que o pagamento
+    public PaymentResponse recordResponse(PaymentResponse response) {
+        Claim claim = currentClaim.get();
+        if (claim == null) {
+            return response;
+        }
+        if (idempotencyRecordRepository.markCompleted(claim.getRecordId(), serialize(response)) == 0) {
+            // A reserva venceu e foi liberada enquanto a operação rodava: desfaz para não executar duas vezes
+            throw new IdempotencyException("Reserva da Idempotency-Key expirou durante o processamento; tente novamente");
+        }
+        claim.setRecorded(true);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:3600000}")
+    public void purgeExpired() {
+        int removed = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("Chaves de idempotência expiradas removidas: {}", removed);
+        }
+    }
+
+    private PaymentResponse executeOnce(UUID userId, String idempotencyKey, String scope, String fingerprint,
+                                        Supplier<PaymentResponse> action) {
+        Optional<UUID> claimed = tryClaim(userId, idempotencyKey, fingerprint);
+        if (claimed.isEmpty()) {
+            return replay(userId, idempotencyKey, scope, fingerprint, action);
+        }
+
+        UUID recordId = claimed.get();
+        Claim claim = new Claim(recordId);
+        currentClaim.set(claim);
+        PaymentResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Falhas liberam a chave para que o cliente possa tentar novamente
+            idempotencyRecordRepository.release(recordId);
+            throw e;
+        } finally {
+            currentClaim.remove();
+        }
+
+        // Operações que não passaram por recordResponse concluem a chave depois do commit
+        if (!claim.isRecorded() && idempotencyRecordRepository.markCompleted(recordId, serialize(response)) == 0) {
+            log.warn("Reserva da Idempotency-Key {} liberada antes da conclusão; a resposta não será reaproveitada", recordId);
+        }
+        completed.put(scope, new StoredResponse(fingerprint, response));
+        return response;
+    }
+
+    private PaymentResponse replay(UUID userId, String idempotencyKey, String scope, String fingerprint,
+                                   Supplier<PaymentResponse> action) {
+        IdempotencyRecord record = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                .orElse(null);
+        if (record == null || record.isExpired()) {
+            if (record != null) {
+                idempotencyRecordRepository.delete(record);
+            }
+            return executeOnce(userId, idempotencyKey, scope, fingerprint, action);
+        }
+
+        checkFingerprint(record.getFingerprint(), fingerprint);
+        if (!record.isCompleted()) {
+            if (!record.isStale(processingTimeout)) {
+                throw new IdempotencyException("Requisição com esta Idempotency-Key ainda está em processamento");
+            }
+            // Instância caiu antes do commit: nada foi gravado, a reserva é liberada e a operação executada
+            if (idempotencyRecordRepository.releaseStale(record.getId(), LocalDateTime.now().minus(processingTimeout)) > 0) {
+                log.warn("Reserva vencida da Idempotency-Key liberada: {}", record.getId());
+            }
+            return executeOnce(userId, idempotencyKey, scope, fingerprint, action);
+        }
+        PaymentResponse response = deserialize(record.getResponseBody());
+        completed.put(scope, new StoredResponse(fingerprint, response));
+        return response;
+    }
+
+    // Reserva a chave inserindo um registro PROCESSING; a unique (user_id, idempotency_key) resolve a corrida entre instâncias
+    private Optional<UUID> tryClaim(UUID userId, String idempotencyKey, String fingerprint) {
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .userId(userId)
+                .idempotencyKey(idempotencyKey)
+                .fingerprint(fingerprint)
+                .status(IdempotencyStatus.PROCESSING)
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build();
+        try {
+            return Optional.of(idempotencyRecordRepository.saveAndFlush(record).getId());
+        } catch (DataIntegrityViolationException e) {
+            // Qualquer outra violação (NOT NULL, tamanho) não é corrida: o replay não acharia o registro e tentaria de novo
+            if (!isKeyConflict(e)) {
+                throw e;
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static boolean isKeyConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(IdempotencyRecord.KEY_CONSTRAINT);
+    }
+
+    private void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IdempotencyException("Idempotency-Key já utilizada com uma requisição diferente");
+        }
+    }
+
+    private PaymentResponse await(CompletableFuture<PaymentResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao calcular hash da requisição", e);
+        }
+    }
+
+    private String serialize(PaymentResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar resposta idempotente", e);
+        }
+    }
+
+    private PaymentResponse deserialize(String body) {
+        try {
+            return objectMapper.readValue(body, PaymentResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao ler resposta idempotente", e);
+        }
+    }
+
+    @lombok.Value
+    private static class StoredResponse {
+        String fingerprint;
+        PaymentResponse response;
+    }
+
+    @lombok.Data
+    private static class Claim {
+        private final UUID recordId;
+        private boolean recorded;
+    }
+
+    @lombok.Value
+    private static class InFlight {
+        String fingerprint;
+        CompletableFuture<PaymentResponse> result;
+    }
+}
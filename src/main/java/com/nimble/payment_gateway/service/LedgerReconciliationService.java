@@ -0,0 +1,209 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.model.projection.LedgerEntryProjection;
+import com.nimble.payment_gateway.model.projection.LedgerShardKey;
+import com.nimble.payment_gateway.repository.BalanceSnapshotRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Confere todas as contas contra o razão. O espaço de ids é dividido em faixas contíguas e cada
+ * faixa é lida por uma thread, em ordem de (conta, shard, sequência), uma única vez: cada lançamento
+ * é visto exatamente uma vez e a memória usada é a de um shard por vez, mais os snapshots da faixa.
+ */
+@Service
+@Slf4j
+public class LedgerReconciliationService {
+
+    private static final int MAX_LOGGED_MISMATCHES = 100;
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int threads;
+
+    public LedgerReconciliationService(LedgerEntryRepository ledgerEntryRepository,
+                                       BalanceSnapshotRepository balanceSnapshotRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${ledger.reconciliation.threads:0}") int threads,
+                                       @Value("${ledger.reconciliation.pool-share:0.25}") double poolShare,
+                                       @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        // Cada thread segura uma conexão durante toda a leitura da sua faixa: a reconciliação fica com no
+        // máximo uma fração do pool para não deixar as requisições sem conexão
+        int requested = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.threads = Math.min(requested, Math.max(1, (int) (poolSize * poolShare)));
+    }
+
+    @Scheduled(cron = "${ledger.reconciliation.cron:0 0 3 * * *}")
+    public void scheduledReconciliation() {
+        reconcile();
+    }
+
+    public ReconciliationReport reconcile() {
+        long startedAt = System.nanoTime();
+        List<UUID[]> ranges = accountRanges(threads);
+
+        List<RangeResult> results = new ArrayList<>(ranges.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(ranges.size())) {
+            List<Future<RangeResult>> futures = new ArrayList<>(ranges.size());
+            for (UUID[] range : ranges) {
+                futures.add(executor.submit(() -> readOnlyTransaction.execute(status -> reconcileRange(range[0], range[1]))));
+            }
+            for (Future<RangeResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliação do razão interrompida", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Falha na reconciliação do razão", ex.getCause());
+        }
+
+        long accounts = results.stream().mapToLong(r -> r.accounts).sum();
+        long entries = results.stream().mapToLong(r -> r.entries).sum();
+        List<String> mismatches = results.stream().flatMap(r -> r.mismatches.stream()).toList();
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        mismatches.stream().limit(MAX_LOGGED_MISMATCHES).forEach(mismatch -> log.error("Divergência no razão: {}", mismatch));
+        log.info("Reconciliação do razão: {} contas, {} lançamentos, {} divergências em {} ms ({} lançamentos/s)",
+                accounts, entries, mismatches.size(), elapsedMillis,
+                elapsedMillis == 0 ? entries : entries * 1000 / elapsedMillis);
+
+        return new ReconciliationReport(accounts, entries, mismatches, elapsedMillis);
+    }
+
+    private RangeResult reconcileRange(UUID fromAccount, UUID toAccount) {
+        Map<LedgerShardKey, Deque<LedgerEntryProjection>> snapshots = new HashMap<>();
+        for (LedgerEntryProjection snapshot : balanceSnapshotRepository.findByAccountRange(fromAccount, toAccount)) {
+            snapshots.computeIfAbsent(new LedgerShardKey(snapshot.getAccountId(), snapshot.getShard()),
+                    key -> new ArrayDeque<>()).add(snapshot);
+        }
+
+        RangeResult result = new RangeResult();
+        ShardCheck[] current = new ShardCheck[1];
+        try (Stream<LedgerEntryProjection> entries = ledgerEntryRepository.streamByAccountRange(fromAccount, toAccount)) {
+            entries.forEach(entry -> {
+                LedgerShardKey key = new LedgerShardKey(entry.getAccountId(), entry.getShard());
+                if (current[0] == null || !current[0].key.equals(key)) {
+                    if (current[0] != null) {
+                        current[0].finish(result);
+                    }
+                    if (current[0] == null || !current[0].key.getAccountId().equals(key.getAccountId())) {
+                        result.accounts++;
+                    }
+                    current[0] = new ShardCheck(key, snapshots.remove(key));
+                }
+                current[0].apply(entry, result);
+                result.entries++;
+            });
+        }
+        if (current[0] != null) {
+            current[0].finish(result);
+        }
+
+        // Snapshots de shards sem nenhum lançamento não têm como ter sido gerados pelo razão
+        snapshots.keySet().forEach(key -> result.mismatches.add("conta " + key.getAccountId()
+                + " (shard " + key.getShard() + "): snapshot sem lançamentos"));
+        return result;
+    }
+
+    // Ordem de uuid no PostgreSQL e no H2 é byte a byte sem sinal, a mesma de Long.compareUnsigned nos 64 bits altos
+    static List<UUID[]> accountRanges(int count) {
+        List<UUID[]> ranges = new ArrayList<>(count);
+        long step = Long.divideUnsigned(-1L, count);
+        for (int i = 0; i < count; i++) {
+            long from = step * i;
+            UUID lower = new UUID(from, 0L);
+            UUID upper = i == count - 1 ? new UUID(-1L, -1L) : new UUID(from + step - 1, -1L);
+            ranges.add(new UUID[]{lower, upper});
+        }
+        return ranges;
+    }
+
+    // Cada shard é uma sequência independente; débitos são distribuídos sem negativar nenhum deles
+    private static final class ShardCheck {
+
+        private final LedgerShardKey key;
+        private final String label;
+        private final Deque<LedgerEntryProjection> snapshots;
+        private long expectedSequence = 1;
+        private BigDecimal balance = BigDecimal.ZERO;
+
+        private ShardCheck(LedgerShardKey key, Deque<LedgerEntryProjection> snapshots) {
+            this.key = key;
+            this.label = "conta " + key.getAccountId() + " (shard " + key.getShard() + ")";
+            this.snapshots = snapshots != null ? snapshots : new ArrayDeque<>();
+        }
+
+        private void apply(LedgerEntryProjection entry, RangeResult result) {
+            if (entry.getSequence() != expectedSequence) {
+                result.mismatches.add(label + ": sequência " + entry.getSequence()
+                        + " encontrada, esperada " + expectedSequence);
+            }
+            expectedSequence = entry.getSequence() + 1;
+            balance = balance.add(entry.getAmount());
+
+            if (balance.signum() < 0) {
+                result.mismatches.add(label + ": saldo negativo após a sequência " + entry.getSequence());
+            }
+
+            while (!snapshots.isEmpty() && snapshots.peekFirst().getSequence() <= entry.getSequence()) {
+                LedgerEntryProjection snapshot = snapshots.pollFirst();
+                if (snapshot.getSequence() != entry.getSequence()) {
+                    result.mismatches.add(label + ": snapshot na sequência " + snapshot.getSequence()
+                            + " sem lançamento correspondente");
+                } else if (snapshot.getAmount().compareTo(balance) != 0) {
+                    result.mismatches.add(label + ": snapshot na sequência " + snapshot.getSequence()
+                            + " com saldo " + snapshot.getAmount() + ", razão soma " + balance);
+                }
+            }
+        }
+
+        private void finish(RangeResult result) {
+            for (LedgerEntryProjection snapshot : snapshots) {
+                result.mismatches.add(label + ": snapshot na sequência " + snapshot.getSequence()
+                        + " além do último lançamento");
+            }
+        }
+    }
+
+    private static final class RangeResult {
+        private long accounts;
+        private long entries;
+        private final List<String> mismatches = new ArrayList<>();
+    }
+
+    @lombok.Value
+    public static class ReconciliationReport {
+        long accounts;
+        long entries;
+        List<String> mismatches;
+        long elapsedMillis;
+
+        public boolean isConsistent() {
+            return mismatches.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.config.ReplicaRoutingDataSource;
+import com.nimble.payment_gateway.exception.BusinessException;
+import com.nimble.payment_gateway.model.entity.AccountShard;
+import com.nimble.payment_gateway.model.entity.BalanceSnapshot;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.model.projection.AccountShardCount;
+import com.nimble.payment_gateway.model.projection.LedgerShardKey;
+import com.nimble.payment_gateway.model.projection.LedgerTail;
+import com.nimble.payment_gateway.repository.AccountShardRepository;
+import com.nimble.payment_gateway.repository.BalanceSnapshotRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Razão das contas: o saldo não é mais um campo mutável em users, e sim o último snapshot
+ * somado aos lançamentos posteriores a ele. Lançamentos são apenas inseridos; os snapshots
+ * são gravados periodicamente para manter a cauda curta.
+ * <p>
+ * Contas quentes (grandes recebedores) podem ter o saldo dividido em N shards: cada crédito
+ * bloqueia e grava apenas o shard escolhido pelo hash da chave de roteamento, e o saldo é a
+ * soma dos shards. Débitos bloqueiam todos os shards e são distribuídos sem negativar nenhum.
+ */
+@Service
+@Slf4j
+public class LedgerService {
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final AccountShardRepository accountShardRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate primaryReadTemplate;
+    private final BalanceCache balanceCache;
+    private final AccountContention accountContention;
+    private final long snapshotMinEntries;
+    private final List<UUID> hotAccounts;
+    private final int hotAccountShards;
+
+    private volatile LocalDateTime lastSnapshotRun = EARLIEST;
+
+    public LedgerService(LedgerEntryRepository ledgerEntryRepository,
+                         BalanceSnapshotRepository balanceSnapshotRepository,
+                         AccountShardRepository accountShardRepository,
+                         UserRepository userRepository,
+                         TransactionTemplate transactionTemplate,
+                         BalanceCache balanceCache,
+                         AccountContention accountContention,
+                         @Value("${ledger.snapshot.min-entries:100}") long snapshotMinEntries,
+                         @Value("${ledger.sharding.hot-accounts:}") List<UUID> hotAccounts,
+                         @Value("${ledger.sharding.shards:16}") int hotAccountShards) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.accountShardRepository = accountShardRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.primaryReadTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.primaryReadTemplate.setReadOnly(true);
+        this.primaryReadTemplate.setName(ReplicaRoutingDataSource.PRIMARY_READ);
+        this.balanceCache = balanceCache;
+        this.accountContention = accountContention;
+        this.snapshotMinEntries = snapshotMinEntries;
+        this.hotAccounts = hotAccounts;
+        this.hotAccountShards = hotAccountShards;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void configureHotAccounts() {
+        hotAccounts.forEach(accountId -> enableSharding(accountId, hotAccountShards));
+    }
+
+    // Cria as linhas de lock dos shards que faltam. Reduzir N não é suportado: os shards
+    // acima do novo N continuariam somando no saldo, mas deixariam de ser bloqueados nos débitos
+    public void enableSharding(UUID accountId, int shards) {
+        int created;
+        try {
+            created = transactionTemplate.execute(status -> createMissingShards(accountId, shards));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Shards da conta {} criados por outra instância", accountId);
+            return;
+        }
+        if (created > 0) {
+            log.info("Conta {} com saldo dividido em {} shards", accountId, shards);
+        }
+    }
+
+    // O lock na linha do usuário serializa instâncias que sobem juntas: quem espera já conta os shards
+    // criados pela outra e insere só os que ainda faltam
+    private int createMissingShards(UUID accountId, int shards) {
+        if (userRepository.findByIdWithLock(accountId).isEmpty()) {
+            log.warn("Conta quente {} não encontrada; sharding ignorado", accountId);
+            return 0;
+        }
+
+        int current = accountShardRepository.countByAccountId(accountId);
+        if (shards < current) {
+            throw new BusinessException("Não é possível reduzir os shards de " + current + " para " + shards);
+        }
+
+        accountShardRepository.saveAll(IntStream.range(current, shards)
+                .mapToObj(shard -> AccountShard.builder().accountId(accountId).shard(shard).build())
+                .toList());
+        return shards - current;
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(UUID accountId) {
+        return getBalanceView(accountId).getBalance();
+    }
+
+    // A posição soma as sequências dos shards: só cresce, e muda a cada lançamento na conta
+    @Transactional(readOnly = true)
+    public BalanceView getBalanceView(UUID accountId) {
+        int shards = Math.max(1, shardCounts(List.of(accountId)).getOrDefault(accountId, 0));
+        BigDecimal balance = BigDecimal.ZERO;
+        long sequence = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            AccountPosition position = position(accountId, shard);
+            balance = balance.add(position.getBalance());
+            sequence += position.getSequence();
+        }
+        return new BalanceView(balance, sequence);
+    }
+
+    // Carga do BalanceCache: uma réplica atrasada devolveria o saldo de antes do último lançamento (a contraparte
+    // de um pagamento não está na janela de aderência), e ele ficaria no cache com o ETag antigo pelo TTL
+    public BalanceView getCurrentBalanceView(UUID accountId) {
+        return primaryReadTemplate.execute(status -> getBalanceView(accountId));
+    }
+
+    /**
+     * Bloqueia as contas de um lançamento, sempre em ordem de id (e de shard dentro da conta).
+     * A conta debitada tem todos os shards bloqueados; a creditada, apenas o shard da chave de roteamento.
+     * Qualquer uma das duas pode ser nula (depósitos só creditam, estornos no cartão só debitam).
+     * No modo otimista as contas são apenas lidas: o lançamento ocupa a próxima sequência do shard, e a
+     * chave única do razão rejeita o insert se outro lançamento chegou antes.
+     */
+    public Map<UUID, LedgerAccount> lock(UUID debitAccountId, UUID creditAccountId, UUID routingKey) {
+        List<UUID> accountIds = new ArrayList<>(2);
+        if (debitAccountId != null) {
+            accountIds.add(debitAccountId);
+        }
+        if (creditAccountId != null) {
+            accountIds.add(creditAccountId);
+        }
+        // Lido do banco a cada lançamento: todas as instâncias concordam se a conta bloqueia users ou os shards
+        Map<UUID, Integer> shardCounts = shardCounts(accountIds);
+        Map<UUID, Integer> shardCountByAccount = new TreeMap<>();
+        accountIds.forEach(accountId -> shardCountByAccount.put(accountId, shardCounts.getOrDefault(accountId, 0)));
+        Set<UUID> unlocked = shardCountByAccount.keySet().stream()
+                .filter(accountContention::readOptimistically)
+                .collect(Collectors.toSet());
+
+        // Contas comuns são bloqueadas numa única consulta em users, como antes do sharding
+        List<UUID> plainAccounts = shardCountByAccount.entrySet().stream()
+                .filter(entry -> entry.getValue() == 0 && !unlocked.contains(entry.getKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+        boolean plainOnly = plainAccounts.size() + unlocked.size() == shardCountByAccount.size();
+        if (plainOnly && !plainAccounts.isEmpty()) {
+            lockPlainAccounts(plainAccounts);
+        }
+
+        Map<UUID, LedgerAccount> accounts = new HashMap<>();
+        for (Map.Entry<UUID, Integer> entry : shardCountByAccount.entrySet()) {
+            UUID accountId = entry.getKey();
+            int shards = entry.getValue();
+            boolean locking = !unlocked.contains(accountId);
+
+            List<Integer> lockedShards;
+            Integer creditShard = null;
+            if (shards == 0) {
+                if (locking && !plainOnly) {
+                    lockPlainAccounts(List.of(accountId));
+                }
+                lockedShards = List.of(0);
+                creditShard = 0;
+            } else {
+                if (accountId.equals(creditAccountId)) {
+                    creditShard = Math.floorMod(routingKey.hashCode(), shards);
+                }
+                lockedShards = accountId.equals(debitAccountId)
+                        ? IntStream.range(0, shards).boxed().toList()
+                        : List.of(creditShard);
+                if (locking && accountShardRepository.lockShards(accountId, lockedShards).size() != lockedShards.size()) {
+                    // O número de shards mudou entre a contagem e o lock
+                    throw new BusinessException("Shards da conta alterados durante o lançamento; tente novamente");
+                }
+            }
+
+            List<AccountPosition> positions = lockedShards.stream()
+                    .map(shard -> position(accountId, shard))
+                    .toList();
+            accounts.put(accountId, new LedgerAccount(accountId, creditShard, positions));
+        }
+        return accounts;
+    }
+
+    public void credit(LedgerAccount account, BigDecimal amount, UUID transactionId) {
+        if (account.getCreditShard() == null) {
+            throw new IllegalStateException("Conta " + account.getAccountId() + " não foi bloqueada para crédito");
+        }
+        account.update(post(account.positions.get(account.getCreditShard()), amount, transactionId));
+    }
+
+    // Retira primeiro dos shards com mais saldo, para que nenhum sub-saldo fique negativo
+    public void debit(LedgerAccount account, BigDecimal amount, UUID transactionId) {
+        if (!account.covers(amount)) {
+            throw new BusinessException("Saldo insuficiente na conta " + account.getAccountId());
+        }
+
+        List<AccountPosition> byBalance = new ArrayList<>(account.positions.values());
+        byBalance.sort(Comparator.comparing(AccountPosition::getBalance).reversed());
+
+        BigDecimal remaining = amount;
+        for (AccountPosition position : byBalance) {
+            if (remaining.signum() == 0) {
+                break;
+            }
+            BigDecimal portion = remaining.min(position.getBalance());
+            if (portion.signum() > 0) {
+                account.update(post(position, portion.negate(), transactionId));
+                remaining = remaining.subtract(portion);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.snapshot.interval:60000}")
+    public void takeSnapshots() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<LedgerShardKey> due = ledgerEntryRepository.findShardsDueForSnapshot(lastSnapshotRun, snapshotMinEntries);
+
+        for (LedgerShardKey key : due) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    AccountPosition position = position(key.getAccountId(), key.getShard());
+                    balanceSnapshotRepository.saveAndFlush(BalanceSnapshot.builder()
+                            .accountId(key.getAccountId())
+                            .shard(key.getShard())
+                            .sequence(position.getSequence())
+                            .balance(position.getBalance())
+                            .build());
+                    balanceSnapshotRepository.deleteOlderThan(key.getAccountId(), key.getShard(), position.getSequence());
+                });
+            } catch (DataIntegrityViolationException ex) {
+                // Outra instância já gravou o snapshot nesta mesma sequência
+                log.debug("Snapshot da conta {} (shard {}) já existente", key.getAccountId(), key.getShard());
+            }
+        }
+
+        lastSnapshotRun = startedAt;
+        if (!due.isEmpty()) {
+            log.info("Snapshots de saldo gravados para {} shards", due.size());
+        }
+    }
+
+    // Duas consultas por índice: último snapshot do shard e agregado da cauda
+    private AccountPosition position(UUID accountId, int shard) {
+        Optional<BalanceSnapshot> snapshot = balanceSnapshotRepository
+                .findFirstByAccountIdAndShardOrderBySequenceDesc(accountId, shard);
+        long snapshotSequence = snapshot.map(BalanceSnapshot::getSequence).orElse(0L);
+        BigDecimal snapshotBalance = snapshot.map(BalanceSnapshot::getBalance).orElse(BigDecimal.ZERO);
+
+        LedgerTail tail = ledgerEntryRepository.findTail(accountId, shard, snapshotSequence);
+        if (tail == null || tail.getLastSequence() == null) {
+            return new AccountPosition(accountId, shard, snapshotSequence, snapshotBalance);
+        }
+        return new AccountPosition(accountId, shard, tail.getLastSequence(), snapshotBalance.add(tail.getTotal()));
+    }
+
+    // O lançamento ocupa a próxima sequência do shard; o lock garante que ninguém a ocupou antes
+    private AccountPosition post(AccountPosition position, BigDecimal amount, UUID transactionId) {
+        LedgerEntry entry = ledgerEntryRepository.save(LedgerEntry.builder()
+                .accountId(position.getAccountId())
+                .shard(position.getShard())
+                .sequence(position.getSequence() + 1)
+                .amount(amount)
+                .transactionId(transactionId)
+                .build());
+        balanceCache.evictAfterCommit(entry.getAccountId());
+        return new AccountPosition(entry.getAccountId(), entry.getShard(), entry.getSequence(),
+                position.getBalance().add(amount));
+    }
+
+    private Map<UUID, Integer> shardCounts(Collection<UUID> accountIds) {
+        return accountShardRepository.countByAccountIds(accountIds).stream()
+                .collect(Collectors.toMap(AccountShardCount::getAccountId, count -> (int) count.getShards()));
+    }
+
+    private void lockPlainAccounts(List<UUID> accountIds) {
+        List<User> locked = userRepository.findAllByIdWithLock(accountIds);
+        if (locked.size() != accountIds.size()) {
+            throw new BusinessException("Usuário não encontrado");
+        }
+    }
+
+    @lombok.Value
+    public static class AccountPosition {
+        UUID accountId;
+        int shard;
+        long sequence;
+        BigDecimal balance;
+    }
+
+    @lombok.Value
+    public static class BalanceView {
+        BigDecimal balance;
+        long position;
+    }
+
+    // Shards bloqueados (ou lidos, no modo otimista) de uma conta nesta transação, atualizados a cada lançamento
+    public static class LedgerAccount {
+
+        private final UUID accountId;
+        private final Integer creditShard;
+        private final Map<Integer, AccountPosition> positions;
+
+        public LedgerAccount(UUID accountId, Integer creditShard, List<AccountPosition> positions) {
+            this.accountId = accountId;
+            this.creditShard = creditShard;
+            this.positions = positions.stream()
+                    .collect(Collectors.toMap(AccountPosition::getShard, Function.identity(), (a, b) -> b, TreeMap::new));
+        }
+
+        public UUID getAccountId() {
+            return accountId;
+        }
+
+        public Integer getCreditShard() {
+            return creditShard;
+        }
+
+        // Para a conta debitada todos os shards estão bloqueados, então esta soma é o saldo total
+        public BigDecimal getBalance() {
+            return positions.values().stream().map(AccountPosition::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        public boolean covers(BigDecimal amount) {
+            return getBalance().compareTo(amount) >= 0;
+        }
+
+        private void update(AccountPosition position) {
+            positions.put(position.getShard(), position);
+        }
+    }
+}
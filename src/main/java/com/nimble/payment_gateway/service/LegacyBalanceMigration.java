@@ -0,0 +1,97 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Migra bancos anteriores ao razão: o saldo de cada usuário na antiga coluna users.balance vira um
+ * lançamento de abertura (shard 0, sequência 1, sem transação) e a coluna é removida. Sem isso a coluna
+ * NOT NULL que o ddl-auto=update mantém faz os INSERT de usuários falharem e os saldos somem.
+ * Roda antes do servidor web aceitar requisições; em bancos novos a coluna não existe e nada é feito.
+ */
+@Component
+@Slf4j
+public class LegacyBalanceMigration implements SmartInitializingSingleton {
+
+    private static final String FIND_BALANCE_COLUMN =
+            "SELECT COUNT(*) FROM information_schema.columns "
+                    + "WHERE table_schema = CURRENT_SCHEMA AND LOWER(table_name) = 'users' AND LOWER(column_name) = 'balance'";
+
+    // Usuários que já têm lançamentos foram migrados (por esta ou por outra instância)
+    private static final String FIND_UNMIGRATED_BALANCES =
+            "SELECT u.id, u.balance FROM users u WHERE u.balance <> 0 "
+                    + "AND NOT EXISTS (SELECT 1 FROM ledger_entries e WHERE e.account_id = u.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public LegacyBalanceMigration(JdbcTemplate jdbcTemplate,
+                                  LedgerEntryRepository ledgerEntryRepository,
+                                  TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    public int migrate() {
+        if (!hasBalanceColumn()) {
+            return 0;
+        }
+
+        int migrated;
+        try {
+            migrated = transactionTemplate.execute(status -> postOpeningEntries());
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância subindo ao mesmo tempo gravou as mesmas aberturas; a próxima leitura já as encontra
+            log.info("Saldos legados migrados por outra instância: {}", e.getMostSpecificCause().getMessage());
+            migrated = transactionTemplate.execute(status -> postOpeningEntries());
+        }
+
+        dropBalanceColumn();
+        log.info("Migração de users.balance: {} saldos lançados como abertura no razão", migrated);
+        return migrated;
+    }
+
+    private int postOpeningEntries() {
+        List<LedgerEntry> openings = jdbcTemplate.query(FIND_UNMIGRATED_BALANCES, (row, index) -> LedgerEntry.builder()
+                .accountId(row.getObject("id", UUID.class))
+                .shard(0)
+                .sequence(1)
+                .amount(row.getBigDecimal("balance"))
+                .build());
+        ledgerEntryRepository.saveAllAndFlush(openings);
+        return openings.size();
+    }
+
+    private boolean hasBalanceColumn() {
+        Integer columns = jdbcTemplate.queryForObject(FIND_BALANCE_COLUMN, Integer.class);
+        return columns != null && columns > 0;
+    }
+
+    private void dropBalanceColumn() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE users DROP COLUMN balance");
+        } catch (DataAccessException e) {
+            if (hasBalanceColumn()) {
+                throw e;
+            }
+            // Removida por outra instância entre a verificação e o ALTER
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.model.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destino externo dos eventos do outbox (fila, webhook, etc.). Cada bean recebe os lotes em ordem de posição,
+ * dentro da transação do relay: se lançar exceção o lote não é marcado como publicado e será reenviado.
+ * A entrega é pelo menos uma vez; consumidores deduplicam pelo id do evento.
+ */
+public interface OutboxEventSink {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,133 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.model.entity.OutboxEvent;
+import com.nimble.payment_gateway.model.entity.OutboxSequence;
+import com.nimble.payment_gateway.repository.OutboxEventRepository;
+import com.nimble.payment_gateway.repository.OutboxSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publica o outbox em duas etapas, cada uma em sua transação:
+ * 1. numera os eventos ainda sem posição, na ordem em que ficaram visíveis, continuando a última posição
+ *    registrada em outbox_sequence, cujo lock faz uma instância por vez numerar;
+ * 2. entrega os eventos numerados e não publicados aos {@link OutboxEventSink}s e marca o lote como publicado.
+ * Tudo fica na tabela até ser publicado, então eventos pendentes sobrevivem a um restart e são entregues na volta.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSequenceRepository outboxSequenceRepository;
+    private final List<OutboxEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private volatile boolean sequenceReady;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSequenceRepository outboxSequenceRepository,
+                       List<OutboxEventSink> sinks,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.retention:604800000}") long retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSequenceRepository = outboxSequenceRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofMillis(retention);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:100}")
+    public void relay() {
+        ensureSequence();
+
+        int sequenced;
+        do {
+            sequenced = transactionTemplate.execute(status -> sequenceBatch());
+        } while (sequenced == batchSize);
+
+        int published;
+        do {
+            published = transactionTemplate.execute(status -> publishBatch());
+        } while (published == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval:3600000}")
+    public void cleanup() {
+        int deleted = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Eventos publicados removidos do outbox: {}", deleted);
+        }
+    }
+
+    // Banco sem a linha da sequência: começa da maior posição já gravada no outbox
+    private void ensureSequence() {
+        if (sequenceReady) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                if (!outboxSequenceRepository.existsById(OutboxSequence.ID)) {
+                    outboxSequenceRepository.saveAndFlush(new OutboxSequence(OutboxSequence.ID,
+                            outboxEventRepository.findMaxPosition()));
+                }
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Sequência do outbox criada por outra instância");
+        }
+        sequenceReady = true;
+    }
+
+    private int sequenceBatch() {
+        // Lock antes da leitura: um relay concorrente espera aqui e depois não vê os eventos já numerados
+        OutboxSequence sequence = outboxSequenceRepository.lockById(OutboxSequence.ID)
+                .orElseThrow(() -> {
+                    // Linha removida depois da criação (banco recriado): a próxima execução a cria de novo
+                    sequenceReady = false;
+                    return new IllegalStateException("Sequência do outbox não inicializada");
+                });
+        List<OutboxEvent> batch = outboxEventRepository.findUnsequenced(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        long position = sequence.getLastPosition();
+        for (OutboxEvent event : batch) {
+            event.setPosition(++position);
+        }
+        sequence.setLastPosition(position);
+        outboxEventRepository.saveAll(batch);
+        outboxSequenceRepository.save(sequence);
+        return batch.size();
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockUnpublished(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        for (OutboxEventSink sink : sinks) {
+            sink.publish(batch);
+        }
+
+        // Um único UPDATE por lote: as posições pendentes são contíguas e publicadas em ordem
+        long last = batch.get(batch.size() - 1).getPosition();
+        outboxEventRepository.markPublished(batch.get(0).getPosition(), last, LocalDateTime.now());
+        log.debug("Eventos publicados até a posição {}", last);
+        return batch.size();
+    }
+}
@@ -0,0 +1,82 @@
+package com.nimble.payment_gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimble.payment_gateway.enums.OutboxEventType;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.OutboxEvent;
+import com.nimble.payment_gateway.model.entity.Transaction;
+import com.nimble.payment_gateway.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Grava os eventos de cobranças e transações no outbox. Exige uma transação em andamento:
+ * o evento só existe se a mudança de estado que ele descreve for confirmada.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void chargePaid(Charge charge) {
+        recordChargeEvent(OutboxEventType.CHARGE_PAID, charge);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void chargeCancelled(Charge charge) {
+        recordChargeEvent(OutboxEventType.CHARGE_CANCELLED, charge);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transactionCreated(Transaction transaction) {
+        Charge charge = transaction.getCharge();
+        UUID userId = transaction.getUser().getId();
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("transactionId", transaction.getId());
+        payload.put("userId", userId);
+        payload.put("chargeId", charge != null ? charge.getId() : null);
+        payload.put("type", transaction.getType());
+        payload.put("paymentMethod", transaction.getPaymentMethod());
+        payload.put("amount", transaction.getAmount());
+
+        record(OutboxEventType.TRANSACTION_CREATED, transaction.getId(), userId,
+                charge != null ? charge.getOriginator().getId() : null, payload);
+    }
+
+    private void recordChargeEvent(OutboxEventType type, Charge charge) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("chargeId", charge.getId());
+        payload.put("originatorId", charge.getOriginator().getId());
+        payload.put("recipientId", charge.getRecipient().getId());
+        payload.put("amount", charge.getAmount());
+        payload.put("status", charge.getStatus());
+
+        record(type, charge.getId(), charge.getOriginator().getId(), charge.getRecipient().getId(), payload);
+    }
+
+    private void record(OutboxEventType type, UUID aggregateId, UUID userId, UUID counterpartyId,
+                        Map<String, Object> payload) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .type(type)
+                    .aggregateId(aggregateId)
+                    .userId(userId)
+                    .counterpartyId(counterpartyId)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento " + type, e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.exception.BusinessException;
+import com.nimble.payment_gateway.exception.InsufficientBalanceException;
+import com.nimble.payment_gateway.exception.PaymentAuthorizationException;
+import com.nimble.payment_gateway.model.dto.response.PaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Métricas do caminho de pagamento, exportadas também em /actuator/prometheus:
+ * payment.stage (histograma por etapa), payment.transaction.hold (tempo de transação aberta por operação),
+ * payment.requests (resultado por operação e método de pagamento) e payment.concurrency.conflicts
+ * (transações repetidas por conflito no modo otimista).
+ */
+@Component
+public class PaymentMetrics {
+
+    public static final String CHARGE_LOAD = "charge_load";
+    // O lock do pagador é obtido na mesma consulta ordenada que o do recebedor, para evitar deadlock
+    public static final String PAYER_LOCK = "payer_lock";
+    public static final String RECIPIENT_LOCK = "recipient_lock";
+    public static final String AUTHORIZER = "authorizer";
+    public static final String TRANSACTION_INSERT = "transaction_insert";
+    // Inclui o flush dos INSERT/UPDATE em lote, que o Hibernate adia até o commit
+    public static final String COMMIT = "commit";
+
+    private static final String NO_METHOD = "NONE";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> stages = new ConcurrentHashMap<>();
+    private final Map<String, Timer> transactionHolds = new ConcurrentHashMap<>();
+
+    public PaymentMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void record(String stage, long nanos) {
+        stages.computeIfAbsent(stage, name -> Timer.builder("payment.stage")
+                        .description("Duração de cada etapa do caminho de pagamento")
+                        .tag("stage", name)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTransactionHold(String operation, long nanos) {
+        transactionHolds.computeIfAbsent(operation, name -> Timer.builder("payment.transaction.hold")
+                        .description("Tempo em que a transação e a conexão do pool ficam abertas")
+                        .tag("operation", name)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void countConflict(String operation) {
+        Counter.builder("payment.concurrency.conflicts")
+                .description("Transações desfeitas por conflito no modo otimista e repetidas")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public PaymentResponse countOutcome(String operation, PaymentMethod method, Supplier<PaymentResponse> work) {
+        String outcome = "error";
+        try {
+            PaymentResponse response = work.get();
+            outcome = response.getStatus().toLowerCase(Locale.ROOT);
+            return response;
+        } catch (PaymentAuthorizationException e) {
+            outcome = "denied";
+            throw e;
+        } catch (InsufficientBalanceException e) {
+            outcome = "insufficient_balance";
+            throw e;
+        } catch (BusinessException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            Counter.builder("payment.requests")
+                    .description("Operações de pagamento por método e resultado")
+                    .tag("operation", operation)
+                    .tag("method", method != null ? method.name() : NO_METHOD)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -1,25 +1,44 @@
 package com.nimble.payment_gateway.service;
 
+import com.nimble.payment_gateway.enums.ChargeStatus;
 import com.nimble.payment_gateway.enums.PaymentMethod;
 import com.nimble.payment_gateway.enums.TransactionType;
 import com.nimble.payment_gateway.exception.BusinessException;
 import com.nimble.payment_gateway.exception.InsufficientBalanceException;
 import com.nimble.payment_gateway.exception.PaymentAuthorizationException;
+import com.nimble.payment_gateway.exception.ResourceNotFoundException;
 import com.nimble.payment_gateway.model.dto.request.DepositRequest;
 import com.nimble.payment_gateway.model.dto.request.PaymentRequest;
 import com.nimble.payment_gateway.model.dto.response.PaymentResponse;
+import com.nimble.payment_gateway.model.entity.CaptureRequest;
 import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
 import com.nimble.payment_gateway.model.entity.Transaction;
 import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.CaptureRequestRepository;
 import com.nimble.payment_gateway.repository.ChargeRepository;
 import com.nimble.payment_gateway.repository.TransactionRepository;
 import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.LedgerService.LedgerAccount;
+import com.nimble.payment_gateway.util.LogMarkers;
+import com.nimble.payment_gateway.util.UuidV7;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -29,126 +48,247 @@ public class PaymentService {
     private final ChargeRepository chargeRepository;
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
+    private final CaptureRequestRepository captureRequestRepository;
     private final ChargeService chargeService;
     private final AuthorizerService authorizerService;
+    private final LedgerService ledgerService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentMetrics paymentMetrics;
+    private final AccountContention accountContention;
+    private final ChargeSummaryService chargeSummaryService;
+    private final IdempotencyService idempotencyService;
 
-    @Transactional
-    public PaymentResponse payCharge(UUID payerId, PaymentRequest request) {
-        log.info("Processando pagamento da cobrança: {}", request.getChargeId());
+    @Value("${capture.async.enabled:false}")
+    private boolean asyncCapture;
 
-        Charge charge = chargeService.findById(request.getChargeId());
-        User payer = userRepository.findByIdWithLock(payerId)
-                .orElseThrow(() -> new BusinessException("Usuário pagador não encontrado"));
+    @Value("${payment.concurrency.max-attempts:5}")
+    private int maxAttempts;
 
-        validateChargePayment(charge, payer);
+    @Value("${payment.concurrency.backoff:5}")
+    private long backoff;
 
-        if (request.getPaymentMethod() == PaymentMethod.BALANCE) {
-            return payWithBalance(charge, payer);
-        } else {
-            return payWithCreditCard(charge, payer, request.getCreditCard());
-        }
+    public PaymentResponse payCharge(UUID payerId, PaymentRequest request) {
+        log.debug("Processando pagamento da cobrança: {}", request.getChargeId());
+        return paymentMetrics.countOutcome("pay_charge", request.getPaymentMethod(), () -> processPayment(payerId, request));
     }
 
-    @Transactional
     public PaymentResponse deposit(UUID userId, DepositRequest request) {
-        log.info("Processando depósito de {} para usuário: {}", request.getAmount(), userId);
+        log.debug("Processando depósito de {} para usuário: {}", request.getAmount(), userId);
+        return paymentMetrics.countOutcome("deposit", null, () -> processDeposit(userId, request));
+    }
 
-        if (!authorizerService.authorize()) {
-            throw new PaymentAuthorizationException("Depósito não autorizado pelo sistema externo");
+    public CaptureRequest completeCapture(UUID captureId, boolean authorized) {
+        return inShortTransaction("capture", () -> {
+            CaptureRequest capture = captureRequestRepository.findById(captureId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Captura não encontrada"));
+            if (capture.getStatus().isFinal()) {
+                return capture;
+            }
+
+            Charge charge = loadCharge(capture.getChargeId());
+            if (authorized && charge.isAuthorizing()) {
+                capture.markAsApproved(payWithCreditCard(charge).getTransactionId());
+            } else {
+                if (authorized) {
+                    // Não deve acontecer: a cobrança só sai de AUTHORIZING por aqui. Fica registrado para estorno manual
+                    log.error("Captura {} aprovada no autorizador, mas a cobrança {} está {}; estorno manual necessário",
+                            captureId, charge.getId(), charge.getStatus());
+                }
+                // Negada: a cobrança volta a ficar pendente e pode ser paga novamente
+                if (charge.isAuthorizing()) {
+                    changeStatus(charge, Charge::markAsPending);
+                }
+                capture.markAsDenied();
+            }
+
+            log.info(LogMarkers.SUCCESS, "Captura {} finalizada: {}", captureId, capture.getStatus());
+            return captureRequestRepository.save(capture);
+        });
+    }
+
+    // Tentativas esgotadas. Sem aprovação gravada o cartão não foi cobrado e a cobrança volta a ficar pendente;
+    // aprovada e nunca lançada, fica em AUTHORIZING até o estorno manual
+    public CaptureRequest failCapture(UUID captureId) {
+        return inShortTransaction("capture", () -> {
+            CaptureRequest capture = captureRequestRepository.findById(captureId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Captura não encontrada"));
+            if (capture.getStatus().isFinal()) {
+                return capture;
+            }
+
+            Charge charge = loadCharge(capture.getChargeId());
+            if (Boolean.TRUE.equals(capture.getAuthorized())) {
+                log.error("Captura {} aprovada no autorizador e não finalizada após {} tentativas; estorno manual necessário",
+                        captureId, capture.getAttempts());
+            } else if (charge.isAuthorizing()) {
+                changeStatus(charge, Charge::markAsPending);
+            }
+            capture.markAsFailed();
+
+            log.warn("Captura {} falhou após {} tentativas", captureId, capture.getAttempts());
+            return captureRequestRepository.save(capture);
+        });
+    }
+
+    public void cancelPaidCharge(UUID chargeId, UUID userId) {
+        log.info("Cancelando cobrança paga: {}", chargeId);
+
+        validateRefund(loadCharge(chargeId), userId);
+
+        List<Transaction> transactions = transactionRepository.findByChargeId(chargeId);
+        if (transactions.isEmpty()) {
+            throw new BusinessException("Transações não encontradas para esta cobrança");
         }
 
-        User user = userRepository.findByIdWithLock(userId)
-                .orElseThrow(() -> new BusinessException("Usuário não encontrado"));
+        PaymentMethod paymentMethod = transactions.get(0).getPaymentMethod();
 
-        user.addBalance(request.getAmount());
-        userRepository.save(user);
+        // O estorno no cartão é autorizado antes de abrir a transação
+        if (paymentMethod != PaymentMethod.BALANCE && !authorize()) {
+            throw new PaymentAuthorizationException("Estorno não autorizado pelo sistema externo");
+        }
 
-        Transaction transaction = Transaction.builder()
-                .user(user)
-                .amount(request.getAmount())
-                .type(TransactionType.DEPOSIT)
-                .paymentMethod(null)
-                .description("Depósito de saldo")
-                .build();
+        inShortTransaction("refund", () -> {
+            Charge charge = loadCharge(chargeId);
+            validateRefund(charge, userId);
 
-        transaction = transactionRepository.save(transaction);
+            if (paymentMethod == PaymentMethod.BALANCE) {
+                refundBalancePayment(charge);
+            } else {
+                refundCreditCardPayment(charge);
+            }
 
-        log.info("Depósito realizado com sucesso: {}", transaction.getId());
+            changeStatus(charge, Charge::markAsCancelled);
+            outboxService.chargeCancelled(charge);
+            return null;
+        });
 
-        return PaymentResponse.builder()
-                .transactionId(transaction.getId())
-                .amount(request.getAmount())
-                .paymentMethod(null)
-                .status("APPROVED")
-                .message("Depósito realizado com sucesso")
-                .transactionDate(transaction.getCreatedAt())
-                .build();
+        log.info("Cobrança cancelada e estornada: {}", chargeId);
     }
 
-    @Transactional
-    public void cancelPaidCharge(UUID chargeId, UUID userId) {
-        log.info("Cancelando cobrança paga: {}", chargeId);
+    private PaymentResponse processPayment(UUID payerId, PaymentRequest request) {
+        if (request.getPaymentMethod() == PaymentMethod.BALANCE) {
+            return inPaymentTransaction("pay_charge", () ->
+                    payWithBalance(loadPayableCharge(request.getChargeId(), payerId), payerId));
+        }
 
-        Charge charge = chargeService.findById(chargeId);
+        validateCreditCard(request.getCreditCard());
 
-        if (!charge.getOriginator().getId().equals(userId)) {
-            throw new BusinessException("Apenas o originador pode cancelar a cobrança");
+        if (asyncCapture) {
+            // Apenas enfileira: o CaptureService consulta o autorizador e finaliza fora da requisição
+            return inPaymentTransaction("enqueue_capture", () ->
+                    enqueueCapture(loadPayableCharge(request.getChargeId(), payerId), payerId));
         }
 
-        if (!charge.isPaid()) {
-            throw new BusinessException("Apenas cobranças pagas podem ser estornadas");
+        // Fase 1: valida e consulta o autorizador sem segurar conexão nem lock de linha
+        loadPayableCharge(request.getChargeId(), payerId);
+
+        if (!authorize()) {
+            throw new PaymentAuthorizationException("Pagamento não autorizado");
         }
 
-        java.util.List<Transaction> transactions = transactionRepository.findByChargeId(chargeId);
-        if (transactions.isEmpty()) {
-            throw new BusinessException("Transações não encontradas para esta cobrança");
+        // Fase 2: transação curta que apenas bloqueia, altera e registra
+        return inPaymentTransaction("pay_charge", () ->
+                payWithCreditCard(loadPayableCharge(request.getChargeId(), payerId)));
+    }
+
+    private PaymentResponse processDeposit(UUID userId, DepositRequest request) {
+        if (!authorize()) {
+            throw new PaymentAuthorizationException("Depósito não autorizado pelo sistema externo");
         }
 
-        Transaction paymentTransaction = transactions.get(0);
+        return inPaymentTransaction("deposit", () -> {
+            // Depósitos não têm cobrança: a chave de roteamento é aleatória para espalhar entre os shards
+            LedgerAccount account = lockAccounts(null, userId, UuidV7.randomUuid()).get(userId);
+            User user = userRepository.getReferenceById(userId);
+
+            Transaction transaction = Transaction.builder()
+                    .user(user)
+                    .amount(request.getAmount())
+                    .type(TransactionType.DEPOSIT)
+                    .paymentMethod(null)
+                    .description("Depósito de saldo")
+                    .build();
+
+            transaction = saveTransaction(transaction);
+            ledgerService.credit(account, request.getAmount(), transaction.getId());
+            outboxService.transactionCreated(transaction);
+
+            log.info(LogMarkers.SUCCESS, "Depósito realizado com sucesso: {}", transaction.getId());
+
+            return PaymentResponse.builder()
+                    .transactionId(transaction.getId())
+                    .amount(request.getAmount())
+                    .paymentMethod(null)
+                    .status("APPROVED")
+                    .message("Depósito realizado com sucesso")
+                    .transactionDate(transaction.getCreatedAt())
+                    .build();
+        });
+    }
+
+    private Charge loadCharge(UUID chargeId) {
+        return paymentMetrics.time(PaymentMetrics.CHARGE_LOAD, () -> chargeService.findById(chargeId));
+    }
+
+    private boolean authorize() {
+        return paymentMetrics.time(PaymentMetrics.AUTHORIZER, authorizerService::authorize);
+    }
+
+    private Map<UUID, LedgerAccount> lockAccounts(UUID debitId, UUID creditId, UUID routingKey) {
+        String stage = debitId != null ? PaymentMetrics.PAYER_LOCK : PaymentMetrics.RECIPIENT_LOCK;
+        return paymentMetrics.time(stage, () -> ledgerService.lock(debitId, creditId, routingKey));
+    }
+
+    private Transaction saveTransaction(Transaction transaction) {
+        return paymentMetrics.time(PaymentMetrics.TRANSACTION_INSERT, () -> transactionRepository.save(transaction));
+    }
 
-        if (paymentTransaction.getPaymentMethod() == PaymentMethod.BALANCE) {
-            refundBalancePayment(charge);
-        } else {
-            refundCreditCardPayment(charge);
+    private Charge loadPayableCharge(UUID chargeId, UUID payerId) {
+        Charge charge = loadCharge(chargeId);
+        validateChargePayment(charge, payerId);
+        return charge;
+    }
+
+    private void validateCreditCard(PaymentRequest.CreditCardData creditCard) {
+        if (creditCard == null || creditCard.getCardNumber() == null) {
+            throw new BusinessException("Dados do cartão de crédito são obrigatórios");
         }
+    }
 
-        charge.markAsCancelled();
-        chargeRepository.save(charge);
+    private void validateRefund(Charge charge, UUID userId) {
+        if (!charge.getOriginator().getId().equals(userId)) {
+            throw new BusinessException("Apenas o originador pode cancelar a cobrança");
+        }
 
-        log.info("Cobrança cancelada e estornada: {}", chargeId);
+        if (!charge.isPaid()) {
+            throw new BusinessException("Apenas cobranças pagas podem ser estornadas");
+        }
     }
 
-    private void validateChargePayment(Charge charge, User payer) {
+    private void validateChargePayment(Charge charge, UUID payerId) {
         if (!charge.isPending()) {
             throw new BusinessException("Esta cobrança não está pendente");
         }
 
-        if (!charge.getRecipient().getId().equals(payer.getId())) {
+        if (!charge.getRecipient().getId().equals(payerId)) {
             throw new BusinessException("Você não é o destinatário desta cobrança");
         }
     }
 
-    private PaymentResponse payWithBalance(Charge charge, User payer) {
-        log.info("Pagando cobrança com saldo");
+    private PaymentResponse payWithBalance(Charge charge, UUID payerId) {
+        UUID recipientId = charge.getOriginator().getId();
+        Map<UUID, LedgerAccount> accounts = lockAccounts(payerId, recipientId, charge.getId());
+        LedgerAccount payer = accounts.get(payerId);
 
-        if (!payer.hasEnoughBalance(charge.getAmount())) {
+        if (!payer.covers(charge.getAmount())) {
             throw new InsufficientBalanceException("Saldo insuficiente para realizar o pagamento");
         }
 
-        User recipient = userRepository.findByIdWithLock(charge.getOriginator().getId())
-                .orElseThrow(() -> new BusinessException("Destinatário não encontrado"));
-
-        payer.subtractBalance(charge.getAmount());
-        recipient.addBalance(charge.getAmount());
-
-        userRepository.save(payer);
-        userRepository.save(recipient);
-
-        charge.markAsPaid();
-        chargeRepository.save(charge);
+        changeStatus(charge, Charge::markAsPaid);
 
         Transaction transaction = Transaction.builder()
-                .user(payer)
+                .user(charge.getRecipient())
                 .charge(charge)
                 .amount(charge.getAmount())
                 .type(TransactionType.PAYMENT)
@@ -156,9 +296,13 @@ public class PaymentService {
                 .description("Pagamento de cobrança com saldo")
                 .build();
 
-        transaction = transactionRepository.save(transaction);
+        transaction = saveTransaction(transaction);
+        ledgerService.debit(payer, charge.getAmount(), transaction.getId());
+        ledgerService.credit(accounts.get(recipientId), charge.getAmount(), transaction.getId());
+        outboxService.chargePaid(charge);
+        outboxService.transactionCreated(transaction);
 
-        log.info("Pagamento com saldo realizado com sucesso");
+        log.info(LogMarkers.SUCCESS, "Pagamento com saldo realizado com sucesso: {}", transaction.getId());
 
         return PaymentResponse.builder()
                 .transactionId(transaction.getId())
@@ -171,29 +315,15 @@ public class PaymentService {
                 .build();
     }
 
-    private PaymentResponse payWithCreditCard(Charge charge, User payer,
-                                              PaymentRequest.CreditCardData creditCard) {
-        log.info("Pagando cobrança com cartão de crédito");
+    private PaymentResponse payWithCreditCard(Charge charge) {
+        // Em contas quentes só o shard escolhido pela cobrança é bloqueado
+        UUID recipientId = charge.getOriginator().getId();
+        LedgerAccount recipient = lockAccounts(null, recipientId, charge.getId()).get(recipientId);
 
-        if (creditCard == null || creditCard.getCardNumber() == null) {
-            throw new BusinessException("Dados do cartão de crédito são obrigatórios");
-        }
-
-        if (!authorizerService.authorize()) {
-            throw new PaymentAuthorizationException("Pagamento não autorizado");
-        }
-
-        User recipient = userRepository.findByIdWithLock(charge.getOriginator().getId())
-                .orElseThrow(() -> new BusinessException("Destinatário não encontrado"));
-
-        recipient.addBalance(charge.getAmount());
-        userRepository.save(recipient);
-
-        charge.markAsPaid();
-        chargeRepository.save(charge);
+        changeStatus(charge, Charge::markAsPaid);
 
         Transaction transaction = Transaction.builder()
-                .user(payer)
+                .user(charge.getRecipient())
                 .charge(charge)
                 .amount(charge.getAmount())
                 .type(TransactionType.PAYMENT)
@@ -201,9 +331,12 @@ public class PaymentService {
                 .description("Pagamento de cobrança com cartão de crédito")
                 .build();
 
-        transaction = transactionRepository.save(transaction);
+        transaction = saveTransaction(transaction);
+        ledgerService.credit(recipient, charge.getAmount(), transaction.getId());
+        outboxService.chargePaid(charge);
+        outboxService.transactionCreated(transaction);
 
-        log.info("Pagamento com cartão realizado com sucesso");
+        log.info(LogMarkers.SUCCESS, "Pagamento com cartão realizado com sucesso: {}", transaction.getId());
 
         return PaymentResponse.builder()
                 .transactionId(transaction.getId())
@@ -216,24 +349,47 @@ public class PaymentService {
                 .build();
     }
 
+    // Toda transição de status passa por aqui para que o resumo por usuário acompanhe na mesma transação
+    private void changeStatus(Charge charge, Consumer<Charge> transition) {
+        ChargeStatus previous = charge.getStatus();
+        transition.accept(charge);
+        chargeRepository.save(charge);
+        chargeSummaryService.statusChanged(charge, previous);
+    }
+
+    private PaymentResponse enqueueCapture(Charge charge, UUID payerId) {
+        changeStatus(charge, Charge::markAsAuthorizing);
+
+        CaptureRequest capture = captureRequestRepository.save(CaptureRequest.builder()
+                .chargeId(charge.getId())
+                .payerId(payerId)
+                .availableAt(LocalDateTime.now())
+                .build());
+
+        log.info(LogMarkers.SUCCESS, "Captura {} enfileirada para a cobrança {}", capture.getId(), charge.getId());
+
+        return PaymentResponse.builder()
+                .captureId(capture.getId())
+                .chargeId(charge.getId())
+                .amount(charge.getAmount())
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .status(ChargeStatus.AUTHORIZING.name())
+                .message("Pagamento em autorização")
+                .build();
+    }
+
     private void refundBalancePayment(Charge charge) {
-        User payer = userRepository.findByIdWithLock(charge.getRecipient().getId())
-                .orElseThrow(() -> new BusinessException("Pagador não encontrado"));
-        User recipient = userRepository.findByIdWithLock(charge.getOriginator().getId())
-                .orElseThrow(() -> new BusinessException("Destinatário não encontrado"));
+        UUID payerId = charge.getRecipient().getId();
+        UUID recipientId = charge.getOriginator().getId();
+        Map<UUID, LedgerAccount> accounts = lockAccounts(recipientId, payerId, charge.getId());
+        LedgerAccount recipient = accounts.get(recipientId);
 
-        if (!recipient.hasEnoughBalance(charge.getAmount())) {
+        if (!recipient.covers(charge.getAmount())) {
             throw new BusinessException("Destinatário não possui saldo suficiente para estorno");
         }
 
-        recipient.subtractBalance(charge.getAmount());
-        payer.addBalance(charge.getAmount());
-
-        userRepository.save(payer);
-        userRepository.save(recipient);
-
         Transaction refundTransaction = Transaction.builder()
-                .user(payer)
+                .user(charge.getRecipient())
                 .charge(charge)
                 .amount(charge.getAmount())
                 .type(TransactionType.REFUND)
@@ -241,24 +397,20 @@ public class PaymentService {
                 .description("Estorno de cobrança cancelada")
                 .build();
 
-        transactionRepository.save(refundTransaction);
+        refundTransaction = saveTransaction(refundTransaction);
+        ledgerService.debit(recipient, charge.getAmount(), refundTransaction.getId());
+        ledgerService.credit(accounts.get(payerId), charge.getAmount(), refundTransaction.getId());
+        outboxService.transactionCreated(refundTransaction);
     }
 
     private void refundCreditCardPayment(Charge charge) {
-        if (!authorizerService.authorize()) {
-            throw new PaymentAuthorizationException("Estorno não autorizado pelo sistema externo");
-        }
-
-        User recipient = userRepository.findByIdWithLock(charge.getOriginator().getId())
-                .orElseThrow(() -> new BusinessException("Destinatário não encontrado"));
+        UUID recipientId = charge.getOriginator().getId();
+        LedgerAccount recipient = lockAccounts(recipientId, null, charge.getId()).get(recipientId);
 
-        if (!recipient.hasEnoughBalance(charge.getAmount())) {
+        if (!recipient.covers(charge.getAmount())) {
             throw new BusinessException("Destinatário não possui saldo suficiente para estorno");
         }
 
-        recipient.subtractBalance(charge.getAmount());
-        userRepository.save(recipient);
-
         Transaction refundTransaction = Transaction.builder()
                 .user(charge.getRecipient())
                 .charge(charge)
@@ -268,6 +420,72 @@ public class PaymentService {
                 .description("Estorno de cobrança cancelada via cartão")
                 .build();
 
-        transactionRepository.save(refundTransaction);
+        refundTransaction = saveTransaction(refundTransaction);
+        ledgerService.debit(recipient, charge.getAmount(), refundTransaction.getId());
+        outboxService.transactionCreated(refundTransaction);
+    }
+
+    // A resposta da Idempotency-Key é gravada na mesma transação do pagamento
+    private PaymentResponse inPaymentTransaction(String operation, Supplier<PaymentResponse> work) {
+        return inShortTransaction(operation, () -> idempotencyService.recordResponse(work.get()));
+    }
+
+    // No modo otimista um conflito (sequência do razão já ocupada ou versão da cobrança alterada) desfaz a
+    // transação inteira, que é repetida do zero: a cobrança é recarregada e revalidada a cada tentativa
+    private <T> T inShortTransaction(String operation, Supplier<T> work) {
+        int attempts = accountContention.isOptimistic() ? maxAttempts : 1;
+        for (int attempt = 1; ; attempt++) {
+            boolean conflicted = false;
+            try {
+                return inTransaction(operation, work);
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                conflicted = isConflict(e);
+                if (!conflicted || attempt >= attempts) {
+                    throw e;
+                }
+            } finally {
+                accountContention.finishAttempt(conflicted);
+            }
+            paymentMetrics.countConflict(operation);
+            sleepBeforeRetry(attempt);
+        }
+    }
+
+    private static boolean isConflict(DataAccessException e) {
+        if (e instanceof ConcurrencyFailureException) {
+            return true;
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(LedgerEntry.SEQUENCE_CONSTRAINT);
+    }
+
+    // Backoff exponencial com jitter, para que as transações que colidiram não colidam de novo
+    private void sleepBeforeRetry(int attempt) {
+        long ceiling = backoff << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Mede quanto tempo a transação (e a conexão do pool) fica aberta em cada operação, e quanto disso é commit
+    // A espera por conexão do pool fica de fora: o Hikari já a publica em hikaricp.connections.acquire
+    private <T> T inTransaction(String operation, Supplier<T> work) {
+        long[] marks = new long[2];
+        try {
+            T result = transactionTemplate.execute(status -> {
+                marks[0] = System.nanoTime();
+                T value = work.get();
+                marks[1] = System.nanoTime();
+                return value;
+            });
+            paymentMetrics.record(PaymentMetrics.COMMIT, System.nanoTime() - marks[1]);
+            return result;
+        } finally {
+            if (marks[0] != 0) {
+                paymentMetrics.recordTransactionHold(operation, System.nanoTime() - marks[0]);
+            }
+        }
     }
-}
\ No newline at end of file
+}
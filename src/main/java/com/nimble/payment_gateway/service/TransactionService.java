@@ -0,0 +1,82 @@
+package com.nimble.payment_gateway.service;
+
+import com.nimble.payment_gateway.enums.TransactionType;
+import com.nimble.payment_gateway.exception.BusinessException;
+import com.nimble.payment_gateway.model.dto.response.CursorPageResponse;
+import com.nimble.payment_gateway.model.dto.response.TransactionResponse;
+import com.nimble.payment_gateway.model.projection.TransactionProjection;
+import com.nimble.payment_gateway.repository.TransactionRepository;
+import com.nimble.payment_gateway.util.CursorCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionService {
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TransactionRepository transactionRepository;
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TransactionResponse> getStatement(UUID userId, TransactionType type,
+                                                                LocalDateTime from, LocalDateTime to,
+                                                                String cursor, Integer limit) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException("A data inicial deve ser anterior à data final");
+        }
+
+        int pageSize = CursorCodec.pageSize(limit);
+        CursorCodec.Cursor position = startPosition(CursorCodec.decode(cursor), to);
+        LocalDateTime lowerBound = from != null ? from : EARLIEST;
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<TransactionProjection> rows = type != null
+                ? transactionRepository.findStatementPageByType(userId, type, lowerBound,
+                        position.getCreatedAt(), position.getId(), fetch)
+                : transactionRepository.findStatementPage(userId, lowerBound,
+                        position.getCreatedAt(), position.getId(), fetch);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<TransactionProjection> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            TransactionProjection last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+
+        return CursorPageResponse.<TransactionResponse>builder()
+                .items(page.stream().map(this::mapToResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // A data final vira a posição inicial do cursor; em páginas seguintes vale o que for mais antigo
+    private CursorCodec.Cursor startPosition(CursorCodec.Cursor cursor, LocalDateTime to) {
+        if (to == null || !cursor.getCreatedAt().isAfter(to)) {
+            return cursor;
+        }
+        return new CursorCodec.Cursor(to, new UUID(-1L, -1L));
+    }
+
+    private TransactionResponse mapToResponse(TransactionProjection row) {
+        return TransactionResponse.builder()
+                .id(row.getId())
+                .chargeId(row.getChargeId())
+                .amount(row.getAmount())
+                .type(row.getType())
+                .paymentMethod(row.getPaymentMethod())
+                .description(row.getDescription())
+                .createdAt(row.getCreatedAt())
+                .build();
+    }
+}
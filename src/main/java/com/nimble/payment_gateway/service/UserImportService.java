@@ -0,0 +1,352 @@
+package com.nimble.payment_gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimble.payment_gateway.enums.ImportFormat;
+import com.nimble.payment_gateway.enums.ImportStatus;
+import com.nimble.payment_gateway.exception.BusinessException;
+import com.nimble.payment_gateway.exception.ResourceNotFoundException;
+import com.nimble.payment_gateway.model.dto.request.UserRegistrationRequest;
+import com.nimble.payment_gateway.model.dto.response.UserImportResponse;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.model.entity.UserImportJob;
+import com.nimble.payment_gateway.repository.UserImportJobRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.util.CpfValidator;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Importação em massa de usuários a partir de NDJSON ou CSV.
+ * O arquivo é lido em blocos de tamanho fixo (memória limitada) e cada bloco passa por:
+ * validação em paralelo, deduplicação com duas consultas IN, hash das senhas num pool limitado
+ * e inserção em lote junto com o checkpoint. A leitura só avança quando o bloco anterior foi gravado.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final String DEFAULT_ROLE = "USER";
+    private static final List<String> CSV_COLUMNS = List.of("name", "cpf", "email", "password");
+
+    private final UserRepository userRepository;
+    private final UserImportJobRepository userImportJobRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration lease;
+    private final ExecutorService hashExecutor;
+
+    public UserImportService(UserRepository userRepository,
+                             UserImportJobRepository userImportJobRepository,
+                             PasswordEncoder passwordEncoder,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${user-import.batch-size:500}") int batchSize,
+                             @Value("${user-import.hash-threads:0}") int hashThreads,
+                             @Value("${user-import.lease-seconds:300}") long leaseSeconds) {
+        this.userRepository = userRepository;
+        this.userImportJobRepository = userImportJobRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        // BCrypt é CPU-bound: o pool fica limitado ao número de núcleos para não disputar CPU com as requisições
+        this.hashExecutor = Executors.newFixedThreadPool(
+                hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    public UserImportResponse importUsers(InputStream input, ImportFormat format, UUID jobId) {
+        UserImportJob job = jobId != null ? resumeJob(jobId, format) : startJob(format);
+        if (job.getStatus() == ImportStatus.COMPLETED) {
+            return mapToResponse(job, 0);
+        }
+
+        long resumeAfter = job.getLastLine();
+        long startedAt = System.nanoTime();
+        long processed = 0;
+        log.info("Importação {} iniciada a partir da linha {}", job.getId(), resumeAfter + 1);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = format == ImportFormat.CSV ? readCsvHeader(reader) : null;
+            long lineNumber = format == ImportFormat.CSV ? 1 : 0;
+            List<ImportRow> chunk = new ArrayList<>(batchSize);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= resumeAfter || line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new ImportRow(lineNumber, line));
+                if (chunk.size() == batchSize) {
+                    job = processChunk(job, chunk, columns);
+                    processed += chunk.size();
+                    chunk.clear();
+                    logProgress(job, processed, startedAt);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                job = processChunk(job, chunk, columns);
+                processed += chunk.size();
+            }
+
+            job.setLastLine(Math.max(job.getLastLine(), lineNumber));
+            job.setStatus(ImportStatus.COMPLETED);
+            job = userImportJobRepository.save(job);
+            log.info("Importação {} concluída: {} importados, {} ignorados, {} rejeitados",
+                    job.getId(), job.getImported(), job.getSkipped(), job.getFailed());
+        } catch (IOException | RuntimeException e) {
+            // O checkpoint aponta para o último bloco gravado; a importação pode ser retomada pelo jobId
+            log.error("Importação {} interrompida na linha {}", job.getId(), job.getLastLine(), e);
+            job.setStatus(ImportStatus.FAILED);
+            job.setLastError(truncate(e.getMessage()));
+            job = userImportJobRepository.save(job);
+        }
+
+        return mapToResponse(job, rowsPerSecond(processed, startedAt));
+    }
+
+    public UserImportResponse getImportJob(UUID jobId) {
+        return mapToResponse(findJob(jobId), 0);
+    }
+
+    private UserImportJob processChunk(UserImportJob job, List<ImportRow> rows, Map<String, Integer> columns) {
+        List<ParsedRow> parsed = rows.parallelStream()
+                .map(row -> parse(row, columns))
+                .toList();
+
+        Set<String> cpfs = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (ParsedRow row : parsed) {
+            if (row.getError() == null) {
+                cpfs.add(row.getRequest().getCpf());
+                emails.add(row.getRequest().getEmail());
+            }
+        }
+        Set<String> existingCpfs = cpfs.isEmpty() ? Set.of() : userRepository.findExistingCpfs(cpfs);
+        Set<String> existingEmails = emails.isEmpty() ? Set.of() : userRepository.findExistingEmails(emails);
+
+        List<UserRegistrationRequest> accepted = new ArrayList<>(parsed.size());
+        Set<String> seenCpfs = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        long failed = 0;
+        long skipped = 0;
+        String lastError = null;
+
+        for (ParsedRow row : parsed) {
+            if (row.getError() != null) {
+                failed++;
+                lastError = "Linha " + row.getLineNumber() + ": " + row.getError();
+                continue;
+            }
+            UserRegistrationRequest request = row.getRequest();
+            if (existingCpfs.contains(request.getCpf()) || existingEmails.contains(request.getEmail())
+                    || !seenCpfs.add(request.getCpf()) || !seenEmails.add(request.getEmail())) {
+                skipped++;
+                continue;
+            }
+            accepted.add(request);
+        }
+
+        List<User> users = hashPasswords(accepted);
+        long lastLine = rows.get(rows.size() - 1).getLineNumber();
+        long chunkFailed = failed;
+        long chunkSkipped = skipped;
+        String chunkError = lastError;
+
+        // Usuários e checkpoint no mesmo commit: se o bloco falhar, a retomada começa por ele
+        return transactionTemplate.execute(status -> {
+            userRepository.saveAll(users);
+            UserImportJob checkpoint = findJob(job.getId());
+            checkpoint.setLastLine(lastLine);
+            checkpoint.setImported(checkpoint.getImported() + users.size());
+            checkpoint.setSkipped(checkpoint.getSkipped() + chunkSkipped);
+            checkpoint.setFailed(checkpoint.getFailed() + chunkFailed);
+            checkpoint.setLeaseUntil(LocalDateTime.now().plus(lease));
+            if (chunkError != null) {
+                checkpoint.setLastError(truncate(chunkError));
+            }
+            return userImportJobRepository.save(checkpoint);
+        });
+    }
+
+    private ParsedRow parse(ImportRow row, Map<String, Integer> columns) {
+        UserRegistrationRequest request;
+        try {
+            request = columns != null
+                    ? parseCsv(row.getLine(), columns)
+                    : objectMapper.readValue(row.getLine(), UserRegistrationRequest.class);
+        } catch (IOException | IllegalArgumentException e) {
+            return new ParsedRow(row.getLineNumber(), null, "formato inválido");
+        }
+
+        Set<ConstraintViolation<UserRegistrationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return new ParsedRow(row.getLineNumber(), null, violations.iterator().next().getMessage());
+        }
+        if (!CpfValidator.isValid(request.getCpf())) {
+            return new ParsedRow(row.getLineNumber(), null, "CPF inválido");
+        }
+        return new ParsedRow(row.getLineNumber(), request, null);
+    }
+
+    private List<User> hashPasswords(List<UserRegistrationRequest> requests) {
+        List<Future<String>> hashes = new ArrayList<>(requests.size());
+        for (UserRegistrationRequest request : requests) {
+            hashes.add(hashExecutor.submit(() -> passwordEncoder.encode(request.getPassword())));
+        }
+
+        List<User> users = new ArrayList<>(requests.size());
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                UserRegistrationRequest request = requests.get(i);
+                users.add(User.builder()
+                        .name(request.getName())
+                        .cpf(request.getCpf())
+                        .email(request.getEmail())
+                        .password(hashes.get(i).get())
+                        .role(DEFAULT_ROLE)
+                        .build());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            hashes.forEach(hash -> hash.cancel(true));
+            throw new IllegalStateException("Importação interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erro ao gerar hash de senha", e.getCause());
+        }
+        return users;
+    }
+
+    // CSV simples, sem aspas: cabeçalho obrigatório com as colunas name, cpf, email e password em qualquer ordem
+    private Map<String, Integer> readCsvHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new BusinessException("Arquivo CSV vazio");
+        }
+        String[] names = header.split(",", -1);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+            throw new BusinessException("Cabeçalho CSV deve conter as colunas " + String.join(",", CSV_COLUMNS));
+        }
+        return columns;
+    }
+
+    private UserRegistrationRequest parseCsv(String line, Map<String, Integer> columns) {
+        String[] values = line.split(",", -1);
+        if (values.length < columns.size()) {
+            throw new IllegalArgumentException("Quantidade de colunas inválida");
+        }
+        return UserRegistrationRequest.builder()
+                .name(values[columns.get("name")].trim())
+                .cpf(values[columns.get("cpf")].trim())
+                .email(values[columns.get("email")].trim())
+                .password(values[columns.get("password")])
+                .build();
+    }
+
+    private UserImportJob startJob(ImportFormat format) {
+        return userImportJobRepository.save(UserImportJob.builder()
+                .format(format)
+                .status(ImportStatus.RUNNING)
+                .leaseUntil(LocalDateTime.now().plus(lease))
+                .build());
+    }
+
+    private UserImportJob resumeJob(UUID jobId, ImportFormat format) {
+        UserImportJob job = findJob(jobId);
+        if (job.getFormat() != format) {
+            throw new BusinessException("Formato diferente do utilizado na importação original");
+        }
+        if (job.getStatus() == ImportStatus.COMPLETED) {
+            return job;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status ->
+                userImportJobRepository.claim(jobId, format, now, now.plus(lease)));
+        if (claimed == null || claimed == 0) {
+            throw new BusinessException("Importação já está em andamento em outra requisição");
+        }
+        return findJob(jobId);
+    }
+
+    private UserImportJob findJob(UUID jobId) {
+        return userImportJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Importação não encontrada"));
+    }
+
+    private void logProgress(UserImportJob job, long processed, long startedAt) {
+        log.info("Importação {}: {} linhas processadas ({} linhas/s), checkpoint na linha {}",
+                job.getId(), processed, String.format("%.1f", rowsPerSecond(processed, startedAt)), job.getLastLine());
+    }
+
+    private double rowsPerSecond(long processed, long startedAt) {
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        return seconds > 0 ? processed / seconds : 0;
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private UserImportResponse mapToResponse(UserImportJob job, double rowsPerSecond) {
+        return UserImportResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .lastLine(job.getLastLine())
+                .imported(job.getImported())
+                .skipped(job.getSkipped())
+                .failed(job.getFailed())
+                .rowsPerSecond(rowsPerSecond)
+                .lastError(job.getLastError())
+                .build();
+    }
+
+    @lombok.Value
+    private static class ImportRow {
+        long lineNumber;
+        String line;
+    }
+
+    @lombok.Value
+    private static class ParsedRow {
+        long lineNumber;
+        UserRegistrationRequest request;
+        String error;
+    }
+}
@@ -7,6 +7,7 @@ import com.nimble.payment_gateway.model.dto.request.UserRegistrationRequest;
 import com.nimble.payment_gateway.model.dto.response.UserResponse;
 import com.nimble.payment_gateway.model.entity.User;
 import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.LedgerService.BalanceView;
 import com.nimble.payment_gateway.util.CpfValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,7 +16,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,13 +29,13 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LedgerService ledgerService;
+    private final BalanceCache balanceCache;
 
     @Transactional
     public UserResponse registerUser(UserRegistrationRequest request) {
         log.info("Registrando novo usuário com CPF: {}", request.getCpf());
 
-        boolean test = CpfValidator.isValid(request.getCpf());
-
         if (!CpfValidator.isValid(request.getCpf())) {
             throw new InvalidCpfException("CPF inválido");
         }
@@ -48,14 +53,13 @@ public class UserService {
                 .cpf(request.getCpf())
                 .email(request.getEmail())
                 .password(passwordEncoder.encode(request.getPassword()))
-                .role("ADMIN")
-                .balance(BigDecimal.ZERO)
+                .role("USER")
                 .build();
 
         user = userRepository.save(user);
         log.info("Usuário registrado com sucesso: {}", user.getId());
 
-        return mapToResponse(user);
+        return mapToResponse(user, BigDecimal.ZERO);
     }
 
     @Transactional(readOnly = true)
@@ -70,6 +74,16 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
     }
 
+    // Resolve vários CPFs com uma única consulta IN; CPFs sem usuário ficam fora do mapa
+    @Transactional(readOnly = true)
+    public Map<String, User> findAllByCpf(Collection<String> cpfs) {
+        if (cpfs.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllByCpfIn(cpfs).stream()
+                .collect(Collectors.toMap(User::getCpf, Function.identity()));
+    }
+
     @Transactional(readOnly = true)
     public User findByEmail(String email) {
         return userRepository.findByEmail(email)
@@ -88,22 +102,25 @@ public class UserService {
     @Transactional(readOnly = true)
     public UserResponse getUserProfile(UUID userId) {
         User user = findById(userId);
-        return mapToResponse(user);
+        return mapToResponse(user, getBalance(userId));
     }
 
-    @Transactional(readOnly = true)
     public BigDecimal getBalance(UUID userId) {
-        User user = findById(userId);
-        return user.getBalance();
+        return getBalanceView(userId).getBalance();
+    }
+
+    // Fora de transação: só a carga do cache abre a transação do razão, sempre no primário
+    public BalanceView getBalanceView(UUID userId) {
+        return balanceCache.get(userId, ledgerService::getCurrentBalanceView);
     }
 
-    private UserResponse mapToResponse(User user) {
+    private UserResponse mapToResponse(User user, BigDecimal balance) {
         return UserResponse.builder()
                 .id(user.getId())
                 .name(user.getName())
                 .cpf(user.getCpf())
                 .email(user.getEmail())
-                .balance(user.getBalance())
+                .balance(balance)
                 .createdAt(user.getCreatedAt())
                 .build();
     }
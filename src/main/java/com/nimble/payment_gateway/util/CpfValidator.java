@@ -1,50 +1,83 @@
 package com.nimble.payment_gateway.util;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 public class CpfValidator {
 
+    private static final int CPF_LENGTH = 11;
+
+    // Abaixo disso o custo de dividir o trabalho entre threads supera o da validação
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
     private CpfValidator() {
         throw new IllegalStateException("Utility class");
     }
 
     public static boolean isValid(String cpf) {
-        if (cpf == null || !cpf.matches("\\d{11}")) {
+        return isValid((CharSequence) cpf);
+    }
+
+    public static boolean isValid(CharSequence cpf) {
+        return cpf != null && cpf.length() == CPF_LENGTH && hasValidDigits(i -> cpf.charAt(i) - '0');
+    }
+
+    public static boolean isValid(byte[] cpf) {
+        return cpf != null && isValid(cpf, 0, cpf.length);
+    }
+
+    // Valida dígitos ASCII direto de um buffer, sem criar String por linha
+    public static boolean isValid(byte[] buffer, int offset, int length) {
+        if (buffer == null || length != CPF_LENGTH || offset < 0 || offset + length > buffer.length) {
             return false;
         }
+        return hasValidDigits(i -> buffer[offset + i] - '0');
+    }
 
-        // Verifica se todos os dígitos são iguais
-        if (cpf.matches("(\\d)\\1{10}")) {
-            return false;
+    // Resultado na mesma posição de cada CPF; listas grandes são validadas em paralelo
+    public static boolean[] validateAll(List<? extends CharSequence> cpfs) {
+        boolean[] results = new boolean[cpfs.size()];
+        IntStream indexes = IntStream.range(0, results.length);
+        if (results.length >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
         }
+        indexes.forEach(i -> results[i] = isValid(cpfs.get(i)));
+        return results;
+    }
 
-        try {
-            // Calcula o primeiro dígito verificador
-            int sum = 0;
-            for (int i = 0; i < 9; i++) {
-                sum += Character.getNumericValue(cpf.charAt(i)) * (10 - i);
-            }
-            int firstDigit = 11 - (sum % 11);
-            if (firstDigit >= 10) {
-                firstDigit = 0;
-            }
+    // Passada única sobre os 11 dígitos, sem regex nem cópia da entrada
+    private static boolean hasValidDigits(DigitSource cpf) {
+        int firstSum = 0;
+        int secondSum = 0;
+        boolean allEqual = true;
+        int first = cpf.digitAt(0);
 
-            // Calcula o segundo dígito verificador
-            sum = 0;
-            for (int i = 0; i < 10; i++) {
-                sum += Character.getNumericValue(cpf.charAt(i)) * (11 - i);
+        for (int i = 0; i < CPF_LENGTH; i++) {
+            int digit = cpf.digitAt(i);
+            if (digit < 0 || digit > 9) {
+                return false;
             }
-            int secondDigit = 11 - (sum % 11);
-            if (secondDigit >= 10) {
-                secondDigit = 0;
+            allEqual &= digit == first;
+            if (i < 9) {
+                firstSum += digit * (10 - i);
             }
+            if (i < 10) {
+                secondSum += digit * (11 - i);
+            }
+        }
 
-            boolean first = Character.getNumericValue(cpf.charAt(9)) == firstDigit;
-            boolean second = Character.getNumericValue(cpf.charAt(10)) == secondDigit;
+        return !allEqual
+                && checkDigit(firstSum) == cpf.digitAt(9)
+                && checkDigit(secondSum) == cpf.digitAt(10);
+    }
 
-            // Verifica se os dígitos calculados conferem
-            return Character.getNumericValue(cpf.charAt(9)) == firstDigit
-                    && Character.getNumericValue(cpf.charAt(10)) == secondDigit;
-        } catch (Exception e) {
-            return false;
-        }
+    private static int checkDigit(int sum) {
+        int digit = 11 - (sum % 11);
+        return digit >= 10 ? 0 : digit;
+    }
+
+    @FunctionalInterface
+    private interface DigitSource {
+        int digitAt(int index);
     }
 }
@@ -0,0 +1,64 @@
+package com.nimble.payment_gateway.util;
+
+import com.nimble.payment_gateway.exception.BusinessException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// Cursor opaco para paginação keyset sobre (created_at, id)
+public class CursorCodec {
+
+    private static final String SEPARATOR = "_";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private CursorCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static String encode(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Tamanho de página pedido pelo cliente, limitado ao máximo
+    public static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new BusinessException("O tamanho da página deve ser maior que zero");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // Posição anterior a qualquer registro, usada para a primeira página
+    public static Cursor first() {
+        return new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+    }
+
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return first();
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Cursor de paginação inválido");
+        }
+    }
+
+    @Value
+    public static class Cursor {
+        LocalDateTime createdAt;
+        UUID id;
+    }
+}
@@ -0,0 +1,14 @@
+package com.nimble.payment_gateway.util;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+public class LogMarkers {
+
+    // Logs do caminho de sucesso de cada requisição: no perfil prod só uma amostra é escrita
+    public static final Marker SUCCESS = MarkerFactory.getMarker("SUCCESS");
+
+    private LogMarkers() {
+        throw new IllegalStateException("Utility class");
+    }
+}
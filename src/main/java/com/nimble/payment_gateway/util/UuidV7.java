@@ -0,0 +1,31 @@
+package com.nimble.payment_gateway.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUIDs versão 7 (RFC 9562): 48 bits de timestamp em milissegundos seguidos de um contador
+ * de 12 bits e 62 bits aleatórios. Ordenados pelo tempo de criação, mantêm as inserções
+ * no fim do índice da chave primária.
+ */
+public class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Timestamp em ms deslocado 12 bits + contador; estritamente crescente dentro da JVM
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static UUID randomUuid() {
+        long now = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(previous -> Math.max(previous + 1, now));
+
+        long mostSigBits = ((state >>> 12) << 16) | 0x7000L | (state & 0x0FFFL);
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,119 @@
+package com.nimble.payment_gateway.integration;
+
+import com.nimble.payment_gateway.model.dto.request.DepositRequest;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.TransactionRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.AuthorizerService;
+import com.nimble.payment_gateway.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+// Pool com 2 conexões e autorizador lento: se a chamada externa ocorresse dentro da
+// transação, as 20 requisições somariam vários segundos de espera e estourariam o connection-timeout do Hikari.
+// As varreduras agendadas (capturas e outbox) ficam paradas para não ocupar uma das duas conexões
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pool_load;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=1000",
+        "capture.poll-interval=3600000",
+        "outbox.relay.interval=3600000",
+        "outbox.stream.interval=3600000"
+})
+@ActiveProfiles("test")
+class AuthorizerLatencyPoolTest {
+
+    private static final int CONCURRENT_DEPOSITS = 20;
+    private static final long AUTHORIZER_LATENCY_MS = 300;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private AuthorizerService authorizerService;
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldNotExhaustConnectionPoolWhileAuthorizerIsSlow() throws InterruptedException {
+        when(authorizerService.authorize()).thenAnswer(invocation -> {
+            Thread.sleep(AUTHORIZER_LATENCY_MS + ThreadLocalRandom.current().nextLong(AUTHORIZER_LATENCY_MS));
+            return true;
+        });
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_DEPOSITS; i++) {
+            users.add(userRepository.save(User.builder()
+                    .name("Cliente " + i)
+                    .cpf(String.format("%011d", i))
+                    .email("cliente" + i + "@email.com")
+                    .password("hashedPassword")
+                    .role("ADMIN")
+                    .build()));
+        }
+        // Aquece o caminho de escrita antes de medir
+        paymentService.deposit(users.get(0).getId(), DepositRequest.builder().amount(BigDecimal.TEN).build());
+
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_DEPOSITS);
+
+        for (User user : users) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    paymentService.deposit(user.getId(), DepositRequest.builder().amount(BigDecimal.TEN).build());
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        Timer hold = meterRegistry.get("payment.transaction.hold").tag("operation", "deposit").timer();
+        log.info("Conexão mantida por depósito: média {} ms, máximo {} ms",
+                String.format("%.1f", hold.mean(TimeUnit.MILLISECONDS)),
+                String.format("%.1f", hold.max(TimeUnit.MILLISECONDS)));
+
+        assertTrue(failures.isEmpty(), () -> "Falhas com autorizador lento: " + failures);
+        assertEquals(CONCURRENT_DEPOSITS + 1, transactionRepository.count());
+        assertTrue(hold.max(TimeUnit.MILLISECONDS) < AUTHORIZER_LATENCY_MS);
+    }
+}
@@ -0,0 +1,115 @@
+package com.nimble.payment_gateway.integration;
+
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.model.dto.response.ChargeResponse;
+import com.nimble.payment_gateway.model.dto.response.CursorPageResponse;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.ChargeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ChargePaginationTest {
+
+    private static final int CHARGES = 57;
+
+    @Autowired
+    private ChargeService chargeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChargeRepository chargeRepository;
+
+    private User originator;
+    private User recipient;
+
+    @BeforeEach
+    void setUp() {
+        originator = createUser("Ana Costa", "52998224725", "ana@email.com");
+        recipient = createUser("Bruno Alves", "11144477735", "bruno@email.com");
+
+        for (int i = 0; i < CHARGES; i++) {
+            chargeRepository.save(Charge.builder()
+                    .originator(originator)
+                    .recipient(recipient)
+                    .amount(BigDecimal.valueOf(i + 1))
+                    .status(i % 3 == 0 ? ChargeStatus.PAID : ChargeStatus.PENDING)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        chargeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldWalkAllPagesWithoutDuplicatesInDescendingOrder() {
+        List<ChargeResponse> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<ChargeResponse> page = chargeService.getSentCharges(originator.getId(), null, cursor, 10);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        Set<UUID> ids = new HashSet<>();
+        all.forEach(charge -> ids.add(charge.getId()));
+        assertEquals(CHARGES, all.size());
+        assertEquals(CHARGES, ids.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertFalse(all.get(i).getCreatedAt().isAfter(all.get(i - 1).getCreatedAt()));
+        }
+        assertEquals(originator.getName(), all.get(0).getOriginator().getName());
+        assertEquals(recipient.getCpf(), all.get(0).getRecipient().getCpf());
+    }
+
+    @Test
+    void shouldFilterReceivedChargesByStatus() {
+        CursorPageResponse<ChargeResponse> page =
+                chargeService.getReceivedCharges(recipient.getId(), ChargeStatus.PAID, null, 100);
+
+        assertEquals(19, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertTrue(page.getItems().stream().allMatch(charge -> charge.getStatus() == ChargeStatus.PAID));
+    }
+
+    @Test
+    void shouldExportEveryCharge() {
+        List<ChargeResponse> exported = new ArrayList<>();
+
+        chargeService.exportCharges(recipient.getId(), false, ChargeStatus.PENDING, exported::add);
+
+        assertEquals(38, exported.size());
+    }
+
+    private User createUser(String name, String cpf, String email) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .cpf(cpf)
+                .email(email)
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+    }
+}
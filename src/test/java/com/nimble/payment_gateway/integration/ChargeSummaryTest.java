@@ -0,0 +1,161 @@
+package com.nimble.payment_gateway.integration;
+
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.model.dto.request.CreateChargeRequest;
+import com.nimble.payment_gateway.model.dto.request.PaymentRequest;
+import com.nimble.payment_gateway.model.dto.response.ChargeResponse;
+import com.nimble.payment_gateway.model.dto.response.ChargeSummaryResponse;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.ChargeSummaryRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.OutboxEventRepository;
+import com.nimble.payment_gateway.repository.TransactionRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.ChargeService;
+import com.nimble.payment_gateway.service.ChargeSummaryService;
+import com.nimble.payment_gateway.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ChargeSummaryTest {
+
+    @Autowired
+    private ChargeService chargeService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ChargeSummaryService chargeSummaryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChargeRepository chargeRepository;
+
+    @Autowired
+    private ChargeSummaryRepository chargeSummaryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private User originator;
+    private User recipient;
+
+    @BeforeEach
+    void setUp() {
+        originator = createUser("Ana Costa", "52998224725", "ana@email.com");
+        recipient = createUser("Bruno Alves", "11144477735", "bruno@email.com");
+        ledgerEntryRepository.save(LedgerEntry.builder()
+                .accountId(recipient.getId())
+                .sequence(1)
+                .amount(BigDecimal.valueOf(1000))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        chargeSummaryRepository.deleteAll();
+        chargeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldTrackCountsAndTotalsAcrossStatusChanges() {
+        ChargeResponse paid = createCharge("10.00");
+        ChargeResponse cancelled = createCharge("30.00");
+        createCharge("20.00");
+        createCharge("5.50");
+
+        paymentService.payCharge(recipient.getId(), PaymentRequest.builder()
+                .chargeId(paid.getId())
+                .paymentMethod(PaymentMethod.BALANCE)
+                .build());
+        chargeService.cancelCharge(cancelled.getId(), originator.getId());
+
+        ChargeSummaryResponse sent = chargeSummaryService.getSummary(originator.getId());
+        assertTotal(sent.getSent(), ChargeStatus.PENDING, 2, "25.50");
+        assertTotal(sent.getSent(), ChargeStatus.PAID, 1, "10.00");
+        assertTotal(sent.getSent(), ChargeStatus.CANCELLED, 1, "30.00");
+        assertTotal(sent.getSent(), ChargeStatus.AUTHORIZING, 0, "0");
+        assertTotal(sent.getReceived(), ChargeStatus.PENDING, 0, "0");
+
+        ChargeSummaryResponse received = chargeSummaryService.getSummary(recipient.getId());
+        assertEquals(sent.getSent(), received.getReceived());
+
+        assertEquals(0, chargeSummaryService.verify());
+    }
+
+    @Test
+    void shouldRepairDriftFromWritesThatBypassTheSummary() {
+        ChargeResponse created = createCharge("10.00");
+        Charge charge = chargeRepository.findById(created.getId()).orElseThrow();
+        charge.markAsPaid();
+        chargeRepository.save(charge);
+        chargeRepository.save(Charge.builder()
+                .originator(originator)
+                .recipient(recipient)
+                .amount(new BigDecimal("7.00"))
+                .status(ChargeStatus.PENDING)
+                .build());
+
+        assertTotal(chargeSummaryService.getSummary(originator.getId()).getSent(), ChargeStatus.PENDING, 1, "10.00");
+
+        assertTrue(chargeSummaryService.verify() > 0);
+        assertEquals(0, chargeSummaryService.verify());
+
+        ChargeSummaryResponse summary = chargeSummaryService.getSummary(originator.getId());
+        assertTotal(summary.getSent(), ChargeStatus.PENDING, 1, "7.00");
+        assertTotal(summary.getSent(), ChargeStatus.PAID, 1, "10.00");
+        assertTotal(chargeSummaryService.getSummary(recipient.getId()).getReceived(), ChargeStatus.PAID, 1, "10.00");
+    }
+
+    private ChargeResponse createCharge(String amount) {
+        return chargeService.createCharge(originator.getId(), CreateChargeRequest.builder()
+                .recipientCpf(recipient.getCpf())
+                .amount(new BigDecimal(amount))
+                .description("Cobrança de teste")
+                .build());
+    }
+
+    private static void assertTotal(Map<ChargeStatus, ChargeSummaryResponse.StatusTotal> totals,
+                                    ChargeStatus status, long count, String total) {
+        assertEquals(count, totals.get(status).getCount(), status.name());
+        assertEquals(0, new BigDecimal(total).compareTo(totals.get(status).getTotal()), status.name());
+    }
+
+    private User createUser(String name, String cpf, String email) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .cpf(cpf)
+                .email(email)
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+    }
+}
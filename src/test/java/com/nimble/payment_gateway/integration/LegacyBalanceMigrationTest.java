@@ -0,0 +1,81 @@
+package com.nimble.payment_gateway.integration;
+
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.LedgerService;
+import com.nimble.payment_gateway.service.LegacyBalanceMigration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:legacy_balance;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@ActiveProfiles("test")
+class LegacyBalanceMigrationTest {
+
+    @Autowired
+    private LegacyBalanceMigration legacyBalanceMigration;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        ledgerEntryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldPostLegacyBalancesAsOpeningEntriesAndDropColumn() {
+        User withBalance = createUser("Ana Costa", "52998224725", "ana@email.com");
+        User alreadyMigrated = createUser("Bruno Alves", "11144477735", "bruno@email.com");
+        User empty = createUser("Carla Dias", "39053344705", "carla@email.com");
+
+        // Esquema de antes do razão, como o ddl-auto=update deixa nos bancos existentes
+        jdbcTemplate.execute("ALTER TABLE users ADD COLUMN balance DECIMAL(19, 2) DEFAULT 0 NOT NULL");
+        jdbcTemplate.update("UPDATE users SET balance = ? WHERE id = ?", new BigDecimal("150.75"), withBalance.getId());
+        jdbcTemplate.update("UPDATE users SET balance = ? WHERE id = ?", new BigDecimal("99.00"), alreadyMigrated.getId());
+        ledgerEntryRepository.save(LedgerEntry.builder()
+                .accountId(alreadyMigrated.getId())
+                .sequence(1)
+                .amount(new BigDecimal("99.00"))
+                .build());
+
+        assertEquals(1, legacyBalanceMigration.migrate());
+
+        assertEquals(0, new BigDecimal("150.75").compareTo(ledgerService.getBalance(withBalance.getId())));
+        assertEquals(0, new BigDecimal("99.00").compareTo(ledgerService.getBalance(alreadyMigrated.getId())));
+        assertEquals(0, ledgerService.getBalance(empty.getId()).signum());
+
+        // Coluna removida: novos usuários voltam a ser gravados e uma nova execução não faz nada
+        createUser("Diego Lima", "86288366757", "diego@email.com");
+        assertEquals(0, legacyBalanceMigration.migrate());
+    }
+
+    private User createUser(String name, String cpf, String email) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .cpf(cpf)
+                .email(email)
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+    }
+}
@@ -0,0 +1,153 @@
+package com.nimble.payment_gateway.integration;
+
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.exception.InsufficientBalanceException;
+import com.nimble.payment_gateway.model.dto.request.PaymentRequest;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.OutboxEventRepository;
+import com.nimble.payment_gateway.repository.TransactionRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.LedgerReconciliationService;
+import com.nimble.payment_gateway.service.LedgerService;
+import com.nimble.payment_gateway.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:optimistic;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "payment.concurrency.mode=OPTIMISTIC",
+        "payment.concurrency.max-attempts=50",
+        "payment.concurrency.backoff=1"
+})
+@ActiveProfiles("test")
+class OptimisticPaymentTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerReconciliationService ledgerReconciliationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChargeRepository chargeRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        chargeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldNotOverdrawWhenPayingConcurrentlyWithoutLocks() throws InterruptedException {
+        // Saldo para metade das cobranças: as demais devem falhar por saldo, nunca negativar a conta
+        User payer = createUser("Alice Souza", "52998224725", "alice@email.com", BigDecimal.valueOf(500));
+        List<User> merchants = List.of(
+                createUser("Loja Um", "11144477735", "um@email.com", BigDecimal.ZERO),
+                createUser("Loja Dois", "39053344705", "dois@email.com", BigDecimal.ZERO));
+
+        List<Charge> charges = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            charges.add(createCharge(merchants.get(i % merchants.size()), payer));
+        }
+        Collections.shuffle(charges);
+
+        AtomicInteger paid = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (Charge charge : charges) {
+            executor.submit(() -> {
+                try {
+                    paymentService.payCharge(payer.getId(), PaymentRequest.builder()
+                            .chargeId(charge.getId())
+                            .paymentMethod(PaymentMethod.BALANCE)
+                            .build());
+                    paid.incrementAndGet();
+                } catch (InsufficientBalanceException ex) {
+                    // esperado depois que o saldo acaba
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        assertTrue(failures.isEmpty(), () -> "Falhas durante o teste de concorrência: " + failures);
+        assertEquals(50, paid.get());
+        assertEquals(0, ledgerService.getBalance(payer.getId()).signum());
+        assertEquals(0, merchants.stream()
+                .map(merchant -> ledgerService.getBalance(merchant.getId()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .compareTo(BigDecimal.valueOf(500)));
+
+        LedgerReconciliationService.ReconciliationReport report = ledgerReconciliationService.reconcile();
+        assertTrue(report.isConsistent(), () -> "Divergências no razão: " + report.getMismatches());
+    }
+
+    private User createUser(String name, String cpf, String email, BigDecimal openingBalance) {
+        User user = userRepository.save(User.builder()
+                .name(name)
+                .cpf(cpf)
+                .email(email)
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+        if (openingBalance.signum() > 0) {
+            ledgerEntryRepository.save(LedgerEntry.builder()
+                    .accountId(user.getId())
+                    .sequence(1)
+                    .amount(openingBalance)
+                    .build());
+        }
+        return user;
+    }
+
+    private Charge createCharge(User originator, User recipient) {
+        return chargeRepository.save(Charge.builder()
+                .originator(originator)
+                .recipient(recipient)
+                .amount(BigDecimal.TEN)
+                .status(ChargeStatus.PENDING)
+                .build());
+    }
+}
@@ -0,0 +1,226 @@
+package com.nimble.payment_gateway.integration;
+
+import com.nimble.payment_gateway.enums.ChargeStatus;
+import com.nimble.payment_gateway.enums.OutboxEventType;
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.model.dto.request.PaymentRequest;
+import com.nimble.payment_gateway.model.entity.Charge;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.OutboxEvent;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.AccountShardRepository;
+import com.nimble.payment_gateway.repository.BalanceSnapshotRepository;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.OutboxEventRepository;
+import com.nimble.payment_gateway.repository.TransactionRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.LedgerReconciliationService;
+import com.nimble.payment_gateway.service.LedgerService;
+import com.nimble.payment_gateway.service.OutboxRelay;
+import com.nimble.payment_gateway.service.PaymentService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentConcurrencyTest {
+
+    private static final int PAYMENTS_PER_DIRECTION = 100;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChargeRepository chargeRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerReconciliationService ledgerReconciliationService;
+
+    @Autowired
+    private AccountShardRepository accountShardRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        balanceSnapshotRepository.deleteAll();
+        accountShardRepository.deleteAll();
+        transactionRepository.deleteAll();
+        chargeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldProcessCrossPaymentsWithoutDeadlocks() throws InterruptedException {
+        User alice = createUser("Alice Souza", "52998224725", "alice@email.com");
+        User bob = createUser("Bob Lima", "11144477735", "bob@email.com");
+
+        // Metade das cobranças é paga por Alice para Bob e a outra metade por Bob para Alice
+        List<Charge> charges = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS_PER_DIRECTION; i++) {
+            charges.add(createCharge(bob, alice));
+            charges.add(createCharge(alice, bob));
+        }
+        Collections.shuffle(charges);
+
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (Charge charge : charges) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    paymentService.payCharge(charge.getRecipient().getId(), PaymentRequest.builder()
+                            .chargeId(charge.getId())
+                            .paymentMethod(PaymentMethod.BALANCE)
+                            .build());
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                }
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        log.info("{} pagamentos cruzados em {} s ({} pagamentos/s)", charges.size(),
+                String.format("%.3f", elapsedSeconds), String.format("%.1f", charges.size() / elapsedSeconds));
+
+        assertTrue(failures.isEmpty(), () -> "Falhas durante o teste de concorrência: " + failures);
+        assertEquals(charges.size(), transactionRepository.count());
+        assertEquals(0, ledgerService.getBalance(alice.getId()).compareTo(BigDecimal.valueOf(10_000)));
+        assertEquals(0, ledgerService.getBalance(bob.getId()).compareTo(BigDecimal.valueOf(10_000)));
+
+        // Abertura + um débito ou crédito por pagamento em cada conta, sem buracos na sequência
+        LedgerReconciliationService.ReconciliationReport report = ledgerReconciliationService.reconcile();
+        assertTrue(report.isConsistent(), () -> "Divergências no razão: " + report.getMismatches());
+        assertEquals(2, report.getAccounts());
+        assertEquals(2 + 2L * charges.size(), report.getEntries());
+
+        // Um evento de cobrança paga e um de transação por pagamento, numerados sem buracos e publicados
+        outboxRelay.relay();
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertEquals(charges.size(), events.stream().filter(e -> e.getType() == OutboxEventType.CHARGE_PAID).count());
+        assertEquals(charges.size(), events.stream().filter(e -> e.getType() == OutboxEventType.TRANSACTION_CREATED).count());
+        assertTrue(events.stream().allMatch(e -> e.getPublishedAt() != null));
+        long[] positions = events.stream().mapToLong(OutboxEvent::getPosition).sorted().toArray();
+        assertEquals(positions.length - 1, positions[positions.length - 1] - positions[0]);
+    }
+
+    @Test
+    void shouldSpreadHotMerchantCreditsAcrossShards() throws InterruptedException {
+        User merchant = createUser("Loja Grande", "39053344705", "loja@email.com");
+        ledgerService.enableSharding(merchant.getId(), 4);
+
+        String[] cpfs = {"52998224725", "11144477735", "28625587887", "86288366757"};
+        List<Charge> charges = new ArrayList<>();
+        for (int i = 0; i < cpfs.length; i++) {
+            User payer = createUser("Cliente " + i, cpfs[i], "cliente" + i + "@email.com");
+            for (int j = 0; j < PAYMENTS_PER_DIRECTION / 2; j++) {
+                charges.add(createCharge(merchant, payer));
+            }
+        }
+        Collections.shuffle(charges);
+
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (Charge charge : charges) {
+            executor.submit(() -> {
+                try {
+                    paymentService.payCharge(charge.getRecipient().getId(), PaymentRequest.builder()
+                            .chargeId(charge.getId())
+                            .paymentMethod(PaymentMethod.BALANCE)
+                            .build());
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        assertTrue(failures.isEmpty(), () -> "Falhas durante o teste de concorrência: " + failures);
+
+        // O estorno debita a soma dos shards, mesmo que nenhum deles sozinho cubra o valor
+        paymentService.cancelPaidCharge(charges.get(0).getId(), merchant.getId());
+
+        BigDecimal expected = BigDecimal.valueOf(10_000).add(BigDecimal.TEN.multiply(BigDecimal.valueOf(charges.size() - 1)));
+        assertEquals(0, ledgerService.getBalance(merchant.getId()).compareTo(expected));
+        assertTrue(ledgerEntryRepository.findAll().stream()
+                .filter(entry -> entry.getAccountId().equals(merchant.getId()))
+                .mapToInt(LedgerEntry::getShard)
+                .distinct()
+                .count() > 1);
+
+        LedgerReconciliationService.ReconciliationReport report = ledgerReconciliationService.reconcile();
+        assertTrue(report.isConsistent(), () -> "Divergências no razão: " + report.getMismatches());
+    }
+
+    private User createUser(String name, String cpf, String email) {
+        User user = userRepository.save(User.builder()
+                .name(name)
+                .cpf(cpf)
+                .email(email)
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+        ledgerEntryRepository.save(LedgerEntry.builder()
+                .accountId(user.getId())
+                .sequence(1)
+                .amount(BigDecimal.valueOf(10_000))
+                .build());
+        return user;
+    }
+
+    private Charge createCharge(User originator, User recipient) {
+        return chargeRepository.save(Charge.builder()
+                .originator(originator)
+                .recipient(recipient)
+                .amount(BigDecimal.TEN)
+                .status(ChargeStatus.PENDING)
+                .build());
+    }
+}
@@ -0,0 +1,159 @@
+package com.nimble.payment_gateway.integration;
+
+import com.nimble.payment_gateway.config.ReplicaLagMonitor;
+import com.nimble.payment_gateway.config.ReplicaRoutingDataSource;
+import com.nimble.payment_gateway.model.dto.request.CreateChargeRequest;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.security.UserPrincipal;
+import com.nimble.payment_gateway.service.ChargeService;
+import com.nimble.payment_gateway.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Dois H2 independentes: o segundo faz o papel de réplica com o mesmo schema e sem os dados,
+// então uma leitura que volta vazia veio da réplica
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica_primary;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "replica.enabled=true",
+        "replica.urls=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "replica.lag-check-interval=3600000"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica_copy;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ChargeService chargeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChargeRepository chargeRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    private JdbcTemplate replica;
+    private User originator;
+    private User recipient;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("DROP ALL OBJECTS");
+        new JdbcTemplate(routing.getPrimary()).queryForList("SCRIPT NODATA", String.class)
+                .forEach(replica::execute);
+
+        originator = createUser("Ana Costa", "52998224725", "ana@email.com");
+        recipient = createUser("Bruno Alves", "11144477735", "bruno@email.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        ledgerEntryRepository.deleteAll();
+        chargeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldReadFromReplicaOnlyWhileLagIsWithinLimit() {
+        createCharge();
+
+        replicaBeatAt(System.currentTimeMillis());
+        assertTrue(sentCharges().isEmpty());
+
+        replicaBeatAt(System.currentTimeMillis() - 60_000);
+        assertEquals(1, sentCharges().size());
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimaryDuringStickyWindow() {
+        replicaBeatAt(System.currentTimeMillis());
+
+        authenticate(originator);
+        createCharge();
+        assertEquals(1, sentCharges().size());
+
+        // Quem não escreveu continua lendo da réplica, que ainda não tem a cobrança
+        authenticate(recipient);
+        assertTrue(chargeService.getReceivedCharges(recipient.getId(), null, null, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void shouldLoadBalanceCacheFromPrimaryForCounterpartyOutsideStickyWindow() {
+        replicaBeatAt(System.currentTimeMillis());
+
+        // Crédito na conta de quem não fez a requisição: a réplica ainda não tem o lançamento
+        authenticate(originator);
+        ledgerEntryRepository.save(LedgerEntry.builder()
+                .accountId(recipient.getId())
+                .sequence(1)
+                .amount(new BigDecimal("25.00"))
+                .build());
+
+        authenticate(recipient);
+        assertEquals(0, new BigDecimal("25.00").compareTo(userService.getBalance(recipient.getId())));
+    }
+
+    private void replicaBeatAt(long beatAt) {
+        replica.update("DELETE FROM replication_heartbeat");
+        replica.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", beatAt);
+        lagMonitor.check();
+    }
+
+    private List<?> sentCharges() {
+        return chargeService.getSentCharges(originator.getId(), null, null, 10).getItems();
+    }
+
+    private void createCharge() {
+        chargeService.createCharge(originator.getId(), CreateChargeRequest.builder()
+                .recipientCpf(recipient.getCpf())
+                .amount(BigDecimal.TEN)
+                .build());
+    }
+
+    private void authenticate(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private User createUser(String name, String cpf, String email) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .cpf(cpf)
+                .email(email)
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+    }
+}
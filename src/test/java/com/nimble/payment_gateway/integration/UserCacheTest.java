@@ -0,0 +1,120 @@
+package com.nimble.payment_gateway.integration;
+
+import com.nimble.payment_gateway.exception.ResourceNotFoundException;
+import com.nimble.payment_gateway.model.dto.request.CreateChargeRequest;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.ChargeRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.ChargeService;
+import com.nimble.payment_gateway.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ChargeService chargeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChargeRepository chargeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private User originator;
+    private User recipient;
+
+    @BeforeEach
+    void setUp() {
+        originator = createUser("Ana Costa", "52998224725", "ana@email.com");
+        recipient = createUser("Bruno Alves", "11144477735", "bruno@email.com");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        chargeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldLoadOriginatorFromCacheAndRecipientFromDatabase() {
+        CreateChargeRequest request = CreateChargeRequest.builder()
+                .recipientCpf(recipient.getCpf())
+                .amount(BigDecimal.TEN)
+                .build();
+        chargeService.createCharge(originator.getId(), request);
+
+        statistics.clear();
+        chargeService.createCharge(originator.getId(), request);
+
+        // O remetente sai do cache por id; a busca do destinatário por CPF sempre vai ao banco
+        EntityStatistics users = statistics.getEntityStatistics(User.class.getName());
+        assertEquals(0, users.getCacheMissCount());
+        assertTrue(users.getCacheHitCount() > 0);
+        assertEquals(0, statistics.getQueryCachePutCount());
+    }
+
+    @Test
+    void shouldFindUserInsertedByAnotherInstance() {
+        assertThrows(ResourceNotFoundException.class, () -> userService.findByCpf("39053344705"));
+
+        // Gravação que não passa por este Hibernate, como a de outra instância
+        jdbcTemplate.update("INSERT INTO users (id, name, cpf, email, password, role, created_at, updated_at, version) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                UUID.randomUUID(), "Carla Dias", "39053344705", "carla@email.com", "hashedPassword", "USER",
+                LocalDateTime.now(), LocalDateTime.now());
+
+        assertEquals("Carla Dias", userService.findByCpf("39053344705").getName());
+    }
+
+    @Test
+    void shouldServeUpdatedUserAfterChange() {
+        assertEquals("Bruno Alves", userService.findByCpf(recipient.getCpf()).getName());
+        assertEquals("Bruno Alves", userService.findById(recipient.getId()).getName());
+
+        User user = userRepository.findById(recipient.getId()).orElseThrow();
+        user.setName("Bruno Alves Filho");
+        userRepository.save(user);
+
+        assertEquals("Bruno Alves Filho", userService.findByCpf(recipient.getCpf()).getName());
+        assertEquals("Bruno Alves Filho", userService.findById(recipient.getId()).getName());
+    }
+
+    private User createUser(String name, String cpf, String email) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .cpf(cpf)
+                .email(email)
+                .password("hashedPassword")
+                .role("ADMIN")
+                .build());
+    }
+}
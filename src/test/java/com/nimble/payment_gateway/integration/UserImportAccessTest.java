@@ -0,0 +1,82 @@
+package com.nimble.payment_gateway.integration;
+
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.security.JwtTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "security.admin-cpfs=11144477735")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserImportAccessTest {
+
+    private static final String NDJSON =
+            "{\"name\":\"Carla Dias\",\"cpf\":\"39053344705\",\"email\":\"carla@email.com\",\"password\":\"senha123\"}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldDenyImportToUserRegisteredAsAdminBeforeAllowList() throws Exception {
+        // Antes do controle de acesso todo cadastro era gravado com role ADMIN
+        User legacy = createUser("Ana Costa", "52998224725", "ana@email.com", "ADMIN");
+
+        mockMvc.perform(post("/api/users/import")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(legacy))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(NDJSON))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users/import/{jobId}", UUID.randomUUID())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(legacy)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldAllowImportToAllowListedAdmin() throws Exception {
+        User admin = createUser("Bruno Alves", "11144477735", "bruno@email.com", "USER");
+
+        mockMvc.perform(get("/api/users/import/{jobId}", UUID.randomUUID())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(admin)))
+                .andExpect(status().isNotFound());
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user.getCpf(), null));
+    }
+
+    private User createUser(String name, String cpf, String email, String role) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .cpf(cpf)
+                .email(email)
+                .password("hashedPassword")
+                .role(role)
+                .build());
+    }
+}
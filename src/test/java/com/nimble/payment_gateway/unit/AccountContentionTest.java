@@ -0,0 +1,55 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.enums.ConcurrencyMode;
+import com.nimble.payment_gateway.service.AccountContention;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountContentionTest {
+
+    private final UUID hotAccount = UUID.randomUUID();
+    private final UUID quietAccount = UUID.randomUUID();
+
+    @Test
+    void shouldNeverReadOptimisticallyInPessimisticMode() {
+        AccountContention contention = contention(ConcurrencyMode.PESSIMISTIC);
+
+        assertFalse(contention.isOptimistic());
+        assertFalse(contention.readOptimistically(hotAccount));
+    }
+
+    @Test
+    void shouldFallBackToLockingWhenConflictRateCrossesThreshold() {
+        AccountContention contention = contention(ConcurrencyMode.OPTIMISTIC);
+
+        for (int i = 0; i < 9; i++) {
+            assertTrue(contention.readOptimistically(hotAccount));
+            contention.finishAttempt(i % 2 == 0);
+        }
+        assertTrue(contention.readOptimistically(hotAccount));
+        contention.finishAttempt(true);
+
+        assertFalse(contention.readOptimistically(hotAccount));
+        assertTrue(contention.readOptimistically(quietAccount));
+    }
+
+    @Test
+    void shouldKeepOptimisticReadsBelowThreshold() {
+        AccountContention contention = contention(ConcurrencyMode.OPTIMISTIC);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(contention.readOptimistically(hotAccount));
+            contention.finishAttempt(i % 10 == 0);
+        }
+
+        assertTrue(contention.readOptimistically(hotAccount));
+    }
+
+    private AccountContention contention(ConcurrencyMode mode) {
+        return new AccountContention(mode, 10, 0.2, 60_000, 60_000, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,249 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.enums.AuthorizationDecision;
+import com.nimble.payment_gateway.service.AuthorizerService;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthorizerServiceTest {
+
+    private DisposableServer stubAuthorizer;
+    private AuthorizerService authorizerService;
+    private SimpleMeterRegistry meterRegistry;
+
+    private final AtomicInteger stubRequests = new AtomicInteger();
+    private volatile HttpResponseStatus stubStatus;
+    private volatile String stubBody;
+    private volatile Duration stubDelay;
+    private volatile Duration firstRequestDelay;
+
+    @BeforeEach
+    void setUp() {
+        stubStatus = HttpResponseStatus.OK;
+        stubBody = "{\"status\":\"success\",\"data\":{\"authorized\":true}}";
+        stubDelay = Duration.ZERO;
+        firstRequestDelay = null;
+
+        // Stub local com injeção de falhas: status, corpo e latência configuráveis por teste
+        stubAuthorizer = HttpServer.create()
+                .port(0)
+                .handle((request, response) -> {
+                    int requestNumber = stubRequests.incrementAndGet();
+                    Duration delay = requestNumber == 1 && firstRequestDelay != null ? firstRequestDelay : stubDelay;
+                    return Mono.delay(delay)
+                            .then(response.status(stubStatus).sendString(Mono.just(stubBody)).then());
+                })
+                .bindNow();
+
+        authorizerService = createService(CircuitBreakerConfig.ofDefaults(), BulkheadConfig.ofDefaults());
+    }
+
+    private AuthorizerService createService(CircuitBreakerConfig circuitBreakerConfig, BulkheadConfig bulkheadConfig) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + stubAuthorizer.port() + "/authorizer")
+                .build();
+
+        meterRegistry = new SimpleMeterRegistry();
+        AuthorizerService service = new AuthorizerService(webClient,
+                CircuitBreaker.of("authorizer", circuitBreakerConfig),
+                Bulkhead.of("authorizer", bulkheadConfig),
+                meterRegistry);
+        ReflectionTestUtils.setField(service, "timeout", 500L);
+        ReflectionTestUtils.setField(service, "hedgeInitialDelay", 100L);
+        ReflectionTestUtils.setField(service, "hedgeMinDelay", 10L);
+        ReflectionTestUtils.setField(service, "hedgeMinSamples", 100L);
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubAuthorizer.disposeNow();
+    }
+
+    @Test
+    void shouldAuthorizeWhenAuthorizerRespondsSuccess() {
+        assertTrue(authorizerService.authorize());
+    }
+
+    @Test
+    void shouldDenyWhenAuthorizerRespondsFail() {
+        stubBody = "{\"status\":\"fail\",\"data\":{\"authorized\":false}}";
+
+        assertFalse(authorizerService.authorize());
+    }
+
+    @Test
+    void shouldDenyWhenAuthorizerReturnsError() {
+        stubStatus = HttpResponseStatus.SERVICE_UNAVAILABLE;
+
+        assertFalse(authorizerService.authorize());
+    }
+
+    @Test
+    void shouldDenyWhenAuthorizerTimesOut() {
+        stubDelay = Duration.ofSeconds(2);
+
+        assertFalse(authorizerService.authorize());
+    }
+
+    @Test
+    void shouldAuthorizeAsynchronously() {
+        StepVerifier.create(authorizerService.authorizeAsync())
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReportUnavailableInsteadOfDenialWhenAuthorizerFails() {
+        stubStatus = HttpResponseStatus.SERVICE_UNAVAILABLE;
+        StepVerifier.create(authorizerService.decideAsync())
+                .expectNext(AuthorizationDecision.UNAVAILABLE)
+                .verifyComplete();
+
+        stubStatus = HttpResponseStatus.FORBIDDEN;
+        stubBody = "{\"status\":\"fail\",\"data\":{\"authorized\":false}}";
+        StepVerifier.create(authorizerService.decideAsync())
+                .expectNext(AuthorizationDecision.DENIED)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldOpenCircuitAndFailFastWhenAuthorizerKeepsFailing() {
+        authorizerService = createService(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build(), BulkheadConfig.ofDefaults());
+        stubStatus = HttpResponseStatus.INTERNAL_SERVER_ERROR;
+
+        for (int i = 0; i < 4; i++) {
+            assertFalse(authorizerService.authorize());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, authorizerService.getCircuitBreakerState());
+
+        int requestsBeforeOpen = stubRequests.get();
+        stubStatus = HttpResponseStatus.OK;
+
+        assertFalse(authorizerService.authorize());
+        StepVerifier.create(authorizerService.decideAsync())
+                .expectNext(AuthorizationDecision.UNAVAILABLE)
+                .verifyComplete();
+        assertEquals(requestsBeforeOpen, stubRequests.get());
+    }
+
+    @Test
+    void shouldDenyWhenBulkheadIsFull() {
+        authorizerService = createService(CircuitBreakerConfig.ofDefaults(), BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        ReflectionTestUtils.setField(authorizerService, "timeout", 2000L);
+        stubDelay = Duration.ofMillis(300);
+
+        Mono<Boolean> first = authorizerService.authorizeAsync();
+        Mono<Boolean> second = authorizerService.authorizeAsync();
+
+        StepVerifier.create(Mono.zip(first, second))
+                .assertNext(results -> {
+                    assertTrue(results.getT1());
+                    assertFalse(results.getT2());
+                })
+                .verifyComplete();
+        assertEquals(1, stubRequests.get());
+    }
+
+    @Test
+    void shouldHedgeSlowRequestWhenEnabled() {
+        ReflectionTestUtils.setField(authorizerService, "hedgeEnabled", true);
+        firstRequestDelay = Duration.ofSeconds(2);
+
+        assertTrue(authorizerService.authorize());
+        assertEquals(2, stubRequests.get());
+        assertEquals(1.0, meterRegistry.get("authorizer.hedged.requests").counter().count());
+    }
+
+    @Test
+    void shouldRecordLatencyOfSlowPrimaryCancelledByHedge() throws InterruptedException {
+        ReflectionTestUtils.setField(authorizerService, "hedgeEnabled", true);
+        ReflectionTestUtils.setField(authorizerService, "timeout", 2000L);
+        firstRequestDelay = Duration.ofSeconds(5);
+
+        assertTrue(authorizerService.authorize());
+
+        Timer latency = meterRegistry.get("authorizer.latency").timer();
+        awaitCount(latency, 2);
+        // A primária foi cancelada depois do atraso do hedge (100 ms), não descartada
+        assertTrue(latency.max(TimeUnit.MILLISECONDS) >= 100);
+    }
+
+    @Test
+    void shouldRecordLatencyOfCallCutByTimeout() throws InterruptedException {
+        stubDelay = Duration.ofSeconds(2);
+
+        assertFalse(authorizerService.authorize());
+
+        Timer latency = meterRegistry.get("authorizer.latency").timer();
+        awaitCount(latency, 1);
+        assertTrue(latency.max(TimeUnit.MILLISECONDS) >= 500);
+    }
+
+    @Test
+    void shouldRecordAuthorizerLatency() throws InterruptedException {
+        authorizerService.authorize();
+
+        awaitCount(meterRegistry.get("authorizer.latency").timer(), 1);
+    }
+
+    @Test
+    void shouldTrackInFlightCalls() throws InterruptedException {
+        ReflectionTestUtils.setField(authorizerService, "timeout", 2000L);
+        stubDelay = Duration.ofMillis(300);
+        Gauge inFlight = meterRegistry.get("authorizer.in.flight").gauge();
+
+        CompletableFuture<Boolean> pending = authorizerService.authorizeAsync().toFuture();
+        awaitGauge(inFlight, 1.0);
+
+        assertTrue(pending.join());
+        awaitGauge(inFlight, 0.0);
+    }
+
+    // A latência é gravada no doFinally, depois que o resultado já chegou a quem chamou
+    private void awaitCount(Timer timer, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (timer.count() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, timer.count());
+    }
+
+    private void awaitGauge(Gauge gauge, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (gauge.value() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, gauge.value());
+    }
+}
@@ -0,0 +1,71 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.service.BalanceCache;
+import com.nimble.payment_gateway.service.LedgerService.BalanceView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceCacheTest {
+
+    private BalanceCache balanceCache;
+    private UUID accountId;
+    private AtomicLong loads;
+
+    @BeforeEach
+    void setUp() {
+        balanceCache = new BalanceCache(100, 60_000, new SimpleMeterRegistry());
+        accountId = UUID.randomUUID();
+        loads = new AtomicLong();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldLoadBalanceOnlyOnceWhileCached() {
+        balanceCache.get(accountId, this::load);
+        BalanceView cached = balanceCache.get(accountId, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cached.getPosition());
+    }
+
+    @Test
+    void shouldKeepCachedBalanceUntilTransactionCommits() {
+        balanceCache.get(accountId, this::load);
+
+        TransactionSynchronizationManager.initSynchronization();
+        balanceCache.evictAfterCommit(accountId);
+        assertEquals(1, balanceCache.get(accountId, this::load).getPosition());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(2, balanceCache.get(accountId, this::load).getPosition());
+    }
+
+    @Test
+    void shouldEvictImmediatelyOutsideTransaction() {
+        balanceCache.get(accountId, this::load);
+        balanceCache.evictAfterCommit(accountId);
+
+        assertEquals(2, balanceCache.get(accountId, this::load).getPosition());
+    }
+
+    private BalanceView load(UUID id) {
+        long position = loads.incrementAndGet();
+        return new BalanceView(BigDecimal.valueOf(position * 10), position);
+    }
+}
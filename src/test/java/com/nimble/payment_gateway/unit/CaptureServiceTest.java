@@ -0,0 +1,229 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.enums.AuthorizationDecision;
+import com.nimble.payment_gateway.enums.CaptureStatus;
+import com.nimble.payment_gateway.exception.ResourceNotFoundException;
+import com.nimble.payment_gateway.model.dto.response.CaptureResponse;
+import com.nimble.payment_gateway.model.entity.CaptureRequest;
+import com.nimble.payment_gateway.repository.CaptureRequestRepository;
+import com.nimble.payment_gateway.service.AuthorizerService;
+import com.nimble.payment_gateway.service.CaptureService;
+import com.nimble.payment_gateway.service.PaymentService;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaptureServiceTest {
+
+    @Mock
+    private CaptureRequestRepository captureRequestRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private AuthorizerService authorizerService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CaptureService captureService;
+    private UUID payerId;
+
+    @BeforeEach
+    void setUp() {
+        captureService = new CaptureService(captureRequestRepository, paymentService, authorizerService,
+                transactionTemplate, 10, 4, 3, 30_000, 1_000, 60_000, 5_000);
+        payerId = UUID.randomUUID();
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(captureRequestRepository.recordDecision(any(), anyBoolean())).thenReturn(1);
+    }
+
+    @Test
+    void shouldClaimBatchAndFinalizeEachCaptureWithItsDecision() {
+        CaptureRequest first = capture(CaptureStatus.QUEUED);
+        CaptureRequest second = capture(CaptureStatus.QUEUED);
+        when(captureRequestRepository.findClaimable(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(authorizerService.decideAsync())
+                .thenReturn(Mono.just(AuthorizationDecision.APPROVED), Mono.just(AuthorizationDecision.DENIED));
+        when(paymentService.completeCapture(any(), anyBoolean())).thenAnswer(invocation -> first);
+
+        captureService.processQueue();
+
+        assertEquals(CaptureStatus.PROCESSING, first.getStatus());
+        assertEquals(1, second.getAttempts());
+        assertTrue(first.getAvailableAt().isAfter(LocalDateTime.now()));
+        verify(paymentService).completeCapture(first.getId(), true);
+        verify(paymentService).completeCapture(second.getId(), false);
+        verify(captureRequestRepository).recordDecision(first.getId(), true);
+        verify(captureRequestRepository).recordDecision(second.getId(), false);
+    }
+
+    @Test
+    void shouldReuseRecordedDecisionWhenReclaimedAfterFailedFinalization() {
+        // Aprovada numa tentativa anterior cuja finalização falhou: o cartão já foi cobrado
+        CaptureRequest capture = capture(CaptureStatus.PROCESSING);
+        capture.setAttempts(1);
+        capture.setAuthorized(true);
+        when(captureRequestRepository.findClaimable(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(capture));
+        when(paymentService.completeCapture(capture.getId(), true)).thenReturn(capture);
+
+        captureService.processQueue();
+
+        verify(authorizerService, never()).decideAsync();
+        verify(captureRequestRepository, never()).recordDecision(any(), anyBoolean());
+        verify(paymentService).completeCapture(capture.getId(), true);
+    }
+
+    @Test
+    void shouldSkipFinalizationWhenAnotherWorkerRecordedTheDecision() {
+        CaptureRequest capture = capture(CaptureStatus.QUEUED);
+        when(captureRequestRepository.findClaimable(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(capture));
+        when(authorizerService.decideAsync()).thenReturn(Mono.just(AuthorizationDecision.APPROVED));
+        when(captureRequestRepository.recordDecision(capture.getId(), true)).thenReturn(0);
+
+        captureService.processQueue();
+
+        verify(paymentService, never()).completeCapture(any(), anyBoolean());
+    }
+
+    @Test
+    void shouldFailCaptureAfterMaxAttemptsWithoutCallingAuthorizer() {
+        CaptureRequest capture = capture(CaptureStatus.PROCESSING);
+        capture.setAttempts(3);
+        when(captureRequestRepository.findClaimable(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(capture));
+        when(paymentService.failCapture(capture.getId())).thenAnswer(invocation -> {
+            capture.markAsFailed();
+            return capture;
+        });
+
+        captureService.processQueue();
+
+        assertEquals(CaptureStatus.FAILED, capture.getStatus());
+        verify(authorizerService, never()).decideAsync();
+        verify(paymentService, never()).completeCapture(any(), anyBoolean());
+    }
+
+    @Test
+    void shouldKeepProcessingBatchWhenOneCaptureFailsToFinalize() {
+        CaptureRequest first = capture(CaptureStatus.QUEUED);
+        CaptureRequest second = capture(CaptureStatus.QUEUED);
+        when(captureRequestRepository.findClaimable(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(authorizerService.decideAsync()).thenReturn(Mono.just(AuthorizationDecision.APPROVED));
+        when(paymentService.completeCapture(first.getId(), true)).thenThrow(new IllegalStateException("falha"));
+        when(paymentService.completeCapture(second.getId(), true)).thenReturn(second);
+
+        captureService.processQueue();
+
+        verify(paymentService).completeCapture(second.getId(), true);
+    }
+
+    @Test
+    void shouldPostponeQueuedCapturesWhileCircuitIsOpen() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("authorizer");
+        circuitBreaker.transitionToForcedOpenState();
+        AuthorizerService unavailable = new AuthorizerService(WebClient.create("http://localhost:1"),
+                circuitBreaker, Bulkhead.ofDefaults("authorizer"), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(unavailable, "timeout", 500L);
+        captureService = new CaptureService(captureRequestRepository, paymentService, unavailable,
+                transactionTemplate, 10, 4, 3, 30_000, 1_000, 60_000, 5_000);
+
+        CaptureRequest first = capture(CaptureStatus.QUEUED);
+        CaptureRequest second = capture(CaptureStatus.PROCESSING);
+        second.setAttempts(1);
+        when(captureRequestRepository.findClaimable(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(captureRequestRepository.postpone(any(), any())).thenReturn(1);
+
+        LocalDateTime before = LocalDateTime.now();
+        captureService.processQueue();
+
+        verify(captureRequestRepository, never()).recordDecision(any(), anyBoolean());
+        verify(paymentService, never()).completeCapture(any(), anyBoolean());
+        verify(paymentService, never()).failCapture(any());
+        verify(captureRequestRepository).postpone(eq(first.getId()), any());
+        verify(captureRequestRepository).postpone(eq(second.getId()), any());
+        assertNull(first.getAuthorized());
+        // Backoff dobra a cada reivindicação: 1 s na primeira, 2 s na segunda
+        assertTrue(first.getAvailableAt().isBefore(before.plusSeconds(2)));
+        assertTrue(second.getAvailableAt().isAfter(before.plusNanos(1_900_000_000)));
+    }
+
+    @Test
+    void shouldCompleteLongPollWhenCaptureIsFinalized() throws Exception {
+        CaptureRequest capture = capture(CaptureStatus.QUEUED);
+        when(captureRequestRepository.findById(capture.getId())).thenReturn(Optional.of(capture));
+        when(captureRequestRepository.findClaimable(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(capture));
+        when(authorizerService.decideAsync()).thenReturn(Mono.just(AuthorizationDecision.APPROVED));
+        when(paymentService.completeCapture(capture.getId(), true)).thenAnswer(invocation -> {
+            capture.markAsApproved(UUID.randomUUID());
+            return capture;
+        });
+
+        CompletableFuture<CaptureResponse> pending = captureService.awaitStatus(payerId, capture.getId(), 5_000);
+        assertFalse(pending.isDone());
+
+        captureService.processQueue();
+
+        assertEquals(CaptureStatus.APPROVED, pending.get(1, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void shouldAnswerLongPollWithCurrentStatusOnTimeout() throws Exception {
+        CaptureRequest capture = capture(CaptureStatus.PROCESSING);
+        when(captureRequestRepository.findById(capture.getId())).thenReturn(Optional.of(capture));
+
+        CaptureResponse response = captureService.awaitStatus(payerId, capture.getId(), 50).get(1, TimeUnit.SECONDS);
+
+        assertEquals(CaptureStatus.PROCESSING, response.getStatus());
+    }
+
+    @Test
+    void shouldHideCaptureFromOtherPayers() {
+        CaptureRequest capture = capture(CaptureStatus.QUEUED);
+        when(captureRequestRepository.findById(capture.getId())).thenReturn(Optional.of(capture));
+
+        assertThrows(ResourceNotFoundException.class, () -> captureService.getStatus(UUID.randomUUID(), capture.getId()));
+    }
+
+    private CaptureRequest capture(CaptureStatus status) {
+        return CaptureRequest.builder()
+                .id(UUID.randomUUID())
+                .chargeId(UUID.randomUUID())
+                .payerId(payerId)
+                .status(status)
+                .availableAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -3,24 +3,42 @@ package com.nimble.payment_gateway.unit;
 import com.nimble.payment_gateway.enums.ChargeStatus;
 import com.nimble.payment_gateway.exception.BusinessException;
 import com.nimble.payment_gateway.model.dto.request.CreateChargeRequest;
+import com.nimble.payment_gateway.model.dto.response.BatchChargeResponse;
 import com.nimble.payment_gateway.model.dto.response.ChargeResponse;
+import com.nimble.payment_gateway.model.dto.response.CursorPageResponse;
 import com.nimble.payment_gateway.model.entity.Charge;
 import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.model.projection.ChargeProjection;
 import com.nimble.payment_gateway.repository.ChargeRepository;
 import com.nimble.payment_gateway.service.ChargeService;
+import com.nimble.payment_gateway.service.ChargeSummaryService;
+import com.nimble.payment_gateway.service.OutboxService;
 import com.nimble.payment_gateway.service.UserService;
+import com.nimble.payment_gateway.util.CursorCodec;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +50,15 @@ class ChargeServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ChargeSummaryService chargeSummaryService;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private ChargeService chargeService;
 
@@ -46,7 +73,6 @@ class ChargeServiceTest {
                 .name("João Silva")
                 .cpf("12345678909")
                 .email("joao@email.com")
-                .balance(BigDecimal.valueOf(1000))
                 .build();
 
         recipient = User.builder()
@@ -54,7 +80,6 @@ class ChargeServiceTest {
                 .name("Maria Santos")
                 .cpf("98765432100")
                 .email("maria@email.com")
-                .balance(BigDecimal.ZERO)
                 .build();
 
         request = CreateChargeRequest.builder()
@@ -86,6 +111,7 @@ class ChargeServiceTest {
         assertEquals(request.getAmount(), response.getAmount());
         assertEquals(ChargeStatus.PENDING, response.getStatus());
         verify(chargeRepository, times(1)).save(any(Charge.class));
+        verify(chargeSummaryService).chargesCreated(List.of(savedCharge));
     }
 
     @Test
@@ -97,4 +123,163 @@ class ChargeServiceTest {
                 () -> chargeService.createCharge(originator.getId(), request));
         verify(chargeRepository, never()).save(any(Charge.class));
     }
+
+    @Test
+    void shouldCancelPendingCharge() {
+        Charge charge = charge(ChargeStatus.PENDING);
+        when(chargeRepository.findById(charge.getId())).thenReturn(Optional.of(charge));
+
+        chargeService.cancelCharge(charge.getId(), recipient.getId());
+
+        assertEquals(ChargeStatus.CANCELLED, charge.getStatus());
+        verify(chargeSummaryService).statusChanged(charge, ChargeStatus.PENDING);
+        verify(outboxService).chargeCancelled(charge);
+    }
+
+    @Test
+    void shouldRejectCancellingChargeWhileCardCaptureIsQueued() {
+        // O pagador pagou no cartão e a captura aguarda o autorizador; cancelar agora perderia um valor aprovado
+        Charge charge = charge(ChargeStatus.AUTHORIZING);
+        when(chargeRepository.findById(charge.getId())).thenReturn(Optional.of(charge));
+
+        assertThrows(BusinessException.class, () -> chargeService.cancelCharge(charge.getId(), recipient.getId()));
+
+        assertEquals(ChargeStatus.AUTHORIZING, charge.getStatus());
+        verify(chargeRepository, never()).save(any(Charge.class));
+        verifyNoInteractions(chargeSummaryService, outboxService);
+    }
+
+    @Test
+    void shouldRejectCancellingChargePaidAfterControllerCheck() {
+        Charge charge = charge(ChargeStatus.PAID);
+        when(chargeRepository.findById(charge.getId())).thenReturn(Optional.of(charge));
+
+        assertThrows(BusinessException.class, () -> chargeService.cancelCharge(charge.getId(), originator.getId()));
+
+        assertEquals(ChargeStatus.PAID, charge.getStatus());
+        verify(chargeRepository, never()).save(any(Charge.class));
+    }
+
+    @Test
+    void shouldReturnNextCursorWhenMoreChargesExist() {
+        List<ChargeProjection> rows = projections(3);
+        when(chargeRepository.findSentPage(eq(originator.getId()), any(), any(), eq(Limit.of(3))))
+                .thenReturn(rows);
+
+        CursorPageResponse<ChargeResponse> page = chargeService.getSentCharges(originator.getId(), null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(recipient.getName(), page.getItems().get(0).getRecipient().getName());
+
+        CursorCodec.Cursor cursor = CursorCodec.decode(page.getNextCursor());
+        assertEquals(rows.get(1).getId(), cursor.getId());
+        assertEquals(rows.get(1).getCreatedAt(), cursor.getCreatedAt());
+    }
+
+    @Test
+    void shouldReturnLastPageWithoutCursor() {
+        when(chargeRepository.findReceivedPageByStatus(eq(recipient.getId()), eq(ChargeStatus.PENDING),
+                any(), any(), eq(Limit.of(21))))
+                .thenReturn(projections(5));
+
+        CursorPageResponse<ChargeResponse> page =
+                chargeService.getReceivedCharges(recipient.getId(), ChargeStatus.PENDING, null, null);
+
+        assertEquals(5, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shouldCapPageSize() {
+        when(chargeRepository.findSentPage(eq(originator.getId()), any(), any(), eq(Limit.of(101))))
+                .thenReturn(List.of());
+
+        chargeService.getSentCharges(originator.getId(), null, null, 10_000);
+
+        verify(chargeRepository).findSentPage(eq(originator.getId()), any(), any(), eq(Limit.of(101)));
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() {
+        assertThrows(BusinessException.class,
+                () -> chargeService.getSentCharges(originator.getId(), null, "not-a-cursor", null));
+    }
+
+    @Test
+    void shouldExportAllChargesInBatches() {
+        List<ChargeProjection> firstBatch = projections(500);
+        List<ChargeProjection> secondBatch = projections(7);
+        when(chargeRepository.findSentPage(eq(originator.getId()), any(), any(), eq(Limit.of(500))))
+                .thenReturn(firstBatch, secondBatch);
+
+        List<ChargeResponse> exported = new ArrayList<>();
+        chargeService.exportCharges(originator.getId(), true, null, exported::add);
+
+        assertEquals(507, exported.size());
+        ChargeProjection lastOfFirstBatch = firstBatch.get(499);
+        verify(chargeRepository).findSentPage(originator.getId(), lastOfFirstBatch.getCreatedAt(),
+                lastOfFirstBatch.getId(), Limit.of(500));
+    }
+
+    @Test
+    void shouldCreateBatchWithPartialFailures() {
+        when(userService.findById(originator.getId())).thenReturn(originator);
+        when(userService.findAllByCpf(any())).thenReturn(Map.of(
+                recipient.getCpf(), recipient,
+                originator.getCpf(), originator));
+        when(chargeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Charge> charges = invocation.getArgument(0);
+            charges.forEach(charge -> charge.setId(UUID.randomUUID()));
+            return charges;
+        });
+
+        List<CreateChargeRequest> requests = List.of(
+                request,
+                CreateChargeRequest.builder().recipientCpf("52998224725").amount(BigDecimal.TEN).build(),
+                CreateChargeRequest.builder().recipientCpf(originator.getCpf()).amount(BigDecimal.TEN).build(),
+                CreateChargeRequest.builder().recipientCpf(recipient.getCpf()).amount(BigDecimal.ZERO).build(),
+                CreateChargeRequest.builder().recipientCpf(recipient.getCpf()).amount(BigDecimal.ONE).build());
+
+        BatchChargeResponse response = chargeService.createCharges(originator.getId(), requests);
+
+        assertEquals(5, response.getTotal());
+        assertEquals(2, response.getCreated());
+        assertEquals(3, response.getFailed());
+        List<BatchChargeResponse.ItemResult> results = response.getResults();
+        assertTrue(results.get(0).isSuccess());
+        assertNotNull(results.get(0).getChargeId());
+        assertEquals("Usuário não encontrado", results.get(1).getError());
+        assertEquals("Não é possível criar cobrança para si mesmo", results.get(2).getError());
+        assertEquals("Valor deve ser maior que zero", results.get(3).getError());
+        assertTrue(results.get(4).isSuccess());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+
+        verify(userService, times(1)).findAllByCpf(any());
+        verify(userService, never()).findByCpf(any());
+        verify(chargeRepository, times(1)).saveAll(anyList());
+    }
+
+    private Charge charge(ChargeStatus status) {
+        return Charge.builder()
+                .id(UUID.randomUUID())
+                .originator(originator)
+                .recipient(recipient)
+                .amount(BigDecimal.TEN)
+                .status(status)
+                .build();
+    }
+
+    private List<ChargeProjection> projections(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        return IntStream.range(0, count)
+                .mapToObj(i -> new ChargeProjection(UUID.randomUUID(),
+                        originator.getId(), originator.getName(), originator.getCpf(),
+                        recipient.getId(), recipient.getName(), recipient.getCpf(),
+                        BigDecimal.TEN, null, ChargeStatus.PENDING, now.minusSeconds(i), now.minusSeconds(i)))
+                .toList();
+    }
 }
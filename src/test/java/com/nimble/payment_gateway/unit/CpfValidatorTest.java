@@ -0,0 +1,59 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.util.CpfValidator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CpfValidatorTest {
+
+    @Test
+    void shouldAcceptValidCpf() {
+        assertTrue(CpfValidator.isValid("52998224725"));
+        assertTrue(CpfValidator.isValid("11144477735"));
+        assertTrue(CpfValidator.isValid(new StringBuilder("12345678909")));
+    }
+
+    @Test
+    void shouldRejectInvalidCpf() {
+        assertFalse(CpfValidator.isValid((String) null));
+        assertFalse(CpfValidator.isValid(""));
+        assertFalse(CpfValidator.isValid("52998224726"));
+        assertFalse(CpfValidator.isValid("11111111111"));
+        assertFalse(CpfValidator.isValid("00000000000"));
+        assertFalse(CpfValidator.isValid("529.982.247-25"));
+        assertFalse(CpfValidator.isValid("5299822472"));
+        assertFalse(CpfValidator.isValid("5299822472a"));
+    }
+
+    @Test
+    void shouldValidateAsciiBytes() {
+        byte[] line = "cpf=52998224725;".getBytes(StandardCharsets.US_ASCII);
+
+        assertTrue(CpfValidator.isValid("52998224725".getBytes(StandardCharsets.US_ASCII)));
+        assertTrue(CpfValidator.isValid(line, 4, 11));
+        assertFalse(CpfValidator.isValid(line, 3, 11));
+        assertFalse(CpfValidator.isValid(line, 10, 11));
+    }
+
+    @Test
+    void shouldValidateAllPreservingOrder() {
+        List<String> cpfs = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            cpfs.add(i % 2 == 0 ? "52998224725" : "52998224726");
+        }
+
+        boolean[] results = CpfValidator.validateAll(cpfs);
+
+        assertEquals(cpfs.size(), results.length);
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(i % 2 == 0, results[i]);
+        }
+        assertArrayEquals(new boolean[]{true, false}, CpfValidator.validateAll(Arrays.asList("11144477735", "11144477736")));
+    }
+}
@@ -0,0 +1,128 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.security.CustomUserDetailsService;
+import com.nimble.payment_gateway.security.UserPrincipal;
+import com.nimble.payment_gateway.security.UserPrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserPrincipalCache userPrincipalCache;
+    private CustomUserDetailsService userDetailsService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userPrincipalCache = new UserPrincipalCache(100, 60_000);
+        userDetailsService = new CustomUserDetailsService(userRepository, userPrincipalCache, Set.of("52998224725"));
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .name("João Silva")
+                .cpf("12345678909")
+                .email("joao@email.com")
+                .password("hashedPassword")
+                .build();
+    }
+
+    @Test
+    void shouldQueryDatabaseOnlyOnceForHotUser() {
+        when(userRepository.findByCpf(user.getCpf())).thenReturn(Optional.of(user));
+
+        UserPrincipal first = (UserPrincipal) userDetailsService.loadUserByUsername(user.getCpf());
+        UserPrincipal second = (UserPrincipal) userDetailsService.loadUserByUsername(user.getCpf());
+
+        assertEquals(user.getId(), first.getId());
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByCpf(user.getCpf());
+    }
+
+    @Test
+    void shouldKeepCachedPrincipalWhenOnlyVersionChanges() {
+        when(userRepository.findByCpf(user.getCpf())).thenReturn(Optional.of(user));
+        userDetailsService.loadUserByUsername(user.getCpf());
+
+        user.setVersion(2L);
+        userPrincipalCache.evictIfChanged(user);
+        userDetailsService.loadUserByUsername(user.getCpf());
+
+        verify(userRepository, times(1)).findByCpf(user.getCpf());
+    }
+
+    @Test
+    void shouldReloadPrincipalWhenUserDataChanges() {
+        when(userRepository.findByCpf(user.getCpf())).thenReturn(Optional.of(user));
+        userDetailsService.loadUserByUsername(user.getCpf());
+
+        user.setEmail("joao.silva@email.com");
+        userPrincipalCache.evictIfChanged(user);
+        UserPrincipal reloaded = (UserPrincipal) userDetailsService.loadUserByUsername(user.getCpf());
+
+        assertEquals("joao.silva@email.com", reloaded.getEmail());
+        verify(userRepository, times(2)).findByCpf(user.getCpf());
+    }
+
+    @Test
+    void shouldEvictOnlyAfterCommitSoConcurrentLoadsCannotRecacheOldData() {
+        when(userRepository.findByCpf(user.getCpf())).thenReturn(Optional.of(user));
+        userDetailsService.loadUserByUsername(user.getCpf());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            user.setPassword("newHashedPassword");
+            userPrincipalCache.evictIfChanged(user);
+            assertEquals("hashedPassword", userDetailsService.loadUserByUsername(user.getCpf()).getPassword());
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("newHashedPassword", userDetailsService.loadUserByUsername(user.getCpf()).getPassword());
+        verify(userRepository, times(2)).findByCpf(user.getCpf());
+    }
+
+    @Test
+    void shouldEvictPreviousCpfWhenCpfChanges() {
+        String previousCpf = user.getCpf();
+        when(userRepository.findByCpf(previousCpf)).thenReturn(Optional.of(user));
+        userDetailsService.loadUserByUsername(previousCpf);
+
+        user.setCpf("52998224725");
+        when(userRepository.findByCpf(previousCpf)).thenReturn(Optional.empty());
+        userPrincipalCache.evictIfChanged(user);
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(previousCpf));
+    }
+
+    @Test
+    void shouldNotCacheUnknownUser() {
+        when(userRepository.findByCpf("00000000000")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername("00000000000"));
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername("00000000000"));
+        verify(userRepository, times(2)).findByCpf("00000000000");
+    }
+}
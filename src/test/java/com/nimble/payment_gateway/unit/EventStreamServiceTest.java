@@ -0,0 +1,128 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.enums.OutboxEventType;
+import com.nimble.payment_gateway.model.entity.OutboxEvent;
+import com.nimble.payment_gateway.repository.OutboxEventRepository;
+import com.nimble.payment_gateway.service.EventStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedConstruction;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventStreamServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private MockedConstruction<SseEmitter> emitters;
+    private EventStreamService eventStreamService;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        emitters = mockConstruction(SseEmitter.class);
+        eventStreamService = new EventStreamService(outboxEventRepository, 100, 60_000);
+        userId = UUID.randomUUID();
+        when(outboxEventRepository.findMaxPosition()).thenReturn(10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitters.close();
+    }
+
+    @Test
+    void shouldCatchUpFromLastEventIdThenFollowLiveEvents() throws IOException {
+        SseEmitter emitter = eventStreamService.subscribe(userId, 7L);
+        when(outboxEventRepository.findVisibleTo(eq(userId), eq(7L), eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(event(8, userId), event(10, userId)));
+        when(outboxEventRepository.findAfter(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(event(11, userId), event(12, UUID.randomUUID())));
+
+        eventStreamService.dispatch();
+
+        // Perdidos até a posição do stream, lidos do banco, e depois os novos visíveis ao usuário, sem repetir
+        assertEquals(List.of(8L, 10L, 11L), sentPositions(emitter));
+    }
+
+    @Test
+    void shouldResumeAfterReconnectFromLastReceivedPosition() throws IOException {
+        SseEmitter first = eventStreamService.subscribe(userId, null);
+        when(outboxEventRepository.findAfter(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(event(11, userId), event(12, userId)));
+        eventStreamService.dispatch();
+        assertEquals(List.of(11L, 12L), sentPositions(first));
+
+        // O cliente caiu depois do 11 e volta com Last-Event-ID: recebe o 12 do banco e segue com os novos
+        SseEmitter second = eventStreamService.subscribe(userId, 11L);
+        when(outboxEventRepository.findVisibleTo(eq(userId), eq(11L), eq(12L), any(Pageable.class)))
+                .thenReturn(List.of(event(12, userId)));
+        when(outboxEventRepository.findAfter(eq(12L), any(Pageable.class)))
+                .thenReturn(List.of(event(13, userId), event(14, userId)));
+        eventStreamService.dispatch();
+
+        assertEquals(List.of(12L, 13L, 14L), sentPositions(second));
+    }
+
+    @Test
+    void shouldStartNewSubscriberAtCurrentPositionWithoutLastEventId() throws IOException {
+        SseEmitter emitter = eventStreamService.subscribe(userId, null);
+        when(outboxEventRepository.findAfter(eq(10L), any(Pageable.class))).thenReturn(List.of(event(11, userId)));
+
+        eventStreamService.dispatch();
+
+        assertEquals(List.of(11L), sentPositions(emitter));
+        verify(outboxEventRepository, never()).findVisibleTo(any(), anyLong(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldDropSubscriberThatDisconnectsDuringCatchUp() throws IOException {
+        SseEmitter emitter = eventStreamService.subscribe(userId, 7L);
+        doThrow(new IOException("conexão encerrada")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        when(outboxEventRepository.findVisibleTo(eq(userId), eq(7L), eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(event(8, userId)));
+
+        eventStreamService.dispatch();
+
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter).completeWithError(any(IOException.class));
+        verify(outboxEventRepository, never()).findAfter(anyLong(), any(Pageable.class));
+    }
+
+    // A primeira parte de cada evento SSE é "id:<posição>\nevent:<tipo>\ndata:"
+    private static List<Long> sentPositions(SseEmitter emitter) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> sent = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, atLeast(0)).send(sent.capture());
+        return sent.getAllValues().stream()
+                .map(event -> event.build().iterator().next().getData().toString())
+                .map(header -> Long.parseLong(header.substring(3, header.indexOf('\n'))))
+                .toList();
+    }
+
+    private static OutboxEvent event(long position, UUID userId) {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .position(position)
+                .type(OutboxEventType.CHARGE_PAID)
+                .aggregateId(UUID.randomUUID())
+                .userId(userId)
+                .payload("{}")
+                .build();
+    }
+}
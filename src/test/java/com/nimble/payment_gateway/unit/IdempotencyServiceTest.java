@@ -0,0 +1,283 @@
+package com.nimble.payment_gateway.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nimble.payment_gateway.enums.IdempotencyStatus;
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.exception.BusinessException;
+import com.nimble.payment_gateway.exception.IdempotencyException;
+import com.nimble.payment_gateway.model.dto.request.DepositRequest;
+import com.nimble.payment_gateway.model.dto.response.PaymentResponse;
+import com.nimble.payment_gateway.model.entity.IdempotencyRecord;
+import com.nimble.payment_gateway.repository.IdempotencyRecordRepository;
+import com.nimble.payment_gateway.service.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private IdempotencyService idempotencyService;
+    private UUID userId;
+    private DepositRequest request;
+    private PaymentResponse response;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, objectMapper, 86_400_000, 100, 60_000, 60_000);
+        userId = UUID.randomUUID();
+        request = DepositRequest.builder().amount(new BigDecimal("100.00")).build();
+        response = PaymentResponse.builder()
+                .transactionId(UUID.randomUUID())
+                .amount(new BigDecimal("100.00"))
+                .paymentMethod(PaymentMethod.BALANCE)
+                .status("SUCCESS")
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void shouldExecuteWithoutStoreWhenKeyIsMissing() {
+        PaymentResponse result = idempotencyService.execute(userId, null, "deposit", request, () -> response);
+
+        assertSame(response, result);
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void shouldReplayCompletedResponseFromMemory() {
+        stubSuccessfulClaim();
+        AtomicInteger executions = new AtomicInteger();
+
+        PaymentResponse first = idempotencyService.execute(userId, "key-1", "deposit", request,
+                () -> { executions.incrementAndGet(); return response; });
+        PaymentResponse second = idempotencyService.execute(userId, "key-1", "deposit", request,
+                () -> { executions.incrementAndGet(); return response; });
+
+        assertEquals(1, executions.get());
+        assertSame(first, second);
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository).markCompleted(any(UUID.class), anyString());
+    }
+
+    @Test
+    void shouldReplayCompletedResponseFromDatabase() throws Exception {
+        stubSuccessfulClaim();
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        idempotencyService.execute(userId, "key-1", "deposit", request, () -> response);
+        verify(idempotencyRecordRepository).saveAndFlush(claim.capture());
+
+        // Nova instância simula outro nó, sem o cache em memória
+        IdempotencyService otherNode = new IdempotencyService(idempotencyRecordRepository, objectMapper, 86_400_000, 100, 60_000, 60_000);
+        IdempotencyRecord stored = claim.getValue();
+        stored.setStatus(IdempotencyStatus.COMPLETED);
+        stored.setResponseBody(objectMapper.writeValueAsString(response));
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotency_user_key"));
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, "key-1")).thenReturn(Optional.of(stored));
+
+        PaymentResponse replayed = otherNode.execute(userId, "key-1", "deposit", request,
+                () -> fail("Operação não deveria ser executada novamente"));
+
+        assertEquals(response.getTransactionId(), replayed.getTransactionId());
+        assertEquals(0, response.getAmount().compareTo(replayed.getAmount()));
+    }
+
+    @Test
+    void shouldPropagateIntegrityViolationsOtherThanKeyConflict() {
+        DataIntegrityViolationException notNull =
+                new DataIntegrityViolationException("NULL not allowed for column \"FINGERPRINT\"");
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenThrow(notNull);
+
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> idempotencyService.execute(userId, "key-1", "deposit", request,
+                        () -> fail("Operação não deveria ser executada")));
+
+        assertSame(notNull, thrown);
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository, never()).findByUserIdAndIdempotencyKey(any(), any());
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithDifferentRequest() {
+        stubSuccessfulClaim();
+        idempotencyService.execute(userId, "key-1", "deposit", request, () -> response);
+
+        DepositRequest other = DepositRequest.builder().amount(new BigDecimal("999.00")).build();
+
+        assertThrows(IdempotencyException.class,
+                () -> idempotencyService.execute(userId, "key-1", "deposit", other, () -> response));
+    }
+
+    @Test
+    void shouldReleaseKeyWhenOperationFails() {
+        UUID recordId = stubSuccessfulClaim();
+
+        assertThrows(BusinessException.class, () -> idempotencyService.execute(userId, "key-1", "deposit", request,
+                () -> { throw new BusinessException("Depósito não autorizado"); }));
+
+        verify(idempotencyRecordRepository).release(recordId);
+        verify(idempotencyRecordRepository, never()).markCompleted(any(UUID.class), anyString());
+    }
+
+    @Test
+    void shouldRejectWhileAnotherNodeIsProcessing() {
+        IdempotencyRecord processing = IdempotencyRecord.builder()
+                .userId(userId)
+                .idempotencyKey("key-1")
+                .fingerprint(fingerprintOf())
+                .status(IdempotencyStatus.PROCESSING)
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotency_user_key"));
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, "key-1")).thenReturn(Optional.of(processing));
+
+        assertThrows(IdempotencyException.class,
+                () -> idempotencyService.execute(userId, "key-1", "deposit", request, () -> response));
+    }
+
+    @Test
+    void shouldReleaseStaleProcessingKeyAndExecute() {
+        IdempotencyRecord stale = IdempotencyRecord.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .idempotencyKey("key-1")
+                .fingerprint(fingerprintOf())
+                .status(IdempotencyStatus.PROCESSING)
+                .createdAt(LocalDateTime.now().minusMinutes(5))
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotency_user_key"))
+                .thenAnswer(invocation -> {
+                    IdempotencyRecord record = invocation.getArgument(0);
+                    record.setId(UUID.randomUUID());
+                    return record;
+                });
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, "key-1")).thenReturn(Optional.of(stale));
+        when(idempotencyRecordRepository.releaseStale(eq(stale.getId()), any(LocalDateTime.class))).thenReturn(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        PaymentResponse result = idempotencyService.execute(userId, "key-1", "deposit", request,
+                () -> { executions.incrementAndGet(); return response; });
+
+        assertSame(response, result);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldCompleteKeyInsideOperationTransaction() {
+        UUID recordId = stubSuccessfulClaim();
+        when(idempotencyRecordRepository.markCompleted(eq(recordId), anyString())).thenReturn(1);
+
+        idempotencyService.execute(userId, "key-1", "deposit", request,
+                () -> idempotencyService.recordResponse(response));
+
+        verify(idempotencyRecordRepository, times(1)).markCompleted(eq(recordId), anyString());
+    }
+
+    @Test
+    void shouldUndoOperationWhenKeyWasReleasedWhileProcessing() {
+        UUID recordId = stubSuccessfulClaim();
+        when(idempotencyRecordRepository.markCompleted(eq(recordId), anyString())).thenReturn(0);
+
+        assertThrows(IdempotencyException.class, () -> idempotencyService.execute(userId, "key-1", "deposit", request,
+                () -> idempotencyService.recordResponse(response)));
+
+        verify(idempotencyRecordRepository).release(recordId);
+    }
+
+    @Test
+    void shouldPassResponseThroughWithoutClaim() {
+        assertSame(response, idempotencyService.recordResponse(response));
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentDuplicates() throws Exception {
+        stubSuccessfulClaim();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            Future<PaymentResponse> owner = executor.submit(() -> idempotencyService.execute(userId, "key-1", "deposit", request, () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return response;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<?>[] duplicates = new Future<?>[7];
+            for (int i = 0; i < duplicates.length; i++) {
+                duplicates[i] = executor.submit(() -> idempotencyService.execute(userId, "key-1", "deposit", request, () -> {
+                    executions.incrementAndGet();
+                    return response;
+                }));
+            }
+            release.countDown();
+
+            assertSame(response, owner.get(5, TimeUnit.SECONDS));
+            for (Future<?> duplicate : duplicates) {
+                assertSame(response, duplicate.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private UUID stubSuccessfulClaim() {
+        UUID recordId = UUID.randomUUID();
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            IdempotencyRecord record = invocation.getArgument(0);
+            record.setId(recordId);
+            return record;
+        });
+        return recordId;
+    }
+
+    private String fingerprintOf() {
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        IdempotencyRecordRepository probe = mock(IdempotencyRecordRepository.class);
+        when(probe.saveAndFlush(claim.capture())).thenAnswer(invocation -> {
+            IdempotencyRecord record = invocation.getArgument(0);
+            record.setId(UUID.randomUUID());
+            return record;
+        });
+        new IdempotencyService(probe, objectMapper, 86_400_000, 100, 60_000, 60_000)
+                .execute(userId, "key-1", "deposit", request, () -> response);
+        return claim.getValue().getFingerprint();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.invokeMethod(tokenProvider, "init");
+    }
+
+    @Test
+    void shouldReturnSubjectForValidToken() {
+        String token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken("12345678909", "senha123"));
+
+        assertEquals("12345678909", tokenProvider.getValidatedSubject(token));
+        assertTrue(tokenProvider.validateToken(token));
+    }
+
+    @Test
+    void shouldReturnNullForTamperedToken() {
+        String token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken("12345678909", "senha123"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(tokenProvider.getValidatedSubject(tampered));
+        assertFalse(tokenProvider.validateToken(tampered));
+    }
+
+    @Test
+    void shouldReturnNullForExpiredToken() {
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", -60_000L);
+        String token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken("12345678909", "senha123"));
+
+        assertNull(tokenProvider.getValidatedSubject(token));
+    }
+}
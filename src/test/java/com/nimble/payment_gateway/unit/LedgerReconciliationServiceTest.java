@@ -0,0 +1,97 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.model.projection.LedgerEntryProjection;
+import com.nimble.payment_gateway.repository.BalanceSnapshotRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.service.LedgerReconciliationService;
+import com.nimble.payment_gateway.service.LedgerReconciliationService.ReconciliationReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerReconciliationServiceTest {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerReconciliationService reconciliationService;
+    private UUID first;
+    private UUID second;
+
+    @BeforeEach
+    void setUp() {
+        reconciliationService = new LedgerReconciliationService(ledgerEntryRepository, balanceSnapshotRepository,
+                new TransactionTemplate(transactionManager), 1, 0.25, 10);
+        first = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        second = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    }
+
+    @Test
+    void shouldAcceptConsistentLedgerAcrossShards() {
+        when(balanceSnapshotRepository.findByAccountRange(any(), any())).thenReturn(List.of(
+                new LedgerEntryProjection(first, 0, 2, new BigDecimal("70.00"))));
+        when(ledgerEntryRepository.streamByAccountRange(any(), any())).thenReturn(List.of(
+                new LedgerEntryProjection(first, 0, 1, new BigDecimal("100.00")),
+                new LedgerEntryProjection(first, 0, 2, new BigDecimal("-30.00")),
+                new LedgerEntryProjection(first, 0, 3, new BigDecimal("5.00")),
+                new LedgerEntryProjection(first, 1, 1, new BigDecimal("20.00")),
+                new LedgerEntryProjection(second, 0, 1, new BigDecimal("30.00"))).stream());
+
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        assertTrue(report.isConsistent(), () -> report.getMismatches().toString());
+        assertEquals(2, report.getAccounts());
+        assertEquals(5, report.getEntries());
+    }
+
+    @Test
+    void shouldReportGapsWrongSnapshotsAndNegativeBalances() {
+        when(balanceSnapshotRepository.findByAccountRange(any(), any())).thenReturn(List.of(
+                new LedgerEntryProjection(first, 0, 1, new BigDecimal("99.00")),
+                new LedgerEntryProjection(second, 0, 5, BigDecimal.TEN)));
+        when(ledgerEntryRepository.streamByAccountRange(any(), any())).thenReturn(List.of(
+                new LedgerEntryProjection(first, 0, 1, new BigDecimal("100.00")),
+                new LedgerEntryProjection(first, 0, 3, new BigDecimal("-30.00")),
+                new LedgerEntryProjection(second, 0, 1, new BigDecimal("-1.00"))).stream());
+
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        assertEquals(4, report.getMismatches().size(), () -> report.getMismatches().toString());
+        assertTrue(report.getMismatches().stream().anyMatch(m -> m.contains("esperada 2")));
+        assertTrue(report.getMismatches().stream().anyMatch(m -> m.contains("razão soma 100.00")));
+        assertTrue(report.getMismatches().stream().anyMatch(m -> m.contains("saldo negativo")));
+        assertTrue(report.getMismatches().stream().anyMatch(m -> m.contains("além do último lançamento")));
+    }
+
+    @Test
+    void shouldCapThreadsAtShareOfConnectionPool() {
+        LedgerReconciliationService capped = new LedgerReconciliationService(ledgerEntryRepository,
+                balanceSnapshotRepository, new TransactionTemplate(transactionManager), 64, 0.25, 10);
+        when(balanceSnapshotRepository.findByAccountRange(any(), any())).thenReturn(List.of());
+        when(ledgerEntryRepository.streamByAccountRange(any(), any())).thenAnswer(invocation -> Stream.empty());
+
+        capped.reconcile();
+
+        verify(ledgerEntryRepository, times(2)).streamByAccountRange(any(), any());
+    }
+}
@@ -0,0 +1,242 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.exception.BusinessException;
+import com.nimble.payment_gateway.model.entity.AccountShard;
+import com.nimble.payment_gateway.model.entity.BalanceSnapshot;
+import com.nimble.payment_gateway.model.entity.LedgerEntry;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.model.projection.AccountShardCount;
+import com.nimble.payment_gateway.model.projection.LedgerShardKey;
+import com.nimble.payment_gateway.model.projection.LedgerTail;
+import com.nimble.payment_gateway.repository.AccountShardRepository;
+import com.nimble.payment_gateway.repository.BalanceSnapshotRepository;
+import com.nimble.payment_gateway.repository.LedgerEntryRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.AccountContention;
+import com.nimble.payment_gateway.service.BalanceCache;
+import com.nimble.payment_gateway.service.LedgerService;
+import com.nimble.payment_gateway.service.LedgerService.AccountPosition;
+import com.nimble.payment_gateway.service.LedgerService.LedgerAccount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Mock
+    private AccountShardRepository accountShardRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BalanceCache balanceCache;
+
+    @Mock
+    private AccountContention accountContention;
+
+    private LedgerService ledgerService;
+    private UUID accountId;
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = new LedgerService(ledgerEntryRepository, balanceSnapshotRepository, accountShardRepository,
+                userRepository, transactionTemplate, balanceCache, accountContention, 100, List.of(), 16);
+        accountId = UUID.randomUUID();
+        lenient().when(balanceSnapshotRepository.findFirstByAccountIdAndShardOrderBySequenceDesc(any(), anyInt()))
+                .thenReturn(Optional.empty());
+        lenient().when(ledgerEntryRepository.findTail(any(), anyInt(), anyLong())).thenReturn(new LedgerTail(null, null));
+        lenient().when(ledgerEntryRepository.save(any(LedgerEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void shouldComputeBalanceAsSnapshotPlusTail() {
+        when(balanceSnapshotRepository.findFirstByAccountIdAndShardOrderBySequenceDesc(accountId, 0))
+                .thenReturn(Optional.of(BalanceSnapshot.builder()
+                        .accountId(accountId).sequence(200).balance(new BigDecimal("500.00")).build()));
+        when(ledgerEntryRepository.findTail(accountId, 0, 200))
+                .thenReturn(new LedgerTail(203L, new BigDecimal("-120.00")));
+
+        assertEquals(new BigDecimal("380.00"), ledgerService.getBalance(accountId));
+    }
+
+    @Test
+    void shouldSumAllShardsOfHotAccount() {
+        makeHot(3);
+        when(ledgerEntryRepository.findTail(accountId, 0, 0)).thenReturn(new LedgerTail(4L, new BigDecimal("10.00")));
+        when(ledgerEntryRepository.findTail(accountId, 2, 0)).thenReturn(new LedgerTail(1L, new BigDecimal("5.00")));
+
+        assertEquals(new BigDecimal("15.00"), ledgerService.getBalance(accountId));
+    }
+
+    @Test
+    void shouldLockPlainAccountsInSingleQuery() {
+        UUID otherId = UUID.randomUUID();
+        when(userRepository.findAllByIdWithLock(any())).thenReturn(List.of(new User(), new User()));
+
+        Map<UUID, LedgerAccount> accounts = ledgerService.lock(accountId, otherId, UUID.randomUUID());
+
+        assertEquals(2, accounts.size());
+        verify(userRepository, times(1)).findAllByIdWithLock(argThat(ids -> ids.containsAll(List.of(accountId, otherId))));
+        verify(accountShardRepository, never()).lockShards(any(), any());
+    }
+
+    @Test
+    void shouldLockOnlyRoutedShardWhenCreditingHotAccount() {
+        UUID routingKey = UUID.randomUUID();
+        int expectedShard = Math.floorMod(routingKey.hashCode(), 8);
+        makeHot(8);
+        when(accountShardRepository.lockShards(accountId, List.of(expectedShard))).thenReturn(List.of(new AccountShard()));
+
+        LedgerAccount account = ledgerService.lock(null, accountId, routingKey).get(accountId);
+        ledgerService.credit(account, new BigDecimal("25.00"), UUID.randomUUID());
+
+        ArgumentCaptor<LedgerEntry> entry = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository).save(entry.capture());
+        assertEquals(expectedShard, entry.getValue().getShard());
+        assertEquals(1, entry.getValue().getSequence());
+        verify(userRepository, never()).findAllByIdWithLock(any());
+    }
+
+    @Test
+    void shouldSpreadDebitAcrossShardsWithoutNegativeSubBalances() {
+        LedgerAccount account = new LedgerAccount(accountId, null, List.of(
+                new AccountPosition(accountId, 0, 5, new BigDecimal("30.00")),
+                new AccountPosition(accountId, 1, 9, new BigDecimal("50.00")),
+                new AccountPosition(accountId, 2, 2, new BigDecimal("10.00"))));
+        UUID transactionId = UUID.randomUUID();
+
+        ledgerService.debit(account, new BigDecimal("70.00"), transactionId);
+
+        ArgumentCaptor<LedgerEntry> entries = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository, times(2)).save(entries.capture());
+        assertEquals(1, entries.getAllValues().get(0).getShard());
+        assertEquals(10, entries.getAllValues().get(0).getSequence());
+        assertEquals(new BigDecimal("-50.00"), entries.getAllValues().get(0).getAmount());
+        assertEquals(0, entries.getAllValues().get(1).getShard());
+        assertEquals(new BigDecimal("-20.00"), entries.getAllValues().get(1).getAmount());
+        assertEquals(new BigDecimal("20.00"), account.getBalance());
+    }
+
+    @Test
+    void shouldRejectDebitAboveTotalBalance() {
+        LedgerAccount account = new LedgerAccount(accountId, 0,
+                List.of(new AccountPosition(accountId, 0, 1, new BigDecimal("10.00"))));
+
+        assertThrows(BusinessException.class, () -> ledgerService.debit(account, new BigDecimal("10.01"), UUID.randomUUID()));
+        verify(ledgerEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldSnapshotShardsWithLongTails() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(ledgerEntryRepository.findShardsDueForSnapshot(any(), anyLong()))
+                .thenReturn(List.of(new LedgerShardKey(accountId, 3)));
+        when(ledgerEntryRepository.findTail(accountId, 3, 0)).thenReturn(new LedgerTail(150L, new BigDecimal("42.00")));
+
+        ledgerService.takeSnapshots();
+
+        ArgumentCaptor<BalanceSnapshot> snapshot = ArgumentCaptor.forClass(BalanceSnapshot.class);
+        verify(balanceSnapshotRepository).saveAndFlush(snapshot.capture());
+        assertEquals(3, snapshot.getValue().getShard());
+        assertEquals(150, snapshot.getValue().getSequence());
+        assertEquals(new BigDecimal("42.00"), snapshot.getValue().getBalance());
+        verify(balanceSnapshotRepository).deleteOlderThan(accountId, 3, 150);
+    }
+
+    @Test
+    void shouldNotReduceShardCount() {
+        runTransactions();
+        when(userRepository.findByIdWithLock(accountId)).thenReturn(Optional.of(new User()));
+        when(accountShardRepository.countByAccountId(accountId)).thenReturn(8);
+
+        assertThrows(BusinessException.class, () -> ledgerService.enableSharding(accountId, 4));
+        verify(accountShardRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void shouldCreateOnlyMissingShardsUnderAccountLock() {
+        runTransactions();
+        when(userRepository.findByIdWithLock(accountId)).thenReturn(Optional.of(new User()));
+        when(accountShardRepository.countByAccountId(accountId)).thenReturn(4);
+
+        ledgerService.enableSharding(accountId, 6);
+
+        InOrder inOrder = inOrder(userRepository, accountShardRepository);
+        inOrder.verify(userRepository).findByIdWithLock(accountId);
+        inOrder.verify(accountShardRepository).countByAccountId(accountId);
+        inOrder.verify(accountShardRepository).saveAll(argThat(shards -> shards.equals(List.of(
+                AccountShard.builder().accountId(accountId).shard(4).build(),
+                AccountShard.builder().accountId(accountId).shard(5).build()))));
+    }
+
+    @Test
+    void shouldIgnoreShardsCreatedConcurrentlyByAnotherInstance() {
+        LedgerService hotAccountService = new LedgerService(ledgerEntryRepository, balanceSnapshotRepository,
+                accountShardRepository, userRepository, transactionTemplate, balanceCache, accountContention, 100,
+                List.of(accountId), 16);
+        when(transactionTemplate.execute(any())).thenThrow(new DataIntegrityViolationException("uk_account_shard"));
+
+        assertDoesNotThrow(hotAccountService::configureHotAccounts);
+    }
+
+    @Test
+    void shouldReadShardCountFromDatabaseOnEveryLock() {
+        when(userRepository.findAllByIdWithLock(any())).thenReturn(List.of(new User()));
+        ledgerService.lock(accountId, null, UUID.randomUUID());
+
+        // Outra instância dividiu a conta: o próximo lançamento já bloqueia os shards, sem esperar recarga
+        makeHot(4);
+        when(accountShardRepository.lockShards(accountId, List.of(0, 1, 2, 3)))
+                .thenReturn(List.of(new AccountShard(), new AccountShard(), new AccountShard(), new AccountShard()));
+        LedgerAccount account = ledgerService.lock(accountId, null, UUID.randomUUID()).get(accountId);
+
+        assertNull(account.getCreditShard());
+        verify(userRepository, times(1)).findAllByIdWithLock(any());
+        verify(accountShardRepository, times(2)).countByAccountIds(List.of(accountId));
+    }
+
+    private void makeHot(int shards) {
+        when(accountShardRepository.countByAccountIds(argThat(ids -> ids.contains(accountId))))
+                .thenReturn(List.of(new AccountShardCount(accountId, shards)));
+    }
+
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
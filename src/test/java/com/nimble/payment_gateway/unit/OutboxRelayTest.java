@@ -0,0 +1,144 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.enums.OutboxEventType;
+import com.nimble.payment_gateway.model.entity.OutboxEvent;
+import com.nimble.payment_gateway.model.entity.OutboxSequence;
+import com.nimble.payment_gateway.repository.OutboxEventRepository;
+import com.nimble.payment_gateway.repository.OutboxSequenceRepository;
+import com.nimble.payment_gateway.service.OutboxEventSink;
+import com.nimble.payment_gateway.service.OutboxRelay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxSequenceRepository outboxSequenceRepository;
+
+    @Mock
+    private OutboxEventSink sink;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OutboxRelay outboxRelay;
+    private OutboxSequence sequence;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, outboxSequenceRepository, List.of(sink),
+                transactionTemplate, 100, 86_400_000);
+        sequence = new OutboxSequence(OutboxSequence.ID, 41);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(outboxSequenceRepository.existsById(OutboxSequence.ID)).thenReturn(true);
+        lenient().when(outboxSequenceRepository.lockById(OutboxSequence.ID)).thenReturn(Optional.of(sequence));
+    }
+
+    @Test
+    void shouldContinueNumberingFromSequenceRow() {
+        OutboxEvent first = event(null);
+        OutboxEvent second = event(null);
+        when(outboxEventRepository.findUnsequenced(any(Pageable.class))).thenReturn(List.of(first, second));
+
+        outboxRelay.relay();
+
+        assertEquals(42L, first.getPosition());
+        assertEquals(43L, second.getPosition());
+        assertEquals(43L, sequence.getLastPosition());
+        verify(outboxEventRepository).saveAll(List.of(first, second));
+        verify(outboxSequenceRepository).save(sequence);
+    }
+
+    @Test
+    void shouldLockSequenceBeforeReadingUnsequencedEvents() {
+        when(outboxEventRepository.findUnsequenced(any(Pageable.class))).thenReturn(List.of(event(null)));
+
+        outboxRelay.relay();
+
+        InOrder inOrder = inOrder(outboxSequenceRepository, outboxEventRepository);
+        inOrder.verify(outboxSequenceRepository).lockById(OutboxSequence.ID);
+        inOrder.verify(outboxEventRepository).findUnsequenced(any(Pageable.class));
+    }
+
+    @Test
+    void shouldCreateSequenceFromHighestPositionOnFirstRun() {
+        when(outboxSequenceRepository.existsById(OutboxSequence.ID)).thenReturn(false);
+        when(outboxEventRepository.findMaxPosition()).thenReturn(41L);
+
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        verify(outboxSequenceRepository, times(1)).saveAndFlush(new OutboxSequence(OutboxSequence.ID, 41));
+    }
+
+    @Test
+    void shouldRecreateSequenceWhenRowDisappears() {
+        when(outboxSequenceRepository.lockById(OutboxSequence.ID))
+                .thenReturn(Optional.of(sequence), Optional.empty(), Optional.of(sequence));
+        outboxRelay.relay();
+
+        assertThrows(IllegalStateException.class, () -> outboxRelay.relay());
+
+        when(outboxSequenceRepository.existsById(OutboxSequence.ID)).thenReturn(false);
+        when(outboxEventRepository.findMaxPosition()).thenReturn(41L);
+        outboxRelay.relay();
+
+        verify(outboxSequenceRepository).saveAndFlush(new OutboxSequence(OutboxSequence.ID, 41));
+    }
+
+    @Test
+    void shouldMarkBatchPublishedOnlyAfterSinkAccepts() {
+        List<OutboxEvent> batch = List.of(event(1L), event(2L));
+        when(outboxEventRepository.lockUnpublished(any(Pageable.class))).thenReturn(batch);
+
+        outboxRelay.relay();
+
+        verify(sink).publish(batch);
+        verify(outboxEventRepository).markPublished(eq(1L), eq(2L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldLeaveBatchUnpublishedWhenSinkFails() {
+        List<OutboxEvent> batch = List.of(event(1L), event(2L));
+        when(outboxEventRepository.lockUnpublished(any(Pageable.class))).thenReturn(batch);
+        doThrow(new IllegalStateException("fila indisponível")).when(sink).publish(batch);
+
+        assertThrows(IllegalStateException.class, () -> outboxRelay.relay());
+
+        verify(outboxEventRepository, never()).markPublished(anyLong(), anyLong(), any());
+    }
+
+    private OutboxEvent event(Long position) {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .position(position)
+                .type(OutboxEventType.CHARGE_PAID)
+                .aggregateId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .payload("{}")
+                .build();
+    }
+}
@@ -1,33 +1,56 @@
 package com.nimble.payment_gateway.unit;
 
+import com.nimble.payment_gateway.enums.CaptureStatus;
 import com.nimble.payment_gateway.enums.ChargeStatus;
 import com.nimble.payment_gateway.enums.PaymentMethod;
 import com.nimble.payment_gateway.exception.BusinessException;
 import com.nimble.payment_gateway.exception.InsufficientBalanceException;
+import com.nimble.payment_gateway.exception.PaymentAuthorizationException;
+import com.nimble.payment_gateway.model.dto.request.DepositRequest;
 import com.nimble.payment_gateway.model.dto.request.PaymentRequest;
 import com.nimble.payment_gateway.model.dto.response.PaymentResponse;
+import com.nimble.payment_gateway.model.entity.CaptureRequest;
 import com.nimble.payment_gateway.model.entity.Charge;
 import com.nimble.payment_gateway.model.entity.Transaction;
 import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.repository.CaptureRequestRepository;
 import com.nimble.payment_gateway.repository.ChargeRepository;
 import com.nimble.payment_gateway.repository.TransactionRepository;
 import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.AccountContention;
+import com.nimble.payment_gateway.service.ChargeSummaryService;
+import com.nimble.payment_gateway.service.IdempotencyService;
 import com.nimble.payment_gateway.service.AuthorizerService;
 import com.nimble.payment_gateway.service.ChargeService;
+import com.nimble.payment_gateway.service.LedgerService;
+import com.nimble.payment_gateway.service.LedgerService.AccountPosition;
+import com.nimble.payment_gateway.service.LedgerService.LedgerAccount;
+import com.nimble.payment_gateway.service.OutboxService;
+import com.nimble.payment_gateway.service.PaymentMetrics;
 import com.nimble.payment_gateway.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,12 +65,38 @@ class PaymentServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private CaptureRequestRepository captureRequestRepository;
+
     @Mock
     private ChargeService chargeService;
 
     @Mock
     private AuthorizerService authorizerService;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AccountContention accountContention;
+
+    @Mock
+    private ChargeSummaryService chargeSummaryService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PaymentMetrics paymentMetrics = new PaymentMetrics(meterRegistry);
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -58,12 +107,15 @@ class PaymentServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(idempotencyService.recordResponse(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
         payer = User.builder()
                 .id(UUID.randomUUID())
                 .name("Maria Santos")
                 .cpf("98765432100")
                 .email("maria@email.com")
-                .balance(BigDecimal.valueOf(1000))
                 .build();
 
         recipient = User.builder()
@@ -71,7 +123,6 @@ class PaymentServiceTest {
                 .name("João Silva")
                 .cpf("12345678909")
                 .email("joao@email.com")
-                .balance(BigDecimal.ZERO)
                 .build();
 
         charge = Charge.builder()
@@ -91,8 +142,10 @@ class PaymentServiceTest {
     @Test
     void shouldPayChargeWithBalanceSuccessfully() {
         when(chargeService.findById(charge.getId())).thenReturn(charge);
-        when(userRepository.findByIdWithLock(payer.getId())).thenReturn(Optional.of(payer));
-        when(userRepository.findByIdWithLock(recipient.getId())).thenReturn(Optional.of(recipient));
+        LedgerAccount payerAccount = ledgerAccount(payer, 1000);
+        LedgerAccount recipientAccount = ledgerAccount(recipient, 0);
+        when(ledgerService.lock(payer.getId(), recipient.getId(), charge.getId()))
+                .thenReturn(Map.of(payer.getId(), payerAccount, recipient.getId(), recipientAccount));
 
         Transaction savedTransaction = Transaction.builder()
                 .id(UUID.randomUUID())
@@ -104,20 +157,55 @@ class PaymentServiceTest {
         assertNotNull(response);
         assertEquals("APPROVED", response.getStatus());
         assertEquals(PaymentMethod.BALANCE, response.getPaymentMethod());
+        verify(ledgerService).debit(payerAccount, BigDecimal.valueOf(100), savedTransaction.getId());
+        verify(ledgerService).credit(recipientAccount, BigDecimal.valueOf(100), savedTransaction.getId());
+        verify(outboxService).chargePaid(charge);
+        verify(outboxService).transactionCreated(savedTransaction);
+        verify(userRepository, never()).save(any(User.class));
+        for (String stage : List.of("charge_load", "payer_lock", "transaction_insert", "commit")) {
+            assertEquals(1, meterRegistry.get("payment.stage").tag("stage", stage).timer().count(), stage);
+        }
+        assertEquals(1.0, meterRegistry.get("payment.requests")
+                .tags("method", "BALANCE", "outcome", "approved").counter().count());
         verify(chargeRepository, times(1)).save(any(Charge.class));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
     @Test
-    void shouldThrowExceptionWhenInsufficientBalance() {
-        payer.setBalance(BigDecimal.valueOf(50));
+    void shouldLockOnlyRecipientShardForCreditCardPayment() {
+        paymentRequest.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        paymentRequest.setCreditCard(PaymentRequest.CreditCardData.builder()
+                .cardNumber("4111111111111111")
+                .build());
+        LedgerAccount recipientAccount = ledgerAccount(recipient, 0);
+
+        when(chargeService.findById(charge.getId())).thenReturn(charge);
+        when(authorizerService.authorize()).thenReturn(true);
+        when(ledgerService.lock(null, recipient.getId(), charge.getId()))
+                .thenReturn(Map.of(recipient.getId(), recipientAccount));
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenReturn(Transaction.builder().id(UUID.randomUUID()).build());
+
+        PaymentResponse response = paymentService.payCharge(payer.getId(), paymentRequest);
+
+        verify(ledgerService).credit(recipientAccount, BigDecimal.valueOf(100), response.getTransactionId());
+        verify(ledgerService, never()).debit(any(), any(), any());
+    }
 
+    @Test
+    void shouldThrowExceptionWhenInsufficientBalance() {
         when(chargeService.findById(charge.getId())).thenReturn(charge);
-        when(userRepository.findByIdWithLock(payer.getId())).thenReturn(Optional.of(payer));
+        when(ledgerService.lock(payer.getId(), recipient.getId(), charge.getId()))
+                .thenReturn(Map.of(payer.getId(), ledgerAccount(payer, 50), recipient.getId(), ledgerAccount(recipient, 0)));
 
         assertThrows(InsufficientBalanceException.class,
                 () -> paymentService.payCharge(payer.getId(), paymentRequest));
         verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(ledgerService, never()).debit(any(), any(), any());
+        verify(ledgerService, never()).credit(any(), any(), any());
+        verifyNoInteractions(outboxService);
+        assertEquals(1.0, meterRegistry.get("payment.requests")
+                .tags("method", "BALANCE", "outcome", "insufficient_balance").counter().count());
     }
 
     @Test
@@ -125,10 +213,172 @@ class PaymentServiceTest {
         charge.setStatus(ChargeStatus.PAID);
 
         when(chargeService.findById(charge.getId())).thenReturn(charge);
-        when(userRepository.findByIdWithLock(payer.getId())).thenReturn(Optional.of(payer));
 
         assertThrows(BusinessException.class,
                 () -> paymentService.payCharge(payer.getId(), paymentRequest));
         verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(ledgerService, never()).lock(any(), any(), any());
+    }
+
+    @Test
+    void shouldNotOpenTransactionWhenCreditCardIsDenied() {
+        paymentRequest.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        paymentRequest.setCreditCard(PaymentRequest.CreditCardData.builder()
+                .cardNumber("4111111111111111")
+                .build());
+
+        when(chargeService.findById(charge.getId())).thenReturn(charge);
+        when(authorizerService.authorize()).thenReturn(false);
+
+        assertThrows(PaymentAuthorizationException.class,
+                () -> paymentService.payCharge(payer.getId(), paymentRequest));
+        verify(transactionTemplate, never()).execute(any());
+        verify(ledgerService, never()).lock(any(), any(), any());
+    }
+
+    @Test
+    void shouldAuthorizeDepositBeforeOpeningTransaction() {
+        when(authorizerService.authorize()).thenReturn(true);
+        LedgerAccount account = ledgerAccount(payer, 1000);
+        when(ledgerService.lock(isNull(), eq(payer.getId()), any())).thenReturn(Map.of(payer.getId(), account));
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenReturn(Transaction.builder().id(UUID.randomUUID()).build());
+
+        PaymentResponse response = paymentService.deposit(payer.getId(),
+                DepositRequest.builder().amount(BigDecimal.valueOf(50)).build());
+
+        assertEquals("APPROVED", response.getStatus());
+        verify(ledgerService).credit(account, BigDecimal.valueOf(50), response.getTransactionId());
+
+        InOrder inOrder = inOrder(authorizerService, transactionTemplate, ledgerService);
+        inOrder.verify(authorizerService).authorize();
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(ledgerService).lock(isNull(), eq(payer.getId()), any());
+        assertEquals(1, meterRegistry.get("payment.transaction.hold").tag("operation", "deposit").timer().count());
+    }
+
+    @Test
+    void shouldEnqueueCreditCardPaymentWithoutCallingAuthorizerWhenAsync() {
+        ReflectionTestUtils.setField(paymentService, "asyncCapture", true);
+        paymentRequest.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        paymentRequest.setCreditCard(PaymentRequest.CreditCardData.builder()
+                .cardNumber("4111111111111111")
+                .build());
+        UUID captureId = UUID.randomUUID();
+
+        when(chargeService.findById(charge.getId())).thenReturn(charge);
+        when(captureRequestRepository.save(any(CaptureRequest.class))).thenAnswer(invocation -> {
+            CaptureRequest capture = invocation.getArgument(0);
+            capture.setId(captureId);
+            return capture;
+        });
+
+        PaymentResponse response = paymentService.payCharge(payer.getId(), paymentRequest);
+
+        assertEquals(captureId, response.getCaptureId());
+        assertEquals("AUTHORIZING", response.getStatus());
+        assertEquals(ChargeStatus.AUTHORIZING, charge.getStatus());
+        verify(authorizerService, never()).authorize();
+        verify(ledgerService, never()).lock(any(), any(), any());
+    }
+
+    @Test
+    void shouldCreditRecipientWhenQueuedCaptureIsApproved() {
+        charge.setStatus(ChargeStatus.AUTHORIZING);
+        CaptureRequest capture = CaptureRequest.builder()
+                .id(UUID.randomUUID())
+                .chargeId(charge.getId())
+                .payerId(payer.getId())
+                .status(CaptureStatus.PROCESSING)
+                .build();
+        LedgerAccount recipientAccount = ledgerAccount(recipient, 0);
+        Transaction savedTransaction = Transaction.builder().id(UUID.randomUUID()).build();
+
+        when(captureRequestRepository.findById(capture.getId())).thenReturn(Optional.of(capture));
+        when(captureRequestRepository.save(capture)).thenReturn(capture);
+        when(chargeService.findById(charge.getId())).thenReturn(charge);
+        when(ledgerService.lock(null, recipient.getId(), charge.getId()))
+                .thenReturn(Map.of(recipient.getId(), recipientAccount));
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
+
+        paymentService.completeCapture(capture.getId(), true);
+
+        assertEquals(CaptureStatus.APPROVED, capture.getStatus());
+        assertEquals(savedTransaction.getId(), capture.getTransactionId());
+        assertTrue(charge.isPaid());
+        verify(ledgerService).credit(recipientAccount, BigDecimal.valueOf(100), savedTransaction.getId());
+    }
+
+    @Test
+    void shouldReturnChargeToPendingWhenQueuedCaptureIsDenied() {
+        charge.setStatus(ChargeStatus.AUTHORIZING);
+        CaptureRequest capture = CaptureRequest.builder()
+                .id(UUID.randomUUID())
+                .chargeId(charge.getId())
+                .payerId(payer.getId())
+                .status(CaptureStatus.PROCESSING)
+                .build();
+
+        when(captureRequestRepository.findById(capture.getId())).thenReturn(Optional.of(capture));
+        when(captureRequestRepository.save(capture)).thenReturn(capture);
+        when(chargeService.findById(charge.getId())).thenReturn(charge);
+
+        paymentService.completeCapture(capture.getId(), false);
+
+        assertEquals(CaptureStatus.DENIED, capture.getStatus());
+        assertTrue(charge.isPending());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(ledgerService, never()).credit(any(), any(), any());
+    }
+
+    @Test
+    void shouldReturnChargeToPendingWhenCaptureFailsWithoutApproval() {
+        charge.setStatus(ChargeStatus.AUTHORIZING);
+        CaptureRequest capture = CaptureRequest.builder()
+                .id(UUID.randomUUID())
+                .chargeId(charge.getId())
+                .payerId(payer.getId())
+                .status(CaptureStatus.PROCESSING)
+                .attempts(6)
+                .build();
+
+        when(captureRequestRepository.findById(capture.getId())).thenReturn(Optional.of(capture));
+        when(captureRequestRepository.save(capture)).thenReturn(capture);
+        when(chargeService.findById(charge.getId())).thenReturn(charge);
+
+        paymentService.failCapture(capture.getId());
+
+        assertEquals(CaptureStatus.FAILED, capture.getStatus());
+        assertTrue(charge.isPending());
+        verify(chargeSummaryService).statusChanged(charge, ChargeStatus.AUTHORIZING);
+    }
+
+    @Test
+    void shouldKeepChargeAuthorizingWhenApprovedCaptureFails() {
+        // Cartão cobrado e nunca lançado: a cobrança não pode ser paga de novo antes do estorno manual
+        charge.setStatus(ChargeStatus.AUTHORIZING);
+        CaptureRequest capture = CaptureRequest.builder()
+                .id(UUID.randomUUID())
+                .chargeId(charge.getId())
+                .payerId(payer.getId())
+                .status(CaptureStatus.PROCESSING)
+                .authorized(true)
+                .attempts(6)
+                .build();
+
+        when(captureRequestRepository.findById(capture.getId())).thenReturn(Optional.of(capture));
+        when(captureRequestRepository.save(capture)).thenReturn(capture);
+        when(chargeService.findById(charge.getId())).thenReturn(charge);
+
+        paymentService.failCapture(capture.getId());
+
+        assertEquals(CaptureStatus.FAILED, capture.getStatus());
+        assertTrue(charge.isAuthorizing());
+        verify(chargeRepository, never()).save(any(Charge.class));
+    }
+
+    private LedgerAccount ledgerAccount(User user, long balance) {
+        return new LedgerAccount(user.getId(), 0,
+                List.of(new AccountPosition(user.getId(), 0, 1, BigDecimal.valueOf(balance))));
     }
-}
\ No newline at end of file
+}
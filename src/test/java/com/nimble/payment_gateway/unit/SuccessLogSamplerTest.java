@@ -0,0 +1,52 @@
+package com.nimble.payment_gateway.unit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import com.nimble.payment_gateway.config.SuccessLogSampler;
+import com.nimble.payment_gateway.util.LogMarkers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SuccessLogSamplerTest {
+
+    private SuccessLogSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        sampler = new SuccessLogSampler();
+        sampler.setRate(10);
+    }
+
+    @Test
+    void shouldKeepOneInEverySuccessEvents() {
+        long written = IntStream.range(0, 100)
+                .mapToObj(i -> sampler.decide(event(Level.INFO, true)))
+                .filter(reply -> reply == FilterReply.NEUTRAL)
+                .count();
+
+        assertEquals(10, written);
+    }
+
+    @Test
+    void shouldNotSampleEventsWithoutSuccessMarker() {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(FilterReply.NEUTRAL, sampler.decide(event(Level.INFO, false)));
+            assertEquals(FilterReply.NEUTRAL, sampler.decide(event(Level.ERROR, false)));
+        }
+    }
+
+    private LoggingEvent event(Level level, boolean success) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        event.setMessage("Pagamento realizado");
+        if (success) {
+            event.addMarker(LogMarkers.SUCCESS);
+        }
+        return event;
+    }
+}
@@ -0,0 +1,107 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.enums.PaymentMethod;
+import com.nimble.payment_gateway.enums.TransactionType;
+import com.nimble.payment_gateway.exception.BusinessException;
+import com.nimble.payment_gateway.model.dto.response.CursorPageResponse;
+import com.nimble.payment_gateway.model.dto.response.TransactionResponse;
+import com.nimble.payment_gateway.model.projection.TransactionProjection;
+import com.nimble.payment_gateway.repository.TransactionRepository;
+import com.nimble.payment_gateway.service.TransactionService;
+import com.nimble.payment_gateway.util.CursorCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void shouldReturnFirstPageWithNextCursor() {
+        List<TransactionProjection> rows = projections(21);
+        when(transactionRepository.findStatementPage(eq(userId), any(), any(), any(), eq(Limit.of(21))))
+                .thenReturn(rows);
+
+        CursorPageResponse<TransactionResponse> page =
+                transactionService.getStatement(userId, null, null, null, null, null);
+
+        assertEquals(20, page.getItems().size());
+        assertTrue(page.isHasMore());
+        CursorCodec.Cursor next = CursorCodec.decode(page.getNextCursor());
+        assertEquals(rows.get(19).getId(), next.getId());
+        assertEquals(rows.get(19).getCreatedAt(), next.getCreatedAt());
+    }
+
+    @Test
+    void shouldApplyTypeAndDateRange() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 31, 23, 59, 59);
+        when(transactionRepository.findStatementPageByType(eq(userId), eq(TransactionType.DEPOSIT), eq(from),
+                eq(to), eq(new UUID(-1L, -1L)), eq(Limit.of(11)))).thenReturn(projections(3));
+
+        CursorPageResponse<TransactionResponse> page =
+                transactionService.getStatement(userId, TransactionType.DEPOSIT, from, to, null, 10);
+
+        assertEquals(3, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(transactionRepository, never()).findStatementPage(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldKeepCursorOlderThanEndDate() {
+        LocalDateTime to = LocalDateTime.of(2024, 1, 31, 0, 0);
+        LocalDateTime cursorDate = to.minusDays(2);
+        UUID cursorId = UUID.randomUUID();
+        when(transactionRepository.findStatementPage(eq(userId), any(), eq(cursorDate), eq(cursorId), any()))
+                .thenReturn(List.of());
+
+        transactionService.getStatement(userId, null, null, to, CursorCodec.encode(cursorDate, cursorId), null);
+
+        verify(transactionRepository).findStatementPage(eq(userId), any(), eq(cursorDate), eq(cursorId), any());
+    }
+
+    @Test
+    void shouldRejectInvertedDateRange() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(BusinessException.class,
+                () -> transactionService.getStatement(userId, null, now, now.minusDays(1), null, null));
+    }
+
+    private List<TransactionProjection> projections(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        return IntStream.range(0, count)
+                .mapToObj(i -> new TransactionProjection(UUID.randomUUID(), null, BigDecimal.TEN,
+                        TransactionType.DEPOSIT, PaymentMethod.BALANCE, "Depósito de saldo", now.minusSeconds(i)))
+                .toList();
+    }
+}
@@ -0,0 +1,190 @@
+package com.nimble.payment_gateway.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimble.payment_gateway.enums.ImportFormat;
+import com.nimble.payment_gateway.enums.ImportStatus;
+import com.nimble.payment_gateway.exception.BusinessException;
+import com.nimble.payment_gateway.model.dto.response.UserImportResponse;
+import com.nimble.payment_gateway.model.entity.User;
+import com.nimble.payment_gateway.model.entity.UserImportJob;
+import com.nimble.payment_gateway.repository.UserImportJobRepository;
+import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.UserImportService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserImportJobRepository userImportJobRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final List<User> inserted = new ArrayList<>();
+    private UserImportService userImportService;
+    private UserImportJob job;
+
+    @BeforeEach
+    void setUp() {
+        userImportService = new UserImportService(userRepository, userImportJobRepository, passwordEncoder,
+                transactionTemplate, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), 2, 2, 300);
+
+        job = UserImportJob.builder().id(UUID.randomUUID()).status(ImportStatus.RUNNING).build();
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(userImportJobRepository.save(any(UserImportJob.class))).thenAnswer(invocation -> {
+            UserImportJob saved = invocation.getArgument(0);
+            if (saved.getId() == null) {
+                job.setFormat(saved.getFormat());
+                return job;
+            }
+            return saved;
+        });
+        lenient().when(userImportJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        lenient().when(userRepository.findExistingCpfs(any())).thenReturn(Set.of());
+        lenient().when(userRepository.findExistingEmails(any())).thenReturn(Set.of());
+        lenient().when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            inserted.addAll(users);
+            return users;
+        });
+    }
+
+    @Test
+    void shouldImportNdjsonInBatchesSkippingInvalidAndDuplicateRows() {
+        when(userRepository.findExistingEmails(any())).thenReturn(Set.of("existente@email.com"));
+
+        UserImportResponse response = userImportService.importUsers(stream(
+                "{\"name\":\"Alice Souza\",\"cpf\":\"52998224725\",\"email\":\"alice@email.com\",\"password\":\"senha123\"}",
+                "{\"name\":\"Bob Lima\",\"cpf\":\"52998224726\",\"email\":\"bob@email.com\",\"password\":\"senha123\"}",
+                "{\"name\":\"Carla Dias\",\"cpf\":\"11144477735\",\"email\":\"existente@email.com\",\"password\":\"senha123\"}",
+                "não é json",
+                "{\"name\":\"Davi Rocha\",\"cpf\":\"12345678909\",\"email\":\"davi@email.com\",\"password\":\"senha123\"}"),
+                ImportFormat.NDJSON, null);
+
+        assertEquals(ImportStatus.COMPLETED, response.getStatus());
+        assertEquals(2, response.getImported());
+        assertEquals(1, response.getSkipped());
+        assertEquals(2, response.getFailed());
+        assertEquals(5, response.getLastLine());
+        assertEquals(List.of("52998224725", "12345678909"), inserted.stream().map(User::getCpf).toList());
+        assertTrue(passwordEncoder.matches("senha123", inserted.get(0).getPassword()));
+        // Blocos de 2 linhas: três consultas de deduplicação e três checkpoints
+        verify(userRepository, times(3)).findExistingCpfs(any());
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    void shouldImportCsvWithHeaderInAnyColumnOrder() {
+        UserImportResponse response = userImportService.importUsers(stream(
+                "email,name,password,cpf",
+                "alice@email.com,Alice Souza,senha123,52998224725",
+                "alice2@email.com,Alice Clone,senha123,52998224725"), ImportFormat.CSV, null);
+
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getSkipped());
+        assertEquals("Alice Souza", inserted.get(0).getName());
+    }
+
+    @Test
+    void shouldResumeAfterCheckpoint() {
+        job.setFormat(ImportFormat.NDJSON);
+        job.setStatus(ImportStatus.FAILED);
+        job.setLastLine(2);
+        job.setImported(2);
+        when(userImportJobRepository.claim(eq(job.getId()), eq(ImportFormat.NDJSON), any(), any())).thenReturn(1);
+
+        UserImportResponse response = userImportService.importUsers(stream(
+                "{\"name\":\"Alice Souza\",\"cpf\":\"52998224725\",\"email\":\"alice@email.com\",\"password\":\"senha123\"}",
+                "{\"name\":\"Bob Lima\",\"cpf\":\"11144477735\",\"email\":\"bob@email.com\",\"password\":\"senha123\"}",
+                "{\"name\":\"Davi Rocha\",\"cpf\":\"12345678909\",\"email\":\"davi@email.com\",\"password\":\"senha123\"}"),
+                ImportFormat.NDJSON, job.getId());
+
+        assertEquals(ImportStatus.COMPLETED, response.getStatus());
+        assertEquals(3, response.getImported());
+        assertEquals(List.of("12345678909"), inserted.stream().map(User::getCpf).toList());
+    }
+
+    @Test
+    void shouldRejectResumingJobClaimedByAnotherRequest() {
+        job.setFormat(ImportFormat.NDJSON);
+        job.setStatus(ImportStatus.RUNNING);
+        job.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+        when(userImportJobRepository.claim(eq(job.getId()), eq(ImportFormat.NDJSON), any(), any())).thenReturn(0);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> userImportService.importUsers(
+                stream("{\"name\":\"Alice Souza\",\"cpf\":\"52998224725\",\"email\":\"alice@email.com\",\"password\":\"senha123\"}"),
+                ImportFormat.NDJSON, job.getId()));
+
+        assertEquals("Importação já está em andamento em outra requisição", exception.getMessage());
+        verify(userRepository, never()).saveAll(anyList());
+        verify(userImportJobRepository, never()).save(any(UserImportJob.class));
+    }
+
+    @Test
+    void shouldReturnCompletedJobWithoutClaimingIt() {
+        job.setFormat(ImportFormat.NDJSON);
+        job.setStatus(ImportStatus.COMPLETED);
+        job.setImported(3);
+
+        UserImportResponse response = userImportService.importUsers(stream(""), ImportFormat.NDJSON, job.getId());
+
+        assertEquals(ImportStatus.COMPLETED, response.getStatus());
+        assertEquals(3, response.getImported());
+        verify(userImportJobRepository, never()).claim(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldKeepLastCommittedCheckpointWhenBatchFails() {
+        when(userRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("conexão perdida"));
+
+        UserImportResponse response = userImportService.importUsers(stream(
+                "{\"name\":\"Alice Souza\",\"cpf\":\"52998224725\",\"email\":\"alice@email.com\",\"password\":\"senha123\"}",
+                "{\"name\":\"Bob Lima\",\"cpf\":\"11144477735\",\"email\":\"bob@email.com\",\"password\":\"senha123\"}",
+                "{\"name\":\"Davi Rocha\",\"cpf\":\"12345678909\",\"email\":\"davi@email.com\",\"password\":\"senha123\"}"),
+                ImportFormat.NDJSON, null);
+
+        assertEquals(ImportStatus.FAILED, response.getStatus());
+        assertEquals(2, response.getLastLine());
+        assertEquals(2, response.getImported());
+        ArgumentCaptor<UserImportJob> saved = ArgumentCaptor.forClass(UserImportJob.class);
+        verify(userImportJobRepository, atLeastOnce()).save(saved.capture());
+        assertEquals(ImportStatus.FAILED, saved.getValue().getStatus());
+    }
+
+    private InputStream stream(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
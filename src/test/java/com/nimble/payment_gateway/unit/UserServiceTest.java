@@ -6,6 +6,7 @@ import com.nimble.payment_gateway.model.dto.request.UserRegistrationRequest;
 import com.nimble.payment_gateway.model.dto.response.UserResponse;
 import com.nimble.payment_gateway.model.entity.User;
 import com.nimble.payment_gateway.repository.UserRepository;
+import com.nimble.payment_gateway.service.LedgerService;
 import com.nimble.payment_gateway.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,7 +16,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +31,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private LedgerService ledgerService;
+
     @InjectMocks
     private UserService userService;
 
@@ -58,7 +61,6 @@ class UserServiceTest {
                 .cpf(validRequest.getCpf())
                 .email(validRequest.getEmail())
                 .password("hashedPassword")
-                .balance(BigDecimal.ZERO)
                 .build();
 
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
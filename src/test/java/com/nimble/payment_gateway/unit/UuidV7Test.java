@@ -0,0 +1,49 @@
+package com.nimble.payment_gateway.unit;
+
+import com.nimble.payment_gateway.util.UuidV7;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void shouldGenerateVersion7WithRfcVariant() {
+        UUID uuid = UuidV7.randomUuid();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void shouldEmbedCreationTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.randomUuid();
+
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+
+        // O contador pode adiantar o timestamp em poucos ms sob rajadas
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis() + 5);
+    }
+
+    @Test
+    void shouldBeStrictlyIncreasingWithinSameMillisecond() {
+        List<UUID> generated = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            generated.add(UuidV7.randomUuid());
+        }
+
+        Set<UUID> unique = new HashSet<>(generated);
+        assertEquals(generated.size(), unique.size());
+        for (int i = 1; i < generated.size(); i++) {
+            assertTrue(Long.compareUnsigned(generated.get(i - 1).getMostSignificantBits(),
+                    generated.get(i).getMostSignificantBits()) < 0);
+        }
+    }
+}